@@ -0,0 +1,66 @@
+package kg.zhaparov.reservation.benchmark;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import kg.zhaparov.reservation.reservations.ReservationInterval;
+import kg.zhaparov.reservation.reservations.availability.ApprovedReservationIndex;
+import kg.zhaparov.reservation.reservations.availability.ReservationAvailabilityService;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Conflict check answered from the in-memory index, without a database.
+ * The database path is measured end to end in {@link ReservationSearchBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AvailabilityConflictBenchmark {
+
+    private static final LocalDate HORIZON_START = LocalDate.of(2030, 1, 1);
+
+    @Param({"1000"})
+    private int rooms;
+
+    @Param({"10", "1000"})
+    private int reservationsPerRoom;
+
+    private ApprovedReservationIndex index;
+    private ReservationAvailabilityService service;
+
+    @Setup
+    public void setUp() {
+        List<ReservationInterval> intervals = new ArrayList<>(rooms * reservationsPerRoom);
+        long id = 0;
+        for (long room = 0; room < rooms; room++) {
+            for (int slot = 0; slot < reservationsPerRoom; slot++) {
+                LocalDate startDate = HORIZON_START.plusDays(slot * 4L);
+                intervals.add(new ReservationInterval(id++, room, startDate, startDate.plusDays(3)));
+            }
+        }
+        index = new ApprovedReservationIndex();
+        index.load(intervals);
+        service = new ReservationAvailabilityService(null, index, true, new SimpleMeterRegistry(), null, null, null);
+    }
+
+    @Benchmark
+    public boolean indexHasConflict() {
+        var random = ThreadLocalRandom.current();
+        LocalDate startDate = HORIZON_START.plusDays(random.nextInt(reservationsPerRoom * 4));
+        return index.hasConflict((long) random.nextInt(rooms), startDate, startDate.plusDays(2));
+    }
+
+    @Benchmark
+    public boolean serviceIsReservationAvailable() {
+        var random = ThreadLocalRandom.current();
+        LocalDate startDate = HORIZON_START.plusDays(random.nextInt(reservationsPerRoom * 4));
+        return service.isReservationAvailable((long) random.nextInt(rooms), startDate, startDate.plusDays(2));
+    }
+}
@@ -0,0 +1,157 @@
+package kg.zhaparov.reservation.benchmark;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.OutputStreamAppender;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import kg.zhaparov.reservation.reservations.InvalidReservationRequestException;
+import kg.zhaparov.reservation.reservations.availability.ApprovedReservationIndex;
+import kg.zhaparov.reservation.reservations.availability.ReservationAvailabilityService;
+import kg.zhaparov.reservation.web.RateSamplingTurboFilter;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Cost of rejecting a request with a start date after its end date, from the throw inside
+ * the service to the log line of the exception handler. {@code before} is the old path:
+ * an {@link IllegalArgumentException} with a stack trace, logged at ERROR with the trace
+ * by a synchronous appender. {@code after} is the current one: a stackless domain
+ * exception and a one-line WARN through the rate-sampled asynchronous appender.
+ * {@code stackDepth} frames are put under the throw site to stand in for the servlet and
+ * Spring MVC dispatch chain. Log output is discarded, so the synchronous numbers are a
+ * lower bound of writing to a real console.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RejectPathBenchmark {
+
+    private static final String HANDLER_LOGGER = "kg.zhaparov.reservation.web.GlobalExceptionHandler";
+    private static final LocalDate START_DATE = LocalDate.of(2030, 1, 10);
+    private static final LocalDate END_DATE = LocalDate.of(2030, 1, 5);
+
+    @Param({"32", "128"})
+    private int stackDepth;
+
+    private ReservationAvailabilityService service;
+    private LoggerContext syncContext;
+    private LoggerContext asyncContext;
+    private Logger syncLog;
+    private Logger asyncLog;
+
+    @Setup
+    public void setUp() {
+        service = new ReservationAvailabilityService(
+                null, new ApprovedReservationIndex(), true, new SimpleMeterRegistry(), null, null, null
+        );
+
+        syncContext = new LoggerContext();
+        syncContext.getLogger(Logger.ROOT_LOGGER_NAME).addAppender(discardingAppender(syncContext));
+        syncLog = syncContext.getLogger(HANDLER_LOGGER);
+
+        asyncContext = new LoggerContext();
+        var sampling = new RateSamplingTurboFilter();
+        sampling.setContext(asyncContext);
+        sampling.setLoggerPattern(".*ExceptionHandler");
+        sampling.start();
+        asyncContext.addTurboFilter(sampling);
+        var async = new AsyncAppender();
+        async.setContext(asyncContext);
+        async.setQueueSize(8192);
+        async.setNeverBlock(true);
+        async.addAppender(discardingAppender(asyncContext));
+        async.start();
+        asyncContext.getLogger(Logger.ROOT_LOGGER_NAME).addAppender(async);
+        asyncLog = asyncContext.getLogger(HANDLER_LOGGER);
+
+        for (LoggerContext context : List.of(syncContext, asyncContext)) {
+            context.getLogger(Logger.ROOT_LOGGER_NAME).setLevel(Level.INFO);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        syncContext.stop();
+        asyncContext.stop();
+    }
+
+    @Benchmark
+    public Object before() {
+        return atDepth(stackDepth, () -> {
+            try {
+                if (!END_DATE.isAfter(START_DATE)) {
+                    throw new IllegalArgumentException("Start date should be before end date");
+                }
+                return null;
+            } catch (IllegalArgumentException e) {
+                syncLog.error("Handle BadRequest", e);
+                return e;
+            }
+        });
+    }
+
+    @Benchmark
+    public Object after() {
+        return atDepth(stackDepth, () -> {
+            try {
+                return service.isReservationAvailable(1L, START_DATE, END_DATE);
+            } catch (InvalidReservationRequestException e) {
+                asyncLog.warn("Handle BadRequest: {}", e.getMessage());
+                return e;
+            }
+        });
+    }
+
+    @Benchmark
+    public Object stackfulExceptionOnly() {
+        return atDepth(stackDepth, () -> {
+            try {
+                throw new IllegalArgumentException("Start date should be before end date");
+            } catch (IllegalArgumentException e) {
+                return e;
+            }
+        });
+    }
+
+    @Benchmark
+    public Object stacklessExceptionOnly() {
+        return atDepth(stackDepth, () -> {
+            try {
+                throw new InvalidReservationRequestException("Start date should be before end date");
+            } catch (InvalidReservationRequestException e) {
+                return e;
+            }
+        });
+    }
+
+    private static Object atDepth(int depth, Supplier<Object> action) {
+        return depth == 0 ? action.get() : atDepth(depth - 1, action);
+    }
+
+    private static Appender<ILoggingEvent> discardingAppender(LoggerContext context) {
+        var encoder = new PatternLayoutEncoder();
+        encoder.setContext(context);
+        encoder.setPattern("%d{yyyy-MM-dd'T'HH:mm:ss.SSSXXX} %5level [%thread] %logger{40} : %msg%n");
+        encoder.start();
+
+        var appender = new OutputStreamAppender<ILoggingEvent>();
+        appender.setContext(context);
+        appender.setEncoder(encoder);
+        appender.setOutputStream(OutputStream.nullOutputStream());
+        appender.start();
+        return appender;
+    }
+}
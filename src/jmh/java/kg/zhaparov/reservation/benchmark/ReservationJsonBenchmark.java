@@ -0,0 +1,48 @@
+package kg.zhaparov.reservation.benchmark;
+
+import kg.zhaparov.reservation.reservations.Reservation;
+import kg.zhaparov.reservation.reservations.ReservationStatus;
+import org.openjdk.jmh.annotations.*;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReservationJsonBenchmark {
+
+    @Param({"10", "100", "1000"})
+    private int size;
+
+    private final JsonMapper jsonMapper = JsonMapper.builder().build();
+
+    private List<Reservation> reservations;
+
+    @Setup
+    public void setUp() {
+        LocalDate startDate = LocalDate.of(2030, 1, 1);
+        reservations = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            reservations.add(new Reservation(
+                    (long) i,
+                    (long) i % 1000,
+                    (long) i % 100,
+                    startDate.plusDays(i % 300),
+                    startDate.plusDays(i % 300 + 3),
+                    ReservationStatus.values()[i % ReservationStatus.values().length]
+            ));
+        }
+    }
+
+    @Benchmark
+    public byte[] serializeList() {
+        return jsonMapper.writeValueAsBytes(reservations);
+    }
+}
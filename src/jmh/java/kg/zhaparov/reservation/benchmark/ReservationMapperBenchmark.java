@@ -0,0 +1,45 @@
+package kg.zhaparov.reservation.benchmark;
+
+import kg.zhaparov.reservation.reservations.Reservation;
+import kg.zhaparov.reservation.reservations.ReservationEntity;
+import kg.zhaparov.reservation.reservations.ReservationMapper;
+import kg.zhaparov.reservation.reservations.ReservationStatus;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReservationMapperBenchmark {
+
+    private final ReservationMapper mapper = new ReservationMapper();
+
+    private ReservationEntity entity;
+    private Reservation reservation;
+
+    @Setup
+    public void setUp() {
+        LocalDate startDate = LocalDate.of(2030, 1, 1);
+        entity = new ReservationEntity(
+                42L, 7L, 101L, startDate, startDate.plusDays(3), ReservationStatus.APPROVED
+        );
+        reservation = new Reservation(
+                null, 7L, 101L, startDate, startDate.plusDays(3), null
+        );
+    }
+
+    @Benchmark
+    public Reservation toDomain() {
+        return mapper.toDomain(entity);
+    }
+
+    @Benchmark
+    public ReservationEntity toEntity() {
+        return mapper.toEntity(reservation);
+    }
+}
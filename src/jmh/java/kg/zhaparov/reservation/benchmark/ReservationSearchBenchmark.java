@@ -0,0 +1,135 @@
+package kg.zhaparov.reservation.benchmark;
+
+import kg.zhaparov.reservation.ReservationSystemApplication;
+import kg.zhaparov.reservation.reservations.Reservation;
+import kg.zhaparov.reservation.reservations.ReservationSearchFilter;
+import kg.zhaparov.reservation.reservations.ReservationService;
+import kg.zhaparov.reservation.reservations.ReservationStatus;
+import kg.zhaparov.reservation.reservations.availability.ReservationAvailabilityService;
+import kg.zhaparov.reservation.reservations.bulk.ReservationBulkService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end search and database conflict check through the service layer,
+ * against the in-process H2 database of the test profile.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReservationSearchBenchmark {
+
+    private static final int ROOMS = 1_000;
+    private static final int USERS = 10_000;
+    private static final int RESERVATIONS = 100_000;
+    private static final LocalDate HORIZON_START = LocalDate.now().plusDays(1);
+
+    private ConfigurableApplicationContext context;
+    private ReservationService reservationService;
+    private ReservationAvailabilityService availabilityService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(ReservationSystemApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("test")
+                .properties(
+                        "reservation.availability.index.enabled=false",
+                        "logging.level.root=WARN"
+                )
+                .run();
+        reservationService = context.getBean(ReservationService.class);
+        availabilityService = context.getBean(ReservationAvailabilityService.class);
+
+        var bulkService = context.getBean(ReservationBulkService.class);
+        var random = ThreadLocalRandom.current();
+        List<Reservation> batch = new ArrayList<>();
+        for (int i = 0; i < RESERVATIONS; i++) {
+            LocalDate startDate = HORIZON_START.plusDays(random.nextInt(365));
+            batch.add(new Reservation(
+                    null,
+                    (long) random.nextInt(USERS),
+                    (long) random.nextInt(ROOMS),
+                    startDate,
+                    startDate.plusDays(1 + random.nextInt(7)),
+                    null
+            ));
+            if (batch.size() == 10_000) {
+                bulkService.createReservations(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Reservation> searchByRoom() {
+        return reservationService.searchAllByFilter(filter(
+                (long) ThreadLocalRandom.current().nextInt(ROOMS), null, null, null
+        ));
+    }
+
+    @Benchmark
+    public List<Reservation> searchByUser() {
+        return reservationService.searchAllByFilter(filter(
+                null, (long) ThreadLocalRandom.current().nextInt(USERS), null, null
+        ));
+    }
+
+    @Benchmark
+    public List<Reservation> searchDeepOffsetPage() {
+        return reservationService.searchAllByFilter(filter(
+                null, null, 5_000, null
+        ));
+    }
+
+    @Benchmark
+    public List<Reservation> searchDeepKeysetPage() {
+        return reservationService.searchAllByFilter(filter(
+                null, null, null, 50_000L
+        ));
+    }
+
+    @Benchmark
+    public boolean databaseConflictCheck() {
+        var random = ThreadLocalRandom.current();
+        LocalDate startDate = HORIZON_START.plusDays(random.nextInt(365));
+        return availabilityService.isReservationAvailable(
+                (long) random.nextInt(ROOMS), startDate, startDate.plusDays(2)
+        );
+    }
+
+    private static ReservationSearchFilter filter(
+            Long roomId,
+            Long userId,
+            Integer pageNumber,
+            Long afterId
+    ) {
+        return new ReservationSearchFilter(
+                roomId,
+                userId,
+                roomId != null ? ReservationStatus.PENDING : null,
+                null,
+                null,
+                10,
+                pageNumber,
+                afterId,
+                null
+        );
+    }
+}
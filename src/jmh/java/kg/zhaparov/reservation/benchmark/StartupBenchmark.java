@@ -0,0 +1,158 @@
+package kg.zhaparov.reservation.benchmark;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Cold start of the packaged application in each startup mode: time from process launch
+ * until {@code /actuator/health} answers, then the latency of the first and the second
+ * search request. Each mode is launched {@code runs} times as a fresh process; modes whose
+ * artifacts are missing are skipped.
+ * <p>
+ * Build the artifacts first: {@code mvn -Pfast-startup -DskipTests package} for the JVM
+ * modes and {@code mvn -Pnative -DskipTests native:compile} for the native image. The
+ * launched processes inherit the environment, so point them at a database with
+ * {@code SPRING_DATASOURCE_URL}, {@code SPRING_DATASOURCE_USERNAME} and
+ * {@code SPRING_DATASOURCE_PASSWORD}.
+ * <p>
+ * Run: {@code mvn -Pbenchmark test-compile exec:exec
+ * -Dbenchmark.main=kg.zhaparov.reservation.benchmark.StartupBenchmark -Djmh.args="<runs>"}
+ */
+public class StartupBenchmark {
+
+    private static final Path TARGET = Path.of("target");
+    private static final Path EXTRACTED = TARGET.resolve("fast-startup");
+    private static final Path NATIVE_IMAGE = TARGET.resolve("reservation-system");
+    private static final Duration STARTUP_TIMEOUT = Duration.ofSeconds(120);
+
+    private record Mode(String name, List<String> command, Path workingDirectory) {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int runs = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+
+        List<String> report = new ArrayList<>();
+        report.add(String.format("%-9s %12s %14s %15s", "mode", "startup p50", "1st request", "2nd request"));
+        for (Mode mode : modes()) {
+            report.add(run(mode, runs));
+        }
+
+        System.out.printf("%nruns=%d, medians in ms%n", runs);
+        report.forEach(System.out::println);
+    }
+
+    private static List<Mode> modes() throws IOException {
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        List<Mode> modes = new ArrayList<>();
+        try (var files = Files.list(EXTRACTED)) {
+            String jar = files
+                    .map(path -> path.getFileName().toString())
+                    .filter(name -> name.endsWith(".jar"))
+                    .findFirst()
+                    .orElse(null);
+            if (jar != null) {
+                modes.add(new Mode("jvm", List.of(java, "-jar", jar), EXTRACTED));
+                modes.add(new Mode("aot", List.of(java, "-Dspring.aot.enabled=true", "-jar", jar), EXTRACTED));
+                if (Files.exists(EXTRACTED.resolve("application.jsa"))) {
+                    modes.add(new Mode("aot+cds", List.of(java, "-XX:SharedArchiveFile=application.jsa",
+                            "-Dspring.aot.enabled=true", "-jar", jar), EXTRACTED));
+                }
+            }
+        } catch (IOException e) {
+            System.out.println("No extracted jar in " + EXTRACTED + ", skipping JVM modes");
+        }
+        if (Files.isExecutable(NATIVE_IMAGE)) {
+            modes.add(new Mode("native", List.of(NATIVE_IMAGE.toAbsolutePath().toString()), TARGET));
+        }
+        return modes;
+    }
+
+    private static String run(Mode mode, int runs) throws Exception {
+        long[] startups = new long[runs];
+        long[] firstRequests = new long[runs];
+        long[] secondRequests = new long[runs];
+
+        try (var client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build()) {
+            for (int i = 0; i < runs; i++) {
+                int port = freePort();
+                List<String> command = new ArrayList<>(mode.command());
+                command.addAll(List.of("--server.port=" + port, "--logging.level.root=WARN"));
+
+                long startedAt = System.nanoTime();
+                Process process = new ProcessBuilder(command)
+                        .directory(mode.workingDirectory().toFile())
+                        .redirectErrorStream(true)
+                        .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                        .start();
+                try {
+                    awaitHealthy(client, port, process);
+                    startups[i] = System.nanoTime() - startedAt;
+                    firstRequests[i] = timeSearch(client, port);
+                    secondRequests[i] = timeSearch(client, port);
+                } finally {
+                    process.destroy();
+                    process.waitFor();
+                }
+            }
+        }
+
+        return String.format("%-9s %12.0f %14.1f %15.1f",
+                mode.name(),
+                median(startups),
+                median(firstRequests),
+                median(secondRequests));
+    }
+
+    private static void awaitHealthy(HttpClient client, int port, Process process) throws Exception {
+        var request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/actuator/health")).build();
+        long deadline = System.nanoTime() + STARTUP_TIMEOUT.toNanos();
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException("Application exited with code " + process.exitValue());
+            }
+            try {
+                if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    return;
+                }
+            } catch (IOException e) {
+                // not listening yet
+            }
+            Thread.sleep(5);
+        }
+        throw new IllegalStateException("Application did not become healthy within " + STARTUP_TIMEOUT);
+    }
+
+    private static long timeSearch(HttpClient client, int port) throws Exception {
+        var request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/reservation?userId=1"))
+                .build();
+        long startedAt = System.nanoTime();
+        var response = client.send(request, HttpResponse.BodyHandlers.discarding());
+        long elapsed = System.nanoTime() - startedAt;
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Search answered " + response.statusCode());
+        }
+        return elapsed;
+    }
+
+    private static int freePort() throws IOException {
+        try (var socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static double median(long[] nanos) {
+        long[] sorted = nanos.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2] / 1_000_000.0;
+    }
+}
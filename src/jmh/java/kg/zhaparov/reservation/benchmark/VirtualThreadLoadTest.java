@@ -0,0 +1,215 @@
+package kg.zhaparov.reservation.benchmark;
+
+import kg.zhaparov.reservation.ReservationSystemApplication;
+import kg.zhaparov.reservation.reservations.Reservation;
+import kg.zhaparov.reservation.reservations.bulk.ReservationBulkService;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.server.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Compares the platform-thread and the virtual-thread execution modes under a mixed load:
+ * cheap availability checks answered from the in-memory index, interleaved with searches
+ * that block on JDBC. Every statement is delayed by {@code jdbcLatencyMillis} to stand in
+ * for a remote database.
+ * <p>
+ * Run: {@code mvn -Pbenchmark test-compile exec:exec
+ * -Dbenchmark.main=kg.zhaparov.reservation.benchmark.VirtualThreadLoadTest
+ * -Djmh.args="<concurrency> <requests> <jdbcLatencyMillis>"}
+ */
+public class VirtualThreadLoadTest {
+
+    private static final int ROOMS = 500;
+    private static final int USERS = 2_000;
+    private static final int SEARCH_EVERY = 5;
+    private static final LocalDate HORIZON_START = LocalDate.now().plusDays(1);
+
+    public static void main(String[] args) throws Exception {
+        int concurrency = args.length > 0 ? Integer.parseInt(args[0]) : 1_000;
+        int requests = args.length > 1 ? Integer.parseInt(args[1]) : 20_000;
+        long jdbcLatencyMillis = args.length > 2 ? Long.parseLong(args[2]) : 5;
+
+        List<String> report = new ArrayList<>();
+        report.add(String.format("%-9s %12s %10s %10s %10s %10s %8s",
+                "mode", "throughput/s", "check p50", "check p99", "search p50", "search p99", "errors"));
+        for (boolean virtual : new boolean[]{false, true}) {
+            report.add(run(virtual, concurrency, requests, jdbcLatencyMillis));
+        }
+
+        System.out.printf("%nconcurrency=%d, requests=%d, jdbc latency=%d ms, latencies in ms%n",
+                concurrency, requests, jdbcLatencyMillis);
+        report.forEach(System.out::println);
+    }
+
+    private static String run(
+            boolean virtual,
+            int concurrency,
+            int requests,
+            long jdbcLatencyMillis
+    ) throws Exception {
+        var application = new SpringApplicationBuilder(ReservationSystemApplication.class)
+                .profiles(virtual ? new String[]{"test", "virtual-threads"} : new String[]{"test"})
+                .properties(
+                        "server.port=0",
+                        "logging.level.root=WARN",
+                        "spring.datasource.url=jdbc:h2:mem:load-" + virtual
+                                + ";MODE=PostgreSQL;DB_CLOSE_DELAY=-1;INIT=CREATE SCHEMA IF NOT EXISTS reservation"
+                )
+                .initializers(context -> context.getBeanFactory()
+                        .addBeanPostProcessor(latencyPostProcessor(jdbcLatencyMillis)));
+
+        try (ConfigurableApplicationContext context = application.run()) {
+            seed(context.getBean(ReservationBulkService.class));
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+
+            long[] checkLatencies = new long[requests];
+            long[] searchLatencies = new long[requests];
+            var checks = new AtomicInteger();
+            var searches = new AtomicInteger();
+            var errors = new AtomicInteger();
+            var inFlight = new Semaphore(concurrency);
+
+            try (var executor = Executors.newVirtualThreadPerTaskExecutor();
+                 var client = HttpClient.newBuilder()
+                         .executor(executor)
+                         .connectTimeout(Duration.ofSeconds(10))
+                         .build()) {
+                long startedAt = System.nanoTime();
+                for (int i = 0; i < requests; i++) {
+                    boolean search = i % SEARCH_EVERY == 0;
+                    var request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path(search)))
+                            .timeout(Duration.ofSeconds(60))
+                            .method(search ? "GET" : "POST", HttpRequest.BodyPublishers.noBody())
+                            .build();
+                    inFlight.acquire();
+                    executor.submit(() -> {
+                        long requestStartedAt = System.nanoTime();
+                        try {
+                            var response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() != 200) {
+                                errors.incrementAndGet();
+                            }
+                        } catch (Exception e) {
+                            errors.incrementAndGet();
+                        } finally {
+                            long latency = System.nanoTime() - requestStartedAt;
+                            if (search) {
+                                searchLatencies[searches.getAndIncrement()] = latency;
+                            } else {
+                                checkLatencies[checks.getAndIncrement()] = latency;
+                            }
+                            inFlight.release();
+                        }
+                    });
+                }
+                inFlight.acquire(concurrency);
+                long elapsedNanos = System.nanoTime() - startedAt;
+
+                return String.format("%-9s %12.0f %10.1f %10.1f %10.1f %10.1f %8d",
+                        virtual ? "virtual" : "platform",
+                        requests * 1_000_000_000.0 / elapsedNanos,
+                        percentile(checkLatencies, checks.get(), 0.50),
+                        percentile(checkLatencies, checks.get(), 0.99),
+                        percentile(searchLatencies, searches.get(), 0.50),
+                        percentile(searchLatencies, searches.get(), 0.99),
+                        errors.get());
+            }
+        }
+    }
+
+    private static String path(boolean search) {
+        var random = ThreadLocalRandom.current();
+        if (search) {
+            return "/reservation?userId=" + random.nextInt(USERS);
+        }
+        LocalDate startDate = HORIZON_START.plusDays(random.nextInt(300));
+        return "/reservation/availability/check?roomId=" + random.nextInt(ROOMS)
+                + "&startDate=" + startDate + "&endDate=" + startDate.plusDays(3);
+    }
+
+    private static void seed(ReservationBulkService bulkService) {
+        var random = ThreadLocalRandom.current();
+        List<Reservation> reservations = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            LocalDate startDate = HORIZON_START.plusDays(random.nextInt(300));
+            reservations.add(new Reservation(
+                    null,
+                    (long) random.nextInt(USERS),
+                    (long) random.nextInt(ROOMS),
+                    startDate,
+                    startDate.plusDays(1 + random.nextInt(5)),
+                    null
+            ));
+        }
+        bulkService.createReservations(reservations);
+    }
+
+    private static double percentile(long[] latencies, int count, double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        long[] sorted = Arrays.copyOf(latencies, count);
+        Arrays.sort(sorted);
+        return sorted[(int) Math.min(count - 1, Math.ceil(percentile * count) - 1)] / 1_000_000.0;
+    }
+
+    private static BeanPostProcessor latencyPostProcessor(long latencyMillis) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && latencyMillis > 0) {
+                    return new DelegatingDataSource(dataSource) {
+                        @Override
+                        public Connection getConnection() throws SQLException {
+                            return delayed(super.getConnection(), Connection.class, latencyMillis);
+                        }
+                    };
+                }
+                return bean;
+            }
+        };
+    }
+
+    private static <T> T delayed(T target, Class<T> type, long latencyMillis) {
+        return type.cast(Proxy.newProxyInstance(
+                type.getClassLoader(),
+                new Class<?>[]{type},
+                (proxy, method, args) -> {
+                    if (method.getName().startsWith("execute")) {
+                        Thread.sleep(latencyMillis);
+                    }
+                    try {
+                        Object result = method.invoke(target, args);
+                        if (result instanceof PreparedStatement statement) {
+                            return delayed(statement, PreparedStatement.class, latencyMillis);
+                        }
+                        return result;
+                    } catch (InvocationTargetException e) {
+                        throw e.getTargetException();
+                    }
+                }
+        ));
+    }
+}
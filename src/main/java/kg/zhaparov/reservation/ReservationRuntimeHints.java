@@ -0,0 +1,53 @@
+package kg.zhaparov.reservation;
+
+import kg.zhaparov.reservation.reservations.Reservation;
+import kg.zhaparov.reservation.reservations.ReservationEntity;
+import kg.zhaparov.reservation.reservations.ReservationInterval;
+import kg.zhaparov.reservation.reservations.availability.FreeSlotSearchRequest;
+import kg.zhaparov.reservation.reservations.occupancy.DayRangeOccupancyRequest;
+import kg.zhaparov.reservation.reservations.occupancy.MonthNights;
+import kg.zhaparov.reservation.reservations.occupancy.MonthRangeOccupancyRequest;
+import kg.zhaparov.reservation.reservations.occupancy.RoomNights;
+import kg.zhaparov.reservation.reservations.outbox.ReservationEvent;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+
+/**
+ * Reflection the AOT processing cannot infer from bean definitions and controller
+ * signatures. Entities and repositories are contributed by the JPA and Spring Data
+ * AOT processing; what is left is reached by name or through a mapper at run time.
+ */
+class ReservationRuntimeHints implements RuntimeHintsRegistrar {
+
+    private final BindingReflectionHintsRegistrar bindingRegistrar = new BindingReflectionHintsRegistrar();
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        // Result types of JPQL constructor expressions, instantiated by Hibernate.
+        for (Class<?> type : new Class<?>[]{ReservationInterval.class, RoomNights.class, MonthNights.class}) {
+            hints.reflection().registerType(type, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+        }
+
+        // The table every request touches; its creation stamp is a @PrePersist callback.
+        hints.reflection().registerType(
+                ReservationEntity.class,
+                MemberCategory.ACCESS_DECLARED_FIELDS,
+                MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+                MemberCategory.INVOKE_DECLARED_METHODS
+        );
+
+        // Written and read with JsonMapper directly: exports, bulk import, stored
+        // idempotent responses and the event stream.
+        bindingRegistrar.registerReflectionHints(hints.reflection(), Reservation.class, ReservationEvent.class);
+
+        // Query parameters bound to records without @ModelAttribute.
+        bindingRegistrar.registerReflectionHints(
+                hints.reflection(),
+                FreeSlotSearchRequest.class,
+                MonthRangeOccupancyRequest.class,
+                DayRangeOccupancyRequest.class
+        );
+    }
+}
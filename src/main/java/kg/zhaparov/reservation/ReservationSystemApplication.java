@@ -2,8 +2,12 @@ package kg.zhaparov.reservation;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.ImportRuntimeHints;
 
+@EnableCaching
 @SpringBootApplication
+@ImportRuntimeHints(ReservationRuntimeHints.class)
 public class ReservationSystemApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,80 @@
+package kg.zhaparov.reservation.persistence;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+/**
+ * Places room ids on shards. Every shard owns {@code virtualNodes} points on a 64-bit ring and
+ * a room belongs to the first point at or after the hash of its id. Adding a shard to the ring
+ * moves only the rooms that land on its new points, about {@code 1/n} of them.
+ * <p>
+ * Points are kept in a sorted array, so a lookup is one binary search.
+ */
+public final class ConsistentHashRing {
+
+    private final List<String> members;
+    private final long[] points;
+    private final String[] owners;
+
+    public ConsistentHashRing(List<String> members, int virtualNodes) {
+        if (members.isEmpty()) {
+            throw new IllegalArgumentException("Ring should have at least one shard");
+        }
+        if (virtualNodes <= 0) {
+            throw new IllegalArgumentException("Number of virtual nodes should be positive");
+        }
+        this.members = List.copyOf(new LinkedHashSet<>(members));
+
+        int size = this.members.size() * virtualNodes;
+        long[][] entries = new long[size][];
+        int i = 0;
+        for (int member = 0; member < this.members.size(); member++) {
+            for (int node = 0; node < virtualNodes; node++) {
+                entries[i++] = new long[]{pointOf(this.members.get(member) + "#" + node), member};
+            }
+        }
+        Arrays.sort(entries, (left, right) -> Long.compare(left[0], right[0]));
+
+        this.points = new long[size];
+        this.owners = new String[size];
+        for (i = 0; i < size; i++) {
+            points[i] = entries[i][0];
+            owners[i] = this.members.get((int) entries[i][1]);
+        }
+    }
+
+    public String shardFor(long roomId) {
+        int index = Arrays.binarySearch(points, mix(roomId));
+        if (index < 0) {
+            index = -index - 1;
+        }
+        return owners[index == points.length ? 0 : index];
+    }
+
+    public List<String> members() {
+        return members;
+    }
+
+    /**
+     * SplitMix64 finalizer: sequential room ids end up spread over the whole ring.
+     */
+    private static long mix(long value) {
+        value = (value ^ (value >>> 30)) * 0xBF58476D1CE4E5B9L;
+        value = (value ^ (value >>> 27)) * 0x94D049BB133111EBL;
+        return value ^ (value >>> 31);
+    }
+
+    private static long pointOf(String node) {
+        try {
+            byte[] digest = MessageDigest.getInstance("MD5").digest(node.getBytes(StandardCharsets.UTF_8));
+            return ByteBuffer.wrap(digest).getLong();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package kg.zhaparov.reservation.persistence;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.boot.jdbc.autoconfigure.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Read/write splitting, enabled by configuring at least one
+ * {@code reservation.datasource.replicas[n].url}.
+ * <p>
+ * The application {@link DataSource} defers fetching a physical connection until the first
+ * statement. By then the transaction manager has marked the connection read-only or not, and
+ * read-only transactions are served by {@link ReplicaRoutingDataSource}. Everything else goes
+ * to the primary: writes, every statement of a read-write transaction (so the approval-time
+ * conflict check, which runs inside the approval transaction, and the lookup by id that fills
+ * the reservation cache) and statements outside any transaction. A read-only method called from inside a read-write transaction joins it and
+ * stays on the primary.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "reservation.datasource.replicas[0].url")
+@EnableConfigurationProperties(ReadReplicaProperties.class)
+public class ReadReplicaConfiguration {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    ReplicaRoutingDataSource replicaDataSource(
+            @Qualifier("primaryDataSource") DataSource primaryDataSource,
+            ReadReplicaProperties properties
+    ) {
+        List<ReplicaRoutingDataSource.Replica> replicas = new ArrayList<>();
+        for (int i = 0; i < properties.replicas().size(); i++) {
+            var replica = properties.replicas().get(i);
+            HikariDataSource dataSource = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .url(replica.url())
+                    .username(replica.username())
+                    .password(replica.password())
+                    .build();
+            dataSource.setPoolName("replica-" + i);
+            dataSource.setMaximumPoolSize(replica.maximumPoolSize());
+            dataSource.setReadOnly(true);
+            replicas.add(new ReplicaRoutingDataSource.Replica("replica-" + i, dataSource));
+        }
+        return new ReplicaRoutingDataSource(primaryDataSource, replicas);
+    }
+
+    @Bean
+    @Primary
+    DataSource dataSource(
+            @Qualifier("primaryDataSource") DataSource primaryDataSource,
+            ReplicaRoutingDataSource replicaDataSource
+    ) {
+        var dataSource = new LazyConnectionDataSourceProxy(primaryDataSource);
+        dataSource.setReadOnlyDataSource(replicaDataSource);
+        return dataSource;
+    }
+
+    @Bean
+    ReplicaLagMonitor replicaLagMonitor(
+            @Qualifier("primaryDataSource") DataSource primaryDataSource,
+            ReplicaRoutingDataSource replicaDataSource,
+            ReadReplicaProperties properties,
+            MeterRegistry meterRegistry
+    ) {
+        return new ReplicaLagMonitor(
+                primaryDataSource,
+                replicaDataSource,
+                properties.replicaMaxLag(),
+                properties.replicaCheckInterval(),
+                meterRegistry
+        );
+    }
+}
@@ -0,0 +1,31 @@
+package kg.zhaparov.reservation.persistence;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Read replicas behind {@code reservation.datasource.replicas[n].*}. A replica whose
+ * heartbeat trails the primary by more than {@code replicaMaxLag} receives no reads
+ * until it catches up; the measured lag includes up to one {@code replicaCheckInterval}.
+ */
+@ConfigurationProperties("reservation.datasource")
+public record ReadReplicaProperties(
+        List<Replica> replicas,
+        @DefaultValue("1s")
+        Duration replicaMaxLag,
+        @DefaultValue("500ms")
+        Duration replicaCheckInterval
+) {
+
+    public record Replica(
+            String url,
+            String username,
+            String password,
+            @DefaultValue("10")
+            int maximumPoolSize
+    ) {
+    }
+}
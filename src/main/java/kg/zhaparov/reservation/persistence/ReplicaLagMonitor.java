@@ -0,0 +1,138 @@
+package kg.zhaparov.reservation.persistence;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Staleness guard for {@link ReplicaRoutingDataSource}. Every {@code checkInterval} it reads
+ * the heartbeat row on each replica, compares it with the primary clock and then advances
+ * the heartbeat on the primary. Both timestamps come from the primary, so clock skew between
+ * nodes does not count as lag. A replica that lags by more than {@code maxLag}, or cannot be
+ * reached, is taken out of rotation until a later check succeeds.
+ */
+public class ReplicaLagMonitor implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+    private final JdbcTemplate primary;
+    private final ReplicaRoutingDataSource router;
+    private final Duration maxLag;
+    private final Duration checkInterval;
+
+    private volatile boolean running;
+    private Thread worker;
+
+    public ReplicaLagMonitor(
+            DataSource primaryDataSource,
+            ReplicaRoutingDataSource router,
+            Duration maxLag,
+            Duration checkInterval,
+            MeterRegistry meterRegistry
+    ) {
+        this.primary = new JdbcTemplate(primaryDataSource);
+        this.router = router;
+        this.maxLag = maxLag;
+        this.checkInterval = checkInterval;
+        for (var replica : router.getReplicas()) {
+            Gauge.builder("reservation.datasource.replica.lag", replica,
+                            r -> r.lag() != null ? r.lag().toMillis() / 1000.0 : Double.NaN)
+                    .description("Heartbeat lag of a read replica behind the primary")
+                    .baseUnit("seconds")
+                    .tag("replica", replica.name())
+                    .register(meterRegistry);
+            Gauge.builder("reservation.datasource.replica.healthy", replica, r -> r.isHealthy() ? 1 : 0)
+                    .description("1 while the replica receives reads")
+                    .tag("replica", replica.name())
+                    .register(meterRegistry);
+        }
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        check();
+        worker = Thread.ofPlatform()
+                .name("replica-lag-monitor")
+                .daemon()
+                .start(this::run);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (worker == null) {
+            return;
+        }
+        worker.interrupt();
+        try {
+            worker.join(Duration.ofSeconds(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                Thread.sleep(checkInterval);
+                check();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    void check() {
+        Instant now;
+        try {
+            now = primary.queryForObject("SELECT CURRENT_TIMESTAMP", Timestamp.class).toInstant();
+        } catch (RuntimeException e) {
+            log.warn("Could not read the primary clock, replicas keep their state: {}", e.getMessage());
+            return;
+        }
+
+        for (var replica : router.getReplicas()) {
+            boolean wasHealthy = replica.isHealthy();
+            try {
+                Timestamp beat = new JdbcTemplate(replica.dataSource()).queryForObject(
+                        "SELECT beat_at FROM reservation.replication_heartbeat WHERE id = 1",
+                        Timestamp.class
+                );
+                Duration lag = Duration.between(beat.toInstant(), now);
+                replica.update(lag.compareTo(maxLag) <= 0, lag);
+            } catch (RuntimeException e) {
+                replica.update(false, null);
+            }
+            if (wasHealthy != replica.isHealthy()) {
+                log.warn("Replica {} {}: lag={}", replica.name(),
+                        replica.isHealthy() ? "back in rotation" : "taken out of rotation", replica.lag());
+            }
+        }
+
+        try {
+            int updated = primary.update("UPDATE reservation.replication_heartbeat SET beat_at = ? WHERE id = 1",
+                    Timestamp.from(now));
+            if (updated == 0) {
+                primary.update("INSERT INTO reservation.replication_heartbeat (id, beat_at) VALUES (1, ?)",
+                        Timestamp.from(now));
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not write the replication heartbeat: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package kg.zhaparov.reservation.persistence;
+
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Target of read-only transactions: hands out connections of the healthy replicas in
+ * round-robin order and falls back to the primary when none is healthy. Health is
+ * maintained by {@link ReplicaLagMonitor}; a replica starts unhealthy until its first check.
+ */
+public class ReplicaRoutingDataSource extends AbstractDataSource implements AutoCloseable {
+
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReplicaRoutingDataSource(DataSource primary, List<Replica> replicas) {
+        this.primary = primary;
+        this.replicas = List.copyOf(replicas);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return choose().getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return choose().getConnection(username, password);
+    }
+
+    public List<Replica> getReplicas() {
+        return replicas;
+    }
+
+    public long healthyReplicaCount() {
+        return replicas.stream().filter(Replica::isHealthy).count();
+    }
+
+    private DataSource choose() {
+        int size = replicas.size();
+        int start = Math.floorMod(next.getAndIncrement(), size);
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (replica.isHealthy()) {
+                return replica.dataSource();
+            }
+        }
+        return primary;
+    }
+
+    @Override
+    public void close() throws Exception {
+        for (Replica replica : replicas) {
+            if (replica.dataSource() instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+    public static final class Replica {
+
+        private final String name;
+        private final DataSource dataSource;
+        private volatile boolean healthy;
+        private volatile Duration lag;
+
+        public Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+
+        public String name() {
+            return name;
+        }
+
+        public DataSource dataSource() {
+            return dataSource;
+        }
+
+        public boolean isHealthy() {
+            return healthy;
+        }
+
+        public Duration lag() {
+            return lag;
+        }
+
+        void update(boolean healthy, Duration lag) {
+            this.healthy = healthy;
+            this.lag = lag;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package kg.zhaparov.reservation.persistence;
+
+import jakarta.validation.Valid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBooleanProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+/**
+ * Off unless {@code reservation.sharding.admin.enabled} is set; expose it on an internal
+ * network only. A rebalance refuses to start while other nodes are running.
+ */
+@RestController
+@RequestMapping("/admin/shards")
+@ConditionalOnProperty(name = "reservation.sharding.shards[0].url")
+@ConditionalOnBooleanProperty("reservation.sharding.admin.enabled")
+public class ShardAdminController {
+
+    private static final Logger log = LoggerFactory.getLogger(ShardAdminController.class);
+
+    private final ShardRouter router;
+    private final ShardRebalancer rebalancer;
+
+    public ShardAdminController(ShardRouter router, ShardRebalancer rebalancer) {
+        this.router = router;
+        this.rebalancer = rebalancer;
+    }
+
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> getShards() {
+        return ResponseEntity.ok(Map.of(
+                "shards", router.shards(),
+                "ring", router.ringMembers()
+        ));
+    }
+
+    @GetMapping("/rooms/{roomId}")
+    public ResponseEntity<Map<String, Object>> getRoomShard(
+            @PathVariable("roomId") Long roomId
+    ) {
+        return ResponseEntity.ok(Map.of(
+                "roomId", roomId,
+                "shard", router.shardFor(roomId)
+        ));
+    }
+
+    /**
+     * Blocks until every misplaced room is moved; the report lists rooms that could not be.
+     */
+    @PostMapping("/rebalance")
+    public ResponseEntity<ShardRebalanceReport> rebalance(
+            @RequestBody @Valid ShardRebalanceRequest request
+    ) {
+        log.info("Called rebalance: ring={}", request.ring());
+        return ResponseEntity.ok(rebalancer.rebalance(request.ring()));
+    }
+}
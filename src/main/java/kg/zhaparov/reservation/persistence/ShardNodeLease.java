@@ -0,0 +1,164 @@
+package kg.zhaparov.reservation.persistence;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Tells {@link ShardRebalancer} whether this node is the only one running. Every node holds a
+ * shared session-level advisory lock on the home shard for as long as it runs, on a connection
+ * of its own. A rebalance trades it for the exclusive lock, which is only granted when no other
+ * node holds the shared one; nodes starting meanwhile wait until the rebalance is done, and
+ * then start with the ring they are configured with.
+ * <p>
+ * The connection is opened outside the pool, so the lock ends with the node's session: the
+ * database drops it when the node dies and a crashed node does not block a rebalance. A lost
+ * connection is replaced on the next check.
+ */
+public class ShardNodeLease implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(ShardNodeLease.class);
+
+    private static final int NODE_LOCK_NAMESPACE = 0x4E4F4445;
+    private static final Duration CHECK_INTERVAL = Duration.ofSeconds(30);
+
+    private final DataSource homeDataSource;
+    private final boolean enabled;
+
+    private Connection connection;
+    private volatile boolean running;
+    private Thread worker;
+
+    public ShardNodeLease(DataSource homeDataSource, boolean enabled) {
+        this.homeDataSource = homeDataSource;
+        this.enabled = enabled;
+    }
+
+    /**
+     * Runs the action while no other node is running; fails at once when one is.
+     */
+    public synchronized <T> T whileOnlyNode(Supplier<T> action) {
+        if (!enabled) {
+            return action.get();
+        }
+        ensureConnected();
+        execute("SELECT pg_advisory_unlock_shared(?, 0)");
+        boolean exclusive = false;
+        try {
+            exclusive = query("SELECT pg_try_advisory_lock(?, 0)");
+            if (!exclusive) {
+                throw new CannotAcquireLockException("Other nodes are running, stop them before rebalancing");
+            }
+            return action.get();
+        } finally {
+            if (exclusive) {
+                execute("SELECT pg_advisory_unlock(?, 0)");
+            }
+            execute("SELECT pg_advisory_lock_shared(?, 0)");
+        }
+    }
+
+    @Override
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        synchronized (this) {
+            ensureConnected();
+        }
+        worker = Thread.ofPlatform()
+                .name("shard-node-lease")
+                .daemon()
+                .start(this::run);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (worker != null) {
+            worker.interrupt();
+        }
+        synchronized (this) {
+            close();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                Thread.sleep(CHECK_INTERVAL);
+                synchronized (this) {
+                    ensureConnected();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.warn("Could not renew the node lease: {}", e.getMessage());
+            }
+        }
+    }
+
+    private void ensureConnected() {
+        try {
+            if (connection != null && connection.isValid(5)) {
+                return;
+            }
+            close();
+            connection = homeDataSource.getConnection();
+            connection.setAutoCommit(true);
+        } catch (SQLException e) {
+            throw new DataAccessResourceFailureException("Could not open the node lease connection", e);
+        }
+        execute("SELECT pg_advisory_lock_shared(?, 0)");
+        log.info("Node lease taken");
+    }
+
+    private void execute(String sql) {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setInt(1, NODE_LOCK_NAMESPACE);
+            statement.execute();
+        } catch (SQLException e) {
+            throw new DataAccessResourceFailureException("Node lease statement failed: " + sql, e);
+        }
+    }
+
+    private boolean query(String sql) {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setInt(1, NODE_LOCK_NAMESPACE);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next() && resultSet.getBoolean(1);
+            }
+        } catch (SQLException e) {
+            throw new DataAccessResourceFailureException("Node lease statement failed: " + sql, e);
+        }
+    }
+
+    private void close() {
+        if (connection == null) {
+            return;
+        }
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            log.debug("Could not close the node lease connection: {}", e.getMessage());
+        }
+        connection = null;
+    }
+}
@@ -0,0 +1,12 @@
+package kg.zhaparov.reservation.persistence;
+
+import java.util.List;
+
+public record ShardRebalanceReport(
+        List<String> ring,
+        int misplacedRooms,
+        int movedRooms,
+        long movedRows,
+        List<Long> failedRooms
+) {
+}
@@ -0,0 +1,11 @@
+package kg.zhaparov.reservation.persistence;
+
+import jakarta.validation.constraints.NotEmpty;
+
+import java.util.List;
+
+public record ShardRebalanceRequest(
+        @NotEmpty
+        List<String> ring
+) {
+}
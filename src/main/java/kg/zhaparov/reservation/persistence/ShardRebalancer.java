@@ -0,0 +1,266 @@
+package kg.zhaparov.reservation.persistence;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Moves rooms between shards while the application keeps serving, for example onto a standby
+ * shard that joins the ring.
+ * <p>
+ * The rooms to move are found by a full scan of every shard that runs while the application
+ * keeps writing, followed by a short step under all fences that only reads the rooms written
+ * since the scan began. In that step the new ring is installed, with every room whose rows are
+ * still elsewhere pinned to its current shard, so new rooms are placed by the new ring from
+ * the start. Rooms are then
+ * moved one by one: under the room fence their reservations, archived reservations and monthly
+ * occupancy are copied to the target, the pin is dropped and the source rows are deleted. A room
+ * is only moved once its outbox events are published, so its events stay in order. Daily
+ * occupancy is summed over all shards and stays where it was counted.
+ * <p>
+ * The fences are in-JVM: other nodes keep the ring they started with. A rebalance therefore
+ * only runs while this is the only node, see {@link ShardNodeLease}; restart the others with
+ * the new {@code reservation.sharding.ring} afterwards. A room that could not be moved stays
+ * pinned and is reported; a rerun moves it.
+ */
+public class ShardRebalancer {
+
+    private static final Logger log = LoggerFactory.getLogger(ShardRebalancer.class);
+
+    private static final Duration DRAIN_TIMEOUT = Duration.ofSeconds(10);
+    private static final Duration DRAIN_POLL = Duration.ofMillis(100);
+
+    private static final int COPY_BATCH_SIZE = 1000;
+
+    /**
+     * {@code key} is the first column and unique within a room; rows are copied in its order.
+     */
+    private record RoomTable(
+            String name,
+            String columns
+    ) {
+
+        String key() {
+            return columns.substring(0, columns.indexOf(','));
+        }
+    }
+
+    private static final List<RoomTable> ROOM_TABLES = List.of(
+            new RoomTable(
+                    "reservation.reservations",
+                    "id, user_id, room_id, start_date, end_date, status, version, updated_at"
+            ),
+            new RoomTable(
+                    "reservation.reservations_archive",
+                    "id, user_id, room_id, start_date, end_date, status, version, archived_at"
+            ),
+            new RoomTable(
+                    "reservation.room_occupancy_monthly",
+                    "occupancy_month, room_id, occupied_nights"
+            )
+    );
+
+    private final ShardRouter router;
+    private final ShardNodeLease nodeLease;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int virtualNodes;
+
+    public ShardRebalancer(
+            ShardRouter router,
+            ShardNodeLease nodeLease,
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            int virtualNodes
+    ) {
+        this.router = router;
+        this.nodeLease = nodeLease;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.virtualNodes = virtualNodes;
+    }
+
+    public synchronized ShardRebalanceReport rebalance(List<String> members) {
+        if (members == null || members.isEmpty()) {
+            throw new IllegalArgumentException("Ring should have at least one shard");
+        }
+        if (!router.shards().containsAll(members)) {
+            throw new IllegalArgumentException("Ring " + members + " names unknown shards, configured " + router.shards());
+        }
+        var target = new ConsistentHashRing(members, virtualNodes);
+        return nodeLease.whileOnlyNode(() -> rebalanceOnto(target));
+    }
+
+    private ShardRebalanceReport rebalanceOnto(ConsistentHashRing target) {
+        // Taking every fence once waits out the writes in flight: any write that commits later is stamped after this
+        Instant scanStartedAt = router.withAllRoomsFenced(() -> Instant.now().truncatedTo(ChronoUnit.MICROS));
+        Map<Long, String> misplaced = new TreeMap<>();
+        for (String shard : router.shards()) {
+            addMisplaced(misplaced, target, shard, router.onShard(shard, this::findRoomIds));
+        }
+        router.withAllRoomsFenced(() -> {
+            for (String shard : router.shards()) {
+                addMisplaced(misplaced, target, shard, router.onShard(shard, () -> findRoomIdsChangedSince(scanStartedAt)));
+            }
+            router.install(target, misplaced);
+            return null;
+        });
+        log.info("Installed ring {}, rooms to move: {}", target.members(), misplaced.size());
+
+        int movedRooms = 0;
+        long movedRows = 0;
+        List<Long> failedRooms = new ArrayList<>();
+        for (Map.Entry<Long, String> room : misplaced.entrySet()) {
+            try {
+                movedRows += moveRoom(room.getKey(), room.getValue(), target.shardFor(room.getKey()));
+                movedRooms++;
+            } catch (RuntimeException e) {
+                log.warn("Could not move room {} from {}: {}", room.getKey(), room.getValue(), e.getMessage());
+                failedRooms.add(room.getKey());
+            }
+        }
+        log.info("Rebalanced onto ring {}: moved {} rooms, {} rows, failed {}",
+                target.members(), movedRooms, movedRows, failedRooms.size());
+        return new ShardRebalanceReport(target.members(), misplaced.size(), movedRooms, movedRows, failedRooms);
+    }
+
+    private long moveRoom(Long roomId, String source, String target) {
+        return router.withRoomExclusive(roomId, () -> {
+            awaitOutboxDrained(roomId, source);
+
+            // A copy left by an interrupted earlier move is replaced, the source is authoritative until the pin drops.
+            router.onShard(target, () -> transactionTemplate.execute(status -> {
+                ROOM_TABLES.forEach(table -> jdbcTemplate.update(
+                        "DELETE FROM " + table.name() + " WHERE room_id = ?", roomId
+                ));
+                return null;
+            }));
+            long moved = 0;
+            for (RoomTable table : ROOM_TABLES) {
+                moved += copyRoom(table, roomId, source, target);
+            }
+            router.unpin(roomId);
+
+            router.onShard(source, () -> transactionTemplate.execute(status -> {
+                ROOM_TABLES.forEach(table -> jdbcTemplate.update(
+                        "DELETE FROM " + table.name() + " WHERE room_id = ?", roomId
+                ));
+                return null;
+            }));
+            log.info("Moved room {} from {} to {}: {} rows", roomId, source, target, moved);
+            return moved;
+        });
+    }
+
+    /**
+     * Copies the rows of the room page by page in key order, so a large room is never held
+     * in memory at once.
+     */
+    private long copyRoom(RoomTable table, Long roomId, String source, String target) {
+        String firstPage = "SELECT " + table.columns() + " FROM " + table.name()
+                + " WHERE room_id = ? ORDER BY " + table.key() + " LIMIT " + COPY_BATCH_SIZE;
+        String nextPage = "SELECT " + table.columns() + " FROM " + table.name()
+                + " WHERE room_id = ? AND " + table.key() + " > ? ORDER BY " + table.key() + " LIMIT " + COPY_BATCH_SIZE;
+        long copied = 0;
+        List<Object[]> page;
+        Object lastKey = null;
+        do {
+            Object after = lastKey;
+            page = router.onShard(source, () -> transactionTemplate.execute(status -> after == null
+                    ? jdbcTemplate.query(firstPage, ShardRebalancer::toRow, roomId)
+                    : jdbcTemplate.query(nextPage, ShardRebalancer::toRow, roomId, after)));
+            if (page.isEmpty()) {
+                break;
+            }
+            List<Object[]> rows = page;
+            router.onShard(target, () -> transactionTemplate.execute(
+                    status -> jdbcTemplate.batchUpdate(insertInto(table), rows)
+            ));
+            copied += page.size();
+            lastKey = page.getLast()[0];
+        } while (page.size() == COPY_BATCH_SIZE);
+        return copied;
+    }
+
+    /**
+     * The fence keeps new events of the room from being written; waits for the relay to
+     * publish the ones already there.
+     */
+    private void awaitOutboxDrained(Long roomId, String shard) {
+        long deadline = System.nanoTime() + DRAIN_TIMEOUT.toNanos();
+        while (router.onShard(shard, () -> jdbcTemplate.queryForObject("""
+                SELECT COUNT(*) FROM reservation.reservation_outbox
+                WHERE room_id = ? AND published_at IS NULL
+                """, Long.class, roomId)) > 0) {
+            if (System.nanoTime() > deadline) {
+                throw new IllegalStateException("Outbox events of room " + roomId + " were not published within " + DRAIN_TIMEOUT);
+            }
+            try {
+                Thread.sleep(DRAIN_POLL);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for the outbox of room " + roomId, e);
+            }
+        }
+    }
+
+    private static void addMisplaced(
+            Map<Long, String> misplaced,
+            ConsistentHashRing target,
+            String shard,
+            List<Long> roomIds
+    ) {
+        for (Long roomId : roomIds) {
+            if (!target.shardFor(roomId).equals(shard)) {
+                misplaced.putIfAbsent(roomId, shard);
+            }
+        }
+    }
+
+    /**
+     * Rooms written since the full scan began; both tables have an index on the stamp.
+     */
+    private List<Long> findRoomIdsChangedSince(Instant since) {
+        return jdbcTemplate.queryForList("""
+                SELECT room_id FROM reservation.reservations WHERE updated_at >= ?
+                UNION
+                SELECT room_id FROM reservation.reservations_archive WHERE archived_at >= ?
+                """, Long.class, Timestamp.from(since), Timestamp.from(since));
+    }
+
+    private List<Long> findRoomIds() {
+        return jdbcTemplate.queryForList("""
+                SELECT room_id FROM reservation.reservations
+                UNION
+                SELECT room_id FROM reservation.reservations_archive
+                """, Long.class);
+    }
+
+    private static String insertInto(RoomTable table) {
+        int columns = table.columns().split(",").length;
+        return "INSERT INTO " + table.name() + " (" + table.columns() + ") VALUES ("
+                + String.join(", ", Collections.nCopies(columns, "?")) + ")";
+    }
+
+    private static Object[] toRow(ResultSet resultSet, int rowNumber) throws SQLException {
+        Object[] row = new Object[resultSet.getMetaData().getColumnCount()];
+        for (int i = 0; i < row.length; i++) {
+            row[i] = resultSet.getObject(i + 1);
+        }
+        return row;
+    }
+}
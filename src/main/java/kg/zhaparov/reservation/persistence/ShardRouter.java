@@ -0,0 +1,391 @@
+package kg.zhaparov.reservation.persistence;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Routes work to the shard that owns a room. Rooms are placed by a {@link ConsistentHashRing};
+ * {@link ShardRoutingDataSource} hands out connections of the shard the calling thread is on.
+ * <p>
+ * A transaction stays on the shard it began on, so callers route first and begin the
+ * transaction inside; switching shards while a transaction is active fails. Without
+ * {@code reservation.sharding.*} there is one shard and every call runs inline.
+ * <p>
+ * Room-scoped calls hold a striped room fence for reading. {@link ShardRebalancer} holds it for
+ * writing while it moves a room, so no room is written on two shards by this node.
+ */
+@Component
+public class ShardRouter {
+
+    private static final Logger log = LoggerFactory.getLogger(ShardRouter.class);
+
+    private static final String SINGLE_SHARD = "default";
+    private static final int FENCE_STRIPES = 256;
+    private static final ThreadLocal<String> CURRENT_SHARD = new ThreadLocal<>();
+
+    private final List<String> shards;
+    private final String homeShard;
+    private final Duration commitTimeout;
+    private final ReentrantReadWriteLock[] fences;
+    private final Map<Long, String> pinned = new ConcurrentHashMap<>();
+
+    private volatile ConsistentHashRing ring;
+
+    public ShardRouter(ObjectProvider<ShardingProperties> properties) {
+        var sharding = properties.getIfAvailable();
+        if (sharding == null) {
+            this.shards = List.of(SINGLE_SHARD);
+            this.homeShard = SINGLE_SHARD;
+            this.commitTimeout = Duration.ZERO;
+            this.fences = new ReentrantReadWriteLock[0];
+            return;
+        }
+        this.shards = List.copyOf(sharding.shardNames());
+        this.homeShard = sharding.homeShard();
+        this.commitTimeout = sharding.commitTimeout();
+        this.fences = new ReentrantReadWriteLock[FENCE_STRIPES];
+        for (int i = 0; i < fences.length; i++) {
+            fences[i] = new ReentrantReadWriteLock();
+        }
+        if (!shards.containsAll(sharding.ringMembers())) {
+            throw new IllegalArgumentException("Ring " + sharding.ringMembers() + " names unknown shards, configured " + shards);
+        }
+        this.ring = new ConsistentHashRing(sharding.ringMembers(), sharding.virtualNodes());
+    }
+
+    static String currentShard() {
+        return CURRENT_SHARD.get();
+    }
+
+    public boolean isSharded() {
+        return ring != null;
+    }
+
+    /**
+     * Every configured shard, home shard first, including standby shards outside the ring.
+     */
+    public List<String> shards() {
+        return shards;
+    }
+
+    public List<String> ringMembers() {
+        return isSharded() ? ring.members() : shards;
+    }
+
+    /**
+     * First value of the shard's id range, see {@link ShardSequences}; 0 without sharding.
+     */
+    public long idRangeStart(String shard) {
+        return isSharded() ? shards.indexOf(shard) * ShardSequences.RANGE : 0;
+    }
+
+    /**
+     * Index in {@link #shards()} of the shard whose id range holds {@code id}.
+     */
+    public int shardIndexOfId(long id) {
+        if (!isSharded()) {
+            return 0;
+        }
+        int index = (int) (id / ShardSequences.RANGE);
+        if (id < 0 || index >= shards.size()) {
+            throw new IllegalArgumentException("Id " + id + " is outside the id ranges of the shards");
+        }
+        return index;
+    }
+
+    public String shardFor(Long roomId) {
+        if (!isSharded()) {
+            return SINGLE_SHARD;
+        }
+        if (!pinned.isEmpty()) {
+            var shard = pinned.get(roomId);
+            if (shard != null) {
+                return shard;
+            }
+        }
+        return ring.shardFor(roomId);
+    }
+
+    public <T> T onShard(String shard, Supplier<T> action) {
+        if (!isSharded()) {
+            return action.get();
+        }
+        String previous = CURRENT_SHARD.get();
+        String current = previous != null ? previous : homeShard;
+        if (shard.equals(current)) {
+            return action.get();
+        }
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Cannot switch to shard " + shard + " inside a transaction on shard " + current);
+        }
+        CURRENT_SHARD.set(shard);
+        try {
+            return action.get();
+        } finally {
+            if (previous != null) {
+                CURRENT_SHARD.set(previous);
+            } else {
+                CURRENT_SHARD.remove();
+            }
+        }
+    }
+
+    public <T> T onShardOf(Long roomId, Supplier<T> action) {
+        if (!isSharded()) {
+            return action.get();
+        }
+        return withRoomsFenced(List.of(roomId), () -> onShard(shardFor(roomId), action));
+    }
+
+    /**
+     * Keeps the given rooms on their shards while the action runs. Fences are taken in stripe
+     * order, so two multi-room callers never wait on each other in a cycle.
+     */
+    public <T> T withRoomsFenced(Collection<Long> roomIds, Supplier<T> action) {
+        if (!isSharded()) {
+            return action.get();
+        }
+        int[] indexes = roomIds.stream()
+                .mapToInt(this::fenceIndex)
+                .distinct()
+                .sorted()
+                .toArray();
+        int locked = 0;
+        try {
+            for (int index : indexes) {
+                fences[index].readLock().lock();
+                locked++;
+            }
+            return action.get();
+        } finally {
+            for (int i = locked - 1; i >= 0; i--) {
+                fences[indexes[i]].readLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * Runs the action on every shard in parallel, each on a virtual thread of its own, and
+     * returns the results in {@link #shards()} order. The first failure is rethrown.
+     */
+    public <T> List<T> onEachShard(Function<String, T> action) {
+        if (shards.size() == 1) {
+            List<T> result = new ArrayList<>(1);
+            result.add(action.apply(shards.getFirst()));
+            return result;
+        }
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<T>> futures = new ArrayList<>(shards.size());
+            for (String shard : shards) {
+                futures.add(executor.submit(() -> onShard(shard, () -> action.apply(shard))));
+            }
+            List<T> results = new ArrayList<>(futures.size());
+            for (Future<T> future : futures) {
+                results.add(join(future));
+            }
+            return results;
+        }
+    }
+
+    /**
+     * Point lookup by a key that does not name the room, such as a reservation id.
+     */
+    public <T> Optional<T> findOnAnyShard(Supplier<Optional<T>> lookup) {
+        for (Optional<T> found : onEachShard(shard -> lookup.get())) {
+            if (found.isPresent()) {
+                return found;
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Runs one transaction per shard in parallel and commits them only if every one got
+     * through its work; otherwise all roll back. A shard that is not done within
+     * {@code commitTimeout} aborts the others, which also breaks lock waits across shards.
+     * Actions flush their writes, so constraint violations surface before the vote.
+     * <p>
+     * This is not two-phase commit: a commit can still fail after the vote, for example on a
+     * lost connection. The shards that did commit are then repaired by running {@code undo}
+     * with their result, each in a transaction of its own, and the commit failure is thrown.
+     * An undo that fails as well is logged with its result for manual repair.
+     */
+    public <T> List<T> inTransactionOnShards(
+            Map<String, Supplier<T>> work,
+            Consumer<T> undo,
+            TransactionTemplate transactionTemplate
+    ) {
+        if (work.isEmpty()) {
+            return new ArrayList<>();
+        }
+        if (work.size() == 1) {
+            var only = work.entrySet().iterator().next();
+            List<T> result = new ArrayList<>(1);
+            result.add(onShard(only.getKey(), () -> transactionTemplate.execute(status -> only.getValue().get())));
+            return result;
+        }
+
+        var outcome = new CompletableFuture<Boolean>();
+        var pending = new AtomicInteger(work.size());
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<String> shards = new ArrayList<>(work.keySet());
+            List<Future<T>> futures = new ArrayList<>(work.size());
+            work.forEach((shard, action) -> futures.add(executor.submit(() -> onShard(
+                    shard,
+                    () -> transactionTemplate.execute(status -> {
+                        T result;
+                        try {
+                            result = action.get();
+                        } catch (RuntimeException e) {
+                            outcome.complete(false);
+                            throw e;
+                        }
+                        if (pending.decrementAndGet() == 0) {
+                            outcome.complete(true);
+                        }
+                        if (!awaitOutcome(outcome)) {
+                            status.setRollbackOnly();
+                        }
+                        return result;
+                    })
+            ))));
+
+            RuntimeException failure = null;
+            Map<String, T> committed = new LinkedHashMap<>();
+            for (int i = 0; i < futures.size(); i++) {
+                try {
+                    committed.put(shards.get(i), join(futures.get(i)));
+                } catch (RuntimeException e) {
+                    failure = failure != null ? failure : e;
+                }
+            }
+            if (failure != null) {
+                if (outcome.join()) {
+                    // Every shard voted to commit, so the failure is a commit and the rest are durable
+                    committed.forEach((shard, result) -> compensate(shard, result, undo, transactionTemplate));
+                }
+                throw failure;
+            }
+            if (!outcome.join()) {
+                throw new CannotAcquireLockException("Shards " + work.keySet() + " were not ready within " + commitTimeout);
+            }
+            return new ArrayList<>(committed.values());
+        }
+    }
+
+    private <T> void compensate(String shard, T result, Consumer<T> undo, TransactionTemplate transactionTemplate) {
+        try {
+            onShard(shard, () -> transactionTemplate.execute(status -> {
+                undo.accept(result);
+                return null;
+            }));
+            log.warn("Undid the committed part on shard {} after a failed cross-shard commit", shard);
+        } catch (RuntimeException e) {
+            log.error("Could not undo the committed part on shard {}, repair it manually: {}", shard, result, e);
+        }
+    }
+
+    private boolean awaitOutcome(CompletableFuture<Boolean> outcome) {
+        try {
+            return outcome.get(commitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            outcome.complete(false);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            outcome.complete(false);
+        } catch (ExecutionException e) {
+            return false;
+        }
+        return outcome.join();
+    }
+
+    /**
+     * Holds every room fence: nothing room-scoped runs on this node meanwhile.
+     */
+    <T> T withAllRoomsFenced(Supplier<T> action) {
+        int locked = 0;
+        try {
+            for (ReentrantReadWriteLock fence : fences) {
+                fence.writeLock().lock();
+                locked++;
+            }
+            return action.get();
+        } finally {
+            for (int i = locked - 1; i >= 0; i--) {
+                fences[i].writeLock().unlock();
+            }
+        }
+    }
+
+    <T> T withRoomExclusive(Long roomId, Supplier<T> action) {
+        var fence = fences[fenceIndex(roomId)];
+        fence.writeLock().lock();
+        try {
+            return action.get();
+        } finally {
+            fence.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Switches to a new ring. Rooms whose data is still on another shard stay pinned there
+     * until they are moved.
+     */
+    void install(ConsistentHashRing ring, Map<Long, String> pins) {
+        pinned.clear();
+        pinned.putAll(pins);
+        this.ring = ring;
+    }
+
+    void unpin(Long roomId) {
+        pinned.remove(roomId);
+    }
+
+    private int fenceIndex(Long roomId) {
+        int hash = Long.hashCode(roomId);
+        hash ^= hash >>> 16;
+        return hash & (FENCE_STRIPES - 1);
+    }
+
+    private static <T> T join(Future<T> future) {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a shard", e);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package kg.zhaparov.reservation.persistence;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Hands out connections of the shard the calling thread was routed to by {@link ShardRouter},
+ * and of the home shard when it was not routed at all. Hibernate fetches the connection when a
+ * transaction begins, so the whole transaction stays on that shard.
+ */
+public class ShardRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+    private final String homeShard;
+    private final Map<String, DataSource> shards;
+
+    public ShardRoutingDataSource(String homeShard, Map<String, DataSource> shards) {
+        this.homeShard = homeShard;
+        this.shards = new LinkedHashMap<>(shards);
+        setTargetDataSources(new HashMap<>(shards));
+        setDefaultTargetDataSource(shards.get(homeShard));
+        setLenientFallback(false);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return ShardRouter.currentShard();
+    }
+
+    public Map<String, DataSource> getShards() {
+        return shards;
+    }
+
+    /**
+     * The home shard pool is a bean of its own and is closed by the context.
+     */
+    @Override
+    public void close() throws Exception {
+        for (Map.Entry<String, DataSource> shard : shards.entrySet()) {
+            if (!shard.getKey().equals(homeShard) && shard.getValue() instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package kg.zhaparov.reservation.persistence;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+/**
+ * Gives every shard's sequences their own id range, so ids stay unique across shards and a
+ * room can be moved between them with its ids. The sequences of shard {@code n} hand out
+ * {@code [n * RANGE, (n + 1) * RANGE)}. The id generator caches a block of ids per
+ * application, not per shard, so a row may carry an id from another shard's range; it is
+ * still unique, and ids are never used to locate a row's shard.
+ */
+final class ShardSequences {
+
+    static final long RANGE = 1_000_000_000_000L;
+
+    // Allocation size of both sequences: the pooled optimizer hands out the ids below the value it reads.
+    private static final int ALLOCATION_SIZE = 50;
+
+    private static final List<String> SEQUENCES = List.of(
+            "reservation.reservations_id_seq",
+            "reservation.reservation_outbox_id_seq"
+    );
+
+    private ShardSequences() {
+    }
+
+    static void reserveIdRange(DataSource dataSource, int shardIndex) {
+        var jdbcTemplate = new JdbcTemplate(dataSource);
+        long start = shardIndex * RANGE + ALLOCATION_SIZE;
+        long end = (shardIndex + 1) * RANGE;
+        for (String sequence : SEQUENCES) {
+            Long next = jdbcTemplate.queryForObject("SELECT nextval('" + sequence + "')", Long.class);
+            if (next >= end) {
+                throw new IllegalStateException("Sequence " + sequence + " of shard #" + shardIndex
+                        + " is beyond its id range, were shards reordered?");
+            }
+            if (next < start) {
+                jdbcTemplate.execute("ALTER SEQUENCE " + sequence + " RESTART WITH " + start);
+            }
+        }
+    }
+}
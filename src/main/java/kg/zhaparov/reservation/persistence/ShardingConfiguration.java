@@ -0,0 +1,121 @@
+package kg.zhaparov.reservation.persistence;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.flywaydb.core.Flyway;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.flyway.autoconfigure.FlywayMigrationStrategy;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.boot.jdbc.autoconfigure.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Horizontal sharding by room, enabled by configuring at least one
+ * {@code reservation.sharding.shards[n].url}.
+ * <p>
+ * The application {@link DataSource} routes every connection to the shard chosen by
+ * {@link ShardRouter}. Flyway migrates every shard and each shard's sequences are moved into
+ * its own id range. Cannot be combined with read replicas: both define the application
+ * {@code DataSource}, and startup fails when both are configured. The reactive read API
+ * ({@code -Preactive}) reads a single database and refuses to start with sharding.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "reservation.sharding.shards[0].url")
+@EnableConfigurationProperties(ShardingProperties.class)
+public class ShardingConfiguration {
+
+    private static final Logger log = LoggerFactory.getLogger(ShardingConfiguration.class);
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    HikariDataSource primaryDataSource(DataSourceProperties properties, ShardingProperties sharding) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        dataSource.setPoolName(sharding.homeShard());
+        return dataSource;
+    }
+
+    @Bean
+    @Primary
+    ShardRoutingDataSource dataSource(
+            @Qualifier("primaryDataSource") DataSource primaryDataSource,
+            ShardingProperties properties
+    ) {
+        Map<String, DataSource> shards = new LinkedHashMap<>();
+        shards.put(properties.homeShard(), primaryDataSource);
+        for (ShardingProperties.Shard shard : properties.shards()) {
+            HikariDataSource dataSource = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .url(shard.url())
+                    .username(shard.username())
+                    .password(shard.password())
+                    .build();
+            dataSource.setPoolName(shard.name());
+            dataSource.setMaximumPoolSize(shard.maximumPoolSize());
+            if (shards.put(shard.name(), dataSource) != null) {
+                throw new IllegalArgumentException("Duplicate shard name " + shard.name());
+            }
+        }
+        log.info("Sharding enabled: shards={}, ring={}", shards.keySet(), properties.ringMembers());
+        return new ShardRoutingDataSource(properties.homeShard(), shards);
+    }
+
+    /**
+     * Runs the migrations Spring Boot prepared for the home shard against every shard.
+     */
+    @Bean
+    FlywayMigrationStrategy shardMigrationStrategy(ShardRoutingDataSource dataSource) {
+        return flyway -> {
+            List<DataSource> shards = List.copyOf(dataSource.getShards().values());
+            for (int i = 0; i < shards.size(); i++) {
+                Flyway.configure()
+                        .configuration(flyway.getConfiguration())
+                        .dataSource(shards.get(i))
+                        .load()
+                        .migrate();
+                ShardSequences.reserveIdRange(shards.get(i), i);
+            }
+        };
+    }
+
+    @Bean
+    ShardNodeLease shardNodeLease(
+            @Qualifier("primaryDataSource") HikariDataSource primaryDataSource,
+            @Value("${reservation.locking.advisory-lock.enabled:true}") boolean enabled
+    ) {
+        var leaseDataSource = DataSourceBuilder.create()
+                .type(SimpleDriverDataSource.class)
+                .url(primaryDataSource.getJdbcUrl())
+                .username(primaryDataSource.getUsername())
+                .password(primaryDataSource.getPassword())
+                .build();
+        return new ShardNodeLease(leaseDataSource, enabled);
+    }
+
+    @Bean
+    ShardRebalancer shardRebalancer(
+            ShardRouter router,
+            ShardNodeLease nodeLease,
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            ShardingProperties properties
+    ) {
+        return new ShardRebalancer(router, nodeLease, jdbcTemplate, transactionManager, properties.virtualNodes());
+    }
+}
@@ -0,0 +1,50 @@
+package kg.zhaparov.reservation.persistence;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Shards behind {@code reservation.sharding.*}. The {@code spring.datasource} database is the
+ * home shard; {@code shards[n]} add more. The position of a shard in that order fixes the id
+ * range its sequences hand out, so shards are only ever appended.
+ * <p>
+ * {@code ring} lists the shards that own rooms; when empty every shard does. A shard left out
+ * of the ring is a standby that {@link ShardRebalancer} can move rooms onto.
+ */
+@ConfigurationProperties("reservation.sharding")
+public record ShardingProperties(
+        @DefaultValue("shard-0")
+        String homeShard,
+        List<Shard> shards,
+        List<String> ring,
+        @DefaultValue("128")
+        int virtualNodes,
+        @DefaultValue("5s")
+        Duration commitTimeout
+) {
+
+    public List<String> shardNames() {
+        List<String> names = new ArrayList<>();
+        names.add(homeShard);
+        shards.forEach(shard -> names.add(shard.name()));
+        return names;
+    }
+
+    public List<String> ringMembers() {
+        return ring == null || ring.isEmpty() ? shardNames() : ring;
+    }
+
+    public record Shard(
+            String name,
+            String url,
+            String username,
+            String password,
+            @DefaultValue("10")
+            int maximumPoolSize
+    ) {
+    }
+}
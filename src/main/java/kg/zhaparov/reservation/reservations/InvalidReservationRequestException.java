@@ -0,0 +1,11 @@
+package kg.zhaparov.reservation.reservations;
+
+/**
+ * The request is malformed or breaks a business rule on its own, regardless of stored state.
+ */
+public class InvalidReservationRequestException extends ReservationException {
+
+    public InvalidReservationRequestException(String message) {
+        super(message);
+    }
+}
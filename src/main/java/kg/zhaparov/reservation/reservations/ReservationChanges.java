@@ -0,0 +1,14 @@
+package kg.zhaparov.reservation.reservations;
+
+import java.util.List;
+
+/**
+ * Reservations changed after a sync token. {@code nextSince} is the token to poll with
+ * next; no change is skipped, and a change is only returned again when it is followed by
+ * another one.
+ */
+public record ReservationChanges(
+        List<VersionedReservation> reservations,
+        String nextSince
+) {
+}
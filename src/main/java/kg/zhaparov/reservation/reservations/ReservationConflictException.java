@@ -0,0 +1,11 @@
+package kg.zhaparov.reservation.reservations;
+
+/**
+ * The reservation exists but its current state does not allow the requested change.
+ */
+public class ReservationConflictException extends ReservationException {
+
+    public ReservationConflictException(String message) {
+        super(message);
+    }
+}
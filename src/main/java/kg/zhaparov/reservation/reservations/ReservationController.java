@@ -2,12 +2,23 @@ package kg.zhaparov.reservation.reservations;
 
 
 import jakarta.validation.Valid;
+import kg.zhaparov.reservation.persistence.ShardRouter;
+import kg.zhaparov.reservation.reservations.idempotency.IdempotencyService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.util.List;
 
 
@@ -17,20 +28,36 @@ public class ReservationController {
 
     private static final Logger log = LoggerFactory.getLogger(ReservationController.class);
 
+    private static final int EXPORT_FLUSH_ROWS = 500;
+    private static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+    private static final String NEXT_SINCE_HEADER = "X-Next-Since";
 
     private final ReservationService reservationService;
-
-    public ReservationController(ReservationService reservationService) {
+    private final IdempotencyService idempotencyService;
+    private final ShardRouter shardRouter;
+    private final JsonMapper jsonMapper;
+
+    public ReservationController(
+            ReservationService reservationService,
+            IdempotencyService idempotencyService,
+            ShardRouter shardRouter,
+            JsonMapper jsonMapper
+    ) {
         this.reservationService = reservationService;
+        this.idempotencyService = idempotencyService;
+        this.shardRouter = shardRouter;
+        this.jsonMapper = jsonMapper;
     }
 
     @GetMapping("/{id}")
     public ResponseEntity<Reservation> getReservationById(
             @PathVariable("id") Long id
     ) {
-        log.info("Called getReservationById: id=" + id);
+        log.info("Called getReservationById: id={}", id);
+        var reservation = reservationService.getReservationById(id);
         return ResponseEntity.status(HttpStatus.OK)
-                .body(reservationService.getReservationById(id));
+                .eTag(ReservationEtags.of(reservation))
+                .body(reservation.reservation());
 
     }
 
@@ -38,28 +65,97 @@ public class ReservationController {
     public ResponseEntity<List<Reservation>> getAllReservations(
             @RequestParam(name = "roomId", required = false) Long roomId,
             @RequestParam(name = "userId", required = false) Long userId,
+            @RequestParam(name = "status", required = false) ReservationStatus status,
+            @RequestParam(name = "fromDate", required = false) LocalDate fromDate,
+            @RequestParam(name = "toDate", required = false) LocalDate toDate,
             @RequestParam(name = "pageSize", required = false) Integer pageSize,
-            @RequestParam(name = "pageNumber", required = false) Integer pageNumber
+            @RequestParam(name = "pageNumber", required = false) Integer pageNumber,
+            @RequestParam(name = "afterId", required = false) Long afterId,
+            @RequestParam(name = "includeArchived", required = false) Boolean includeArchived,
+            @RequestParam(name = "since", required = false) String since
     ) {
         log.info("Called getAllReservations");
         var filter = new ReservationSearchFilter(
                 roomId,
                 userId,
+                status,
+                fromDate,
+                toDate,
                 pageSize,
-                pageNumber
+                pageNumber,
+                afterId,
+                includeArchived
         );
-        return ResponseEntity.ok(reservationService.searchAllByFilter(
-                filter
-        ));
+        if (since != null) {
+            var changes = reservationService.findChangedSince(filter, since);
+            return ResponseEntity.ok()
+                    .header(NEXT_SINCE_HEADER, changes.nextSince())
+                    .body(unwrap(changes.reservations()));
+        }
+        var snapshot = reservationService.searchSnapshotByFilter(filter);
+        return ResponseEntity.ok()
+                .eTag(ReservationEtags.of(snapshot.reservations()))
+                .header(NEXT_SINCE_HEADER, snapshot.nextSince())
+                .body(unwrap(snapshot.reservations()));
+    }
+
+    @GetMapping(value = "/export", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> exportReservations(
+            @RequestParam(name = "roomId", required = false) Long roomId,
+            @RequestParam(name = "userId", required = false) Long userId,
+            @RequestParam(name = "status", required = false) ReservationStatus status,
+            @RequestParam(name = "fromDate", required = false) LocalDate fromDate,
+            @RequestParam(name = "toDate", required = false) LocalDate toDate
+    ) {
+        log.info("Called exportReservations: roomId={}, userId={}", roomId, userId);
+        var filter = new ReservationSearchFilter(
+                roomId,
+                userId,
+                status,
+                fromDate,
+                toDate,
+                null,
+                null,
+                null,
+                null
+        );
+        StreamingResponseBody body = outputStream -> {
+            var writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+            var written = new int[1];
+            reservationService.exportAllByFilter(filter, reservation -> {
+                try {
+                    writer.write(jsonMapper.writeValueAsString(reservation));
+                    writer.write('\n');
+                    if (++written[0] % EXPORT_FLUSH_ROWS == 0) {
+                        writer.flush();
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            writer.flush();
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
     }
 
     @PostMapping
     public ResponseEntity<Reservation> createReservation(
-            @RequestBody @Valid Reservation reservationToCreate
+            @RequestBody @Valid Reservation reservationToCreate,
+            @RequestHeader(name = IDEMPOTENCY_KEY, required = false) String idempotencyKey
     ) {
         log.info("Called createReservation");
+        // The key is recorded in the transaction of the insert, so both go to the shard of the room.
+        var created = shardRouter.onShardOf(reservationToCreate.roomId(), () -> idempotencyService.executeAtomically(
+                idempotencyKey,
+                "create",
+                reservationToCreate,
+                Reservation.class,
+                () -> reservationService.createReservation(reservationToCreate)
+        ));
         return ResponseEntity.status(HttpStatus.CREATED)
-                .body(reservationService.createReservation(reservationToCreate));
+                .body(created);
     }
 
     @PutMapping("/{id}")
@@ -74,19 +170,36 @@ public class ReservationController {
 
     @DeleteMapping("/{id}/cancel")
     public ResponseEntity<Void> deleteReservation(
-            @PathVariable("id") Long id
+            @PathVariable("id") Long id,
+            @RequestHeader(name = IDEMPOTENCY_KEY, required = false) String idempotencyKey
     ) {
         log.info("Called deleteReservation: id={}", id);
-        reservationService.cancelReservation(id);
+        idempotencyService.execute(idempotencyKey, "cancel", id, Void.class, () -> {
+            reservationService.cancelReservation(id);
+            return null;
+        });
         return ResponseEntity.ok().build();
     }
 
     @PostMapping("/{id}/approve")
     public ResponseEntity<Reservation> approveReservation(
-            @PathVariable("id") Long id
+            @PathVariable("id") Long id,
+            @RequestHeader(name = IDEMPOTENCY_KEY, required = false) String idempotencyKey
     ) {
         log.info("Called approveReservation: id={}", id);
-        var resvervation = reservationService.approveReservation(id);
+        var resvervation = idempotencyService.execute(
+                idempotencyKey,
+                "approve",
+                id,
+                Reservation.class,
+                () -> reservationService.approveReservation(id)
+        );
         return ResponseEntity.ok(resvervation);
     }
+
+    private static List<Reservation> unwrap(List<VersionedReservation> reservations) {
+        return reservations.stream()
+                .map(VersionedReservation::reservation)
+                .toList();
+    }
 }
@@ -2,14 +2,22 @@ package kg.zhaparov.reservation.reservations;
 
 import jakarta.persistence.*;
 
+import java.time.Instant;
 import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
 
 @Table(name = "reservations", schema = "reservation")
 @Entity
 public class ReservationEntity {
     @Id
     @Column(name = "id")
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "reservations_id_seq")
+    @SequenceGenerator(
+            name = "reservations_id_seq",
+            sequenceName = "reservations_id_seq",
+            schema = "reservation",
+            allocationSize = 50
+    )
     private Long id;
 
     @Column(name = "user_id", nullable = false)
@@ -28,6 +36,13 @@ public class ReservationEntity {
     @Column(name = "status", nullable = false)
     private ReservationStatus status;
 
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+
     public ReservationEntity() {
     }
 
@@ -93,4 +108,25 @@ public class ReservationEntity {
     public void setStatus(ReservationStatus status) {
         this.status = status;
     }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+
+    @PrePersist
+    void stampCreation() {
+        updatedAt = changeStamp();
+    }
+
+    /**
+     * Value for {@code updatedAt}, taken when the write is issued. Truncated to the precision
+     * the database keeps, so a stamp read back compares equal to the one written.
+     */
+    public static Instant changeStamp() {
+        return Instant.now().truncatedTo(ChronoUnit.MICROS);
+    }
 }
@@ -0,0 +1,40 @@
+package kg.zhaparov.reservation.reservations;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * Strong entity tags computed from row versions alone, so a matching
+ * {@code If-None-Match} is answered without serializing the body.
+ */
+final class ReservationEtags {
+
+    private ReservationEtags() {
+    }
+
+    static String of(VersionedReservation reservation) {
+        return "\"" + reservation.reservation().id() + "." + reservation.version() + "\"";
+    }
+
+    /**
+     * Digest of the ids and versions in response order; any change, addition, removal
+     * or reordering yields a different tag.
+     */
+    static String of(List<VersionedReservation> reservations) {
+        try {
+            var digest = MessageDigest.getInstance("SHA-256");
+            var buffer = ByteBuffer.allocate(2 * Long.BYTES);
+            for (VersionedReservation reservation : reservations) {
+                buffer.clear();
+                buffer.putLong(reservation.reservation().id()).putLong(reservation.version());
+                digest.update(buffer.array());
+            }
+            return "\"" + HexFormat.of().formatHex(digest.digest(), 0, 16) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package kg.zhaparov.reservation.reservations;
+
+/**
+ * Base of the business rejections: invalid requests, missing reservations and state
+ * conflicts. They are expected traffic, not faults, so they skip stack trace capture and
+ * suppression; throwing one costs about as much as allocating the message.
+ */
+public abstract class ReservationException extends RuntimeException {
+
+    protected ReservationException(String message) {
+        super(message, null, false, false);
+    }
+}
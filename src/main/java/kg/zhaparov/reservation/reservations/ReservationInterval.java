@@ -0,0 +1,11 @@
+package kg.zhaparov.reservation.reservations;
+
+import java.time.LocalDate;
+
+public record ReservationInterval(
+        Long id,
+        Long roomId,
+        LocalDate startDate,
+        LocalDate endDate
+) {
+}
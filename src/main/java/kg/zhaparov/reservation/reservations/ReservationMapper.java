@@ -1,5 +1,6 @@
 package kg.zhaparov.reservation.reservations;
 
+import kg.zhaparov.reservation.reservations.archive.ReservationArchiveEntity;
 import org.springframework.stereotype.Component;
 
 @Component
@@ -18,6 +19,31 @@ public class ReservationMapper {
         );
     }
 
+    public Reservation toDomain(
+            ReservationArchiveEntity reservation
+    ) {
+        return new Reservation(
+                reservation.getId(),
+                reservation.getUserId(),
+                reservation.getRoomId(),
+                reservation.getStartDate(),
+                reservation.getEndDate(),
+                reservation.getStatus()
+        );
+    }
+
+    public VersionedReservation toVersioned(
+            ReservationEntity reservation
+    ) {
+        return new VersionedReservation(toDomain(reservation), reservation.getVersion());
+    }
+
+    public VersionedReservation toVersioned(
+            ReservationArchiveEntity reservation
+    ) {
+        return new VersionedReservation(toDomain(reservation), reservation.getVersion());
+    }
+
     public ReservationEntity toEntity(
             Reservation reservation
     ) {
@@ -0,0 +1,11 @@
+package kg.zhaparov.reservation.reservations;
+
+/**
+ * No reservation with the requested id exists.
+ */
+public class ReservationNotFoundException extends ReservationException {
+
+    public ReservationNotFoundException(Long id) {
+        super("Not found reservation with id = " + id);
+    }
+}
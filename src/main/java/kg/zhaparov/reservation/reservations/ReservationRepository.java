@@ -1,15 +1,26 @@
 package kg.zhaparov.reservation.reservations;
 
-import org.springframework.data.domain.Pageable;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import java.time.Instant;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
-public interface ReservationRepository extends JpaRepository<ReservationEntity, Long> {
+public interface ReservationRepository extends
+        JpaRepository<ReservationEntity, Long>,
+        JpaSpecificationExecutor<ReservationEntity>,
+        ReservationSearchRepository {
 
 //    List<ReservationEntity> findAllByStatusIs(ReservationStatus status);
 
@@ -38,15 +49,93 @@ public interface ReservationRepository extends JpaRepository<ReservationEntity,
 //            @Param("status") ReservationStatus status
 //            );
 
+    @Query("""
+            SELECT r.status from ReservationEntity r
+                WHERE r.id = :id
+            """)
+    Optional<ReservationStatus> findStatusById(
+            @Param("id") Long id
+    );
+
     @Modifying
     @Query("""
             update ReservationEntity r
-            set r.status = :status
+            set r.status = :newStatus,
+                r.version = r.version + 1,
+                r.updatedAt = :updatedAt
             where r.id = :id
+                and r.status = :expectedStatus
             """)
-    void setStatus(
+    int transitionStatus(
             @Param("id") Long id,
-            @Param("status") ReservationStatus status
+            @Param("expectedStatus") ReservationStatus expectedStatus,
+            @Param("newStatus") ReservationStatus newStatus,
+            @Param("updatedAt") Instant updatedAt
+    );
+
+    @Modifying
+    @Query("""
+            update ReservationEntity r
+            set r.status = :newStatus,
+                r.version = r.version + 1,
+                r.updatedAt = :updatedAt
+            where r.id = :id
+                and r.status = :expectedStatus
+                and r.version = :version
+            """)
+    int transitionStatusIfUnchanged(
+            @Param("id") Long id,
+            @Param("version") Long version,
+            @Param("expectedStatus") ReservationStatus expectedStatus,
+            @Param("newStatus") ReservationStatus newStatus,
+            @Param("updatedAt") Instant updatedAt
+    );
+
+    @Modifying
+    @Query("""
+            update ReservationEntity r
+            set r.status = :newStatus,
+                r.version = r.version + 1,
+                r.updatedAt = :updatedAt
+            where r.id in :ids
+                and r.status = :expectedStatus
+            """)
+    int transitionStatusAll(
+            @Param("ids") Collection<Long> ids,
+            @Param("expectedStatus") ReservationStatus expectedStatus,
+            @Param("newStatus") ReservationStatus newStatus,
+            @Param("updatedAt") Instant updatedAt
+    );
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("""
+            SELECT r from ReservationEntity r
+                WHERE r.id IN :ids
+            """)
+    List<ReservationEntity> findAllForUpdate(
+            @Param("ids") Collection<Long> ids
+    );
+
+    @Modifying
+    @Query("""
+            update ReservationEntity r
+            set r.userId = :userId,
+                r.roomId = :roomId,
+                r.startDate = :startDate,
+                r.endDate = :endDate,
+                r.version = r.version + 1,
+                r.updatedAt = :updatedAt
+            where r.id = :id
+                and r.status = :status
+            """)
+    int updateIfStatus(
+            @Param("id") Long id,
+            @Param("status") ReservationStatus status,
+            @Param("userId") Long userId,
+            @Param("roomId") Long roomId,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate,
+            @Param("updatedAt") Instant updatedAt
     );
 
     @Query("""
@@ -63,15 +152,55 @@ public interface ReservationRepository extends JpaRepository<ReservationEntity,
             @Param("status") ReservationStatus status
     );
 
+    @Query("""
+            SELECT new kg.zhaparov.reservation.reservations.ReservationInterval(
+                    r.id, r.roomId, r.startDate, r.endDate
+                ) from ReservationEntity r
+                WHERE r.status = :status
+            """)
+    List<ReservationInterval> findIntervalsByStatus(
+            @Param("status") ReservationStatus status
+    );
+
+    @Query("""
+            SELECT new kg.zhaparov.reservation.reservations.ReservationInterval(
+                    r.id, r.roomId, r.startDate, r.endDate
+                ) from ReservationEntity r
+                WHERE r.roomId IN :roomIds
+                AND :startDate < r.endDate
+                AND r.startDate < :endDate
+                AND r.status = :status
+                ORDER BY r.roomId, r.startDate
+            """)
+    List<ReservationInterval> findIntervalsInRange(
+            @Param("roomIds") Collection<Long> roomIds,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate,
+            @Param("status") ReservationStatus status
+    );
+
+    /**
+     * Oldest stays first. Rows locked by a running transition are skipped and picked up
+     * by a later batch.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
     @Query("""
             SELECT r from ReservationEntity r
-                WHERE (:roomId IS NULL OR r.roomId = :roomId)
-                AND (:userId IS NULL OR r.userId = :userId)
+                WHERE r.endDate < :endedBefore
+                ORDER BY r.endDate, r.id
             """)
-    List<ReservationEntity> searchAllByFilter(
-            @Param("roomId") Long roomId,
-            @Param("userId") Long userId,
-            Pageable pageable
+    List<ReservationEntity> findArchivable(
+            @Param("endedBefore") LocalDate endedBefore,
+            Limit limit
     );
 
+    @Modifying
+    @Query("""
+            delete from ReservationEntity r
+            where r.id in :ids
+            """)
+    int deleteAllByIds(
+            @Param("ids") Collection<Long> ids
+    );
 }
@@ -1,10 +1,16 @@
 package kg.zhaparov.reservation.reservations;
 
+import java.time.LocalDate;
 
 public record ReservationSearchFilter(
         Long roomId,
         Long userId,
+        ReservationStatus status,
+        LocalDate fromDate,
+        LocalDate toDate,
         Integer pageSize,
-        Integer pageNumber
+        Integer pageNumber,
+        Long afterId,
+        Boolean includeArchived
 ) {
 }
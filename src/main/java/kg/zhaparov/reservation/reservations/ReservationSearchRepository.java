@@ -0,0 +1,13 @@
+package kg.zhaparov.reservation.reservations;
+
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.stream.Stream;
+
+public interface ReservationSearchRepository {
+
+    Stream<ReservationEntity> streamAll(
+            Specification<ReservationEntity> specification,
+            int fetchSize
+    );
+}
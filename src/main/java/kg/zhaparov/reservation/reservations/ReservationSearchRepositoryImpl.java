@@ -0,0 +1,40 @@
+package kg.zhaparov.reservation.reservations;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.stream.Stream;
+
+class ReservationSearchRepositoryImpl implements ReservationSearchRepository {
+
+    private final EntityManager entityManager;
+
+    ReservationSearchRepositoryImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    /**
+     * Read-only, id-ordered cursor over the matching rows. Must be consumed inside a transaction.
+     */
+    @Override
+    public Stream<ReservationEntity> streamAll(
+            Specification<ReservationEntity> specification,
+            int fetchSize
+    ) {
+        var builder = entityManager.getCriteriaBuilder();
+        var query = builder.createQuery(ReservationEntity.class);
+        var root = query.from(ReservationEntity.class);
+
+        var predicate = specification.toPredicate(root, query, builder);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.orderBy(builder.asc(root.get("id")));
+
+        return entityManager.createQuery(query)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream();
+    }
+}
@@ -1,139 +1,672 @@
 package kg.zhaparov.reservation.reservations;
 
 
-import jakarta.persistence.EntityNotFoundException;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import kg.zhaparov.reservation.persistence.ShardRouter;
+import kg.zhaparov.reservation.reservations.archive.ReservationArchiveEntity;
+import kg.zhaparov.reservation.reservations.archive.ReservationArchiveRepository;
 import kg.zhaparov.reservation.reservations.availability.ReservationAvailabilityService;
+import kg.zhaparov.reservation.reservations.locking.RoomAdvisoryLock;
+import kg.zhaparov.reservation.reservations.locking.RoomLocks;
+import kg.zhaparov.reservation.reservations.outbox.ChangeCursor;
+import kg.zhaparov.reservation.reservations.outbox.ReservationEventType;
+import kg.zhaparov.reservation.reservations.outbox.ReservationOutbox;
+import kg.zhaparov.reservation.reservations.outbox.ReservationOutboxCursorRepository;
+import kg.zhaparov.reservation.reservations.outbox.ReservationOutboxEntity;
+import kg.zhaparov.reservation.reservations.outbox.ReservationOutboxRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDate;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
+/**
+ * With sharding every operation is routed to the shard of its room before a transaction
+ * begins. Lookups by id probe all shards in parallel; searches that name no room fan out
+ * and merge the first matches of every shard.
+ */
 @Service
 public class ReservationService {
 
     private static final Logger log = LoggerFactory.getLogger(ReservationService.class);
 
+    private static final int EXPORT_FETCH_SIZE = 1000;
+    private static final int MAX_CHANGES = 10_000;
+
+    public static final String RESERVATIONS_CACHE = "reservations";
+    public static final String APPROVAL_COUNTER = "reservation.approvals";
+
+    private static final String OPERATION_TIMER = "reservation.operation";
+
     private final ReservationRepository repository;
     private final ReservationMapper mapper;
     private final ReservationAvailabilityService availabilityService;
+    private final RoomLocks roomLocks;
+    private final RoomAdvisoryLock advisoryLock;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ShardRouter shardRouter;
+    private final EntityManager entityManager;
+    private final MeterRegistry meterRegistry;
+    private final ReservationOutbox outbox;
+    private final ReservationArchiveRepository archiveRepository;
+    private final ReservationOutboxRepository outboxRepository;
+    private final ReservationOutboxCursorRepository outboxCursorRepository;
+    private final Cache reservationsCache;
 
     public ReservationService(
             ReservationRepository repository,
             ReservationMapper mapper,
-            ReservationAvailabilityService availabilityService
+            ReservationAvailabilityService availabilityService,
+            RoomLocks roomLocks,
+            RoomAdvisoryLock advisoryLock,
+            PlatformTransactionManager transactionManager,
+            ShardRouter shardRouter,
+            EntityManager entityManager,
+            MeterRegistry meterRegistry,
+            ReservationOutbox outbox,
+            ReservationArchiveRepository archiveRepository,
+            ReservationOutboxRepository outboxRepository,
+            ReservationOutboxCursorRepository outboxCursorRepository,
+            CacheManager cacheManager
     ) {
         this.repository = repository;
         this.mapper = mapper;
         this.availabilityService = availabilityService;
+        this.roomLocks = roomLocks;
+        this.advisoryLock = advisoryLock;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.shardRouter = shardRouter;
+        this.entityManager = entityManager;
+        this.meterRegistry = meterRegistry;
+        this.outbox = outbox;
+        this.archiveRepository = archiveRepository;
+        this.outboxRepository = outboxRepository;
+        this.outboxCursorRepository = outboxCursorRepository;
+        this.reservationsCache = cacheManager.getCache(RESERVATIONS_CACHE);
     }
 
-    public Reservation getReservationById(
+    /**
+     * The version is cached with the reservation, so a conditional GET that matches
+     * is answered without touching the database. Reads the primary, not a replica: what is
+     * read here is cached until the next write evicts it, and a row read from a lagging
+     * replica would stay stale, ETag included, after that eviction.
+     */
+    @Timed(OPERATION_TIMER)
+    @Cacheable(cacheNames = RESERVATIONS_CACHE, key = "#id")
+    public VersionedReservation getReservationById(
             Long id
     ) {
-        ReservationEntity reservationEntity = repository.findById(id)
-                .orElseThrow(() -> new EntityNotFoundException(
-                        "Not found reservation with id = " + id
-                ));
-
-        return mapper.toDomain(reservationEntity);
+        return shardRouter.findOnAnyShard(() -> transactionTemplate.execute(status -> repository.findById(id)
+                        .map(mapper::toVersioned)))
+                .orElseThrow(() -> new ReservationNotFoundException(id));
     }
 
+    @Timed(OPERATION_TIMER)
     public List<Reservation> searchAllByFilter(
             ReservationSearchFilter filter
+    ) {
+        return searchVersioned(filter).stream()
+                .map(VersionedReservation::reservation)
+                .toList();
+    }
+
+    @Timed(OPERATION_TIMER)
+    public List<VersionedReservation> searchVersionedByFilter(
+            ReservationSearchFilter filter
+    ) {
+        return searchVersioned(filter);
+    }
+
+    /**
+     * A search together with the token to start delta polling from. The token is read in the
+     * same transaction as the search on every shard, before it, so the delta starting there
+     * returns every change the search could have missed; a few may come twice.
+     */
+    @Timed(OPERATION_TIMER)
+    public ReservationSnapshot searchSnapshotByFilter(
+            ReservationSearchFilter filter
+    ) {
+        Map<String, Long> heads = new ConcurrentHashMap<>();
+        var reservations = searchVersioned(filter, shard -> heads.put(shard, lastChangeOn(shard)));
+        var cursor = ChangeCursor.of(shardRouter.onEachShard(shard -> heads.containsKey(shard)
+                ? heads.get(shard)
+                : readOnlyTransaction.execute(status -> lastChangeOn(shard))));
+        return new ReservationSnapshot(reservations, cursor.toString());
+    }
+
+    /**
+     * Delta mode of the search: reservations matching the filter that changed after the
+     * token, in the order their changes were committed. Changes are read from the published
+     * outbox, whose positions follow commit order, so a change that commits late still gets a
+     * position after every token handed out before it and is never skipped. The token is
+     * {@code X-Next-Since} of a search or of the previous delta; 0 returns every change still
+     * retained. A token older than the outbox retention is rejected with
+     * {@link SyncTokenExpiredException}. Archived reservations never change and are not part
+     * of the delta.
+     * <p>
+     * Every shard contributes up to {@code MAX_CHANGES} changes after its own position; the
+     * returned token advances each shard by what it contributed.
+     */
+    @Timed(OPERATION_TIMER)
+    public ReservationChanges findChangedSince(
+            ReservationSearchFilter filter,
+            String since
+    ) {
+        var from = ChangeCursor.parse(since, shardRouter);
+        var specification = ReservationSpecifications.<ReservationEntity>byFilter(filter);
+        List<String> shards = shardRouter.shards();
+        var perShard = shardRouter.onEachShard(shard -> readOnlyTransaction.execute(status -> changesOn(
+                specification,
+                from.position(shards.indexOf(shard))
+        )));
+
+        var next = from;
+        List<VersionedReservation> changed = new ArrayList<>();
+        for (int i = 0; i < perShard.size(); i++) {
+            next = next.with(i, perShard.get(i).position());
+            perShard.get(i).reservations().stream()
+                    .map(mapper::toVersioned)
+                    .forEach(changed::add);
+        }
+        return new ReservationChanges(changed, next.toString());
+    }
+
+    private ShardChanges changesOn(
+            Specification<ReservationEntity> specification,
+            long after
+    ) {
+        if (after < outboxCursorRepository.prunedPosition()) {
+            throw new SyncTokenExpiredException();
+        }
+        var events = outboxRepository.findPublishedAfter(after, Limit.of(MAX_CHANGES));
+        if (events.isEmpty()) {
+            return new ShardChanges(List.of(), after);
+        }
+        Map<Long, Long> lastChange = new HashMap<>();
+        for (ReservationOutboxEntity event : events) {
+            lastChange.put(event.getReservationId(), event.getPosition());
+        }
+        var reservations = repository.findBy(
+                specification.and(ReservationSpecifications.idIn(lastChange.keySet())),
+                query -> query.all()
+        );
+        return new ShardChanges(
+                reservations.stream()
+                        .sorted(Comparator.comparing(entity -> lastChange.get(entity.getId())))
+                        .toList(),
+                events.getLast().getPosition()
+        );
+    }
+
+    private long lastChangeOn(String shard) {
+        return outboxCursorRepository.lastPosition(shardRouter.idRangeStart(shard));
+    }
+
+    private record ShardChanges(
+            List<ReservationEntity> reservations,
+            long position
+    ) {
+    }
+
+    /**
+     * A search for one room, or without sharding, runs as one query on one shard. Otherwise
+     * every shard returns its first {@code (pageNumber + 1) * pageSize} matches in id order and
+     * the page is cut from the merge, the same way {@link #searchAllTiers} merges the tiers.
+     */
+    private List<VersionedReservation> searchVersioned(
+            ReservationSearchFilter filter
+    ) {
+        return searchVersioned(filter, shard -> {
+        });
+    }
+
+    /**
+     * {@code onShard} runs first in the read transaction of every shard the search reads.
+     */
+    private List<VersionedReservation> searchVersioned(
+            ReservationSearchFilter filter,
+            Consumer<String> onShard
     ) {
         int pageSize = filter.pageSize() != null ? filter.pageSize() : 10;
         int pageNumber = filter.pageNumber() != null ? filter.pageNumber() : 0;
 
-        var pageable = Pageable.ofSize(pageSize).withPage(pageNumber);
+        if (filter.roomId() == null && shardRouter.isSharded()) {
+            int offset = filter.afterId() != null ? 0 : pageNumber * pageSize;
+            var merged = new TreeMap<Long, VersionedReservation>();
+            for (List<VersionedReservation> matches : readShards(filter, shard -> {
+                onShard.accept(shard);
+                return firstMatches(filter, offset + pageSize);
+            })) {
+                matches.forEach(reservation -> merged.putIfAbsent(reservation.reservation().id(), reservation));
+            }
+            return merged.values().stream()
+                    .skip(offset)
+                    .limit(pageSize)
+                    .toList();
+        }
+        return readShards(filter, shard -> {
+            onShard.accept(shard);
+            return searchShard(filter, pageSize, pageNumber);
+        }).getFirst();
+    }
 
-        List<ReservationEntity> allEntities = repository.searchAllByFilter(
-                filter.roomId(),
-                filter.userId(),
-                pageable
-        );
+    private List<VersionedReservation> searchShard(
+            ReservationSearchFilter filter,
+            int pageSize,
+            int pageNumber
+    ) {
+        if (Boolean.TRUE.equals(filter.includeArchived())) {
+            return searchAllTiers(filter, pageSize, pageNumber);
+        }
+
+        var specification = ReservationSpecifications.<ReservationEntity>byFilter(filter);
+
+        List<ReservationEntity> allEntities;
+        if (filter.afterId() != null) {
+            allEntities = repository.findBy(
+                    specification.and(ReservationSpecifications.idGreaterThan(filter.afterId())),
+                    query -> query.sortBy(Sort.by("id")).limit(pageSize).all()
+            );
+        } else {
+            var pageable = Pageable.ofSize(pageSize).withPage(pageNumber);
+            allEntities = repository.findBy(
+                    specification,
+                    query -> query.slice(pageable).getContent()
+            );
+        }
 
         return allEntities.stream()
-                .map(mapper::toDomain)
+                .map(mapper::toVersioned)
+                .toList();
+    }
+
+    /**
+     * Reads the first {@code (pageNumber + 1) * pageSize} matches of each tier in id order
+     * and merges them, so keyset paging ({@code afterId}) stays cheap while deep offsets
+     * grow with the offset. The primary table is read first: a row archived in between
+     * is then seen twice rather than missed, and duplicates are dropped by id.
+     */
+    private List<VersionedReservation> searchAllTiers(
+            ReservationSearchFilter filter,
+            int pageSize,
+            int pageNumber
+    ) {
+        int offset = filter.afterId() != null ? 0 : pageNumber * pageSize;
+        return firstMatches(filter, offset + pageSize).stream()
+                .skip(offset)
+                .limit(pageSize)
                 .toList();
     }
 
+    /**
+     * The first {@code limit} matches in id order, after {@code afterId} when it is set, of the
+     * primary table and, when the filter asks for them, of the archive.
+     */
+    private List<VersionedReservation> firstMatches(
+            ReservationSearchFilter filter,
+            int limit
+    ) {
+        var primarySpecification = ReservationSpecifications.<ReservationEntity>byFilter(filter);
+        var archiveSpecification = ReservationSpecifications.<ReservationArchiveEntity>byFilter(filter);
+        if (filter.afterId() != null) {
+            primarySpecification = primarySpecification.and(ReservationSpecifications.idGreaterThan(filter.afterId()));
+            archiveSpecification = archiveSpecification.and(ReservationSpecifications.idGreaterThan(filter.afterId()));
+        }
+
+        var primary = repository.findBy(
+                primarySpecification,
+                query -> query.sortBy(Sort.by("id")).limit(limit).all()
+        );
+        var merged = new TreeMap<Long, VersionedReservation>();
+        primary.forEach(entity -> merged.put(entity.getId(), mapper.toVersioned(entity)));
+        if (Boolean.TRUE.equals(filter.includeArchived())) {
+            archiveRepository.findBy(
+                    archiveSpecification,
+                    query -> query.sortBy(Sort.by("id")).limit(limit).all()
+            ).forEach(entity -> merged.putIfAbsent(entity.getId(), mapper.toVersioned(entity)));
+        }
+        return merged.values().stream()
+                .limit(limit)
+                .toList();
+    }
+
+    /**
+     * Runs a read in a read-only transaction on the shard of the filtered room, or on every
+     * shard in parallel when the filter names no room.
+     */
+    private <T> List<T> readShards(
+            ReservationSearchFilter filter,
+            Function<String, T> read
+    ) {
+        if (filter.roomId() != null) {
+            T result = shardRouter.onShardOf(filter.roomId(), () -> readOnlyTransaction.execute(
+                    status -> read.apply(shardRouter.shardFor(filter.roomId()))
+            ));
+            return List.of(result);
+        }
+        return shardRouter.onEachShard(shard -> readOnlyTransaction.execute(status -> read.apply(shard)));
+    }
+
+    /**
+     * Streams every matching reservation in id order without materializing the result.
+     * Entities are detached once mapped, so memory stays flat regardless of the result size.
+     * With sharding the shards are exported one after another, each in id order.
+     */
+    @Timed(OPERATION_TIMER)
+    public void exportAllByFilter(
+            ReservationSearchFilter filter,
+            Consumer<Reservation> consumer
+    ) {
+        var shards = filter.roomId() != null
+                ? List.of(shardRouter.shardFor(filter.roomId()))
+                : shardRouter.shards();
+        for (String shard : shards) {
+            shardRouter.onShard(shard, () -> readOnlyTransaction.execute(status -> {
+                try (Stream<ReservationEntity> entities = repository.streamAll(
+                        ReservationSpecifications.byFilter(filter),
+                        EXPORT_FETCH_SIZE
+                )) {
+                    entities.forEach(entity -> {
+                        consumer.accept(mapper.toDomain(entity));
+                        entityManager.detach(entity);
+                    });
+                }
+                return null;
+            }));
+        }
+    }
+
+    @Timed(OPERATION_TIMER)
     public Reservation createReservation(Reservation reservationToCreate) {
+        var entityToSave = prepareNewReservation(reservationToCreate);
+
+        return shardRouter.onShardOf(entityToSave.getRoomId(), () -> transactionTemplate.execute(status -> {
+            var createdReservation = mapper.toDomain(repository.save(entityToSave));
+            outbox.record(ReservationEventType.CREATED, createdReservation);
+            return createdReservation;
+        }));
+    }
+
+    public ReservationEntity prepareNewReservation(Reservation reservationToCreate) {
         if (reservationToCreate.status() != null) {
-            throw new IllegalArgumentException("ID should be empty");
+            throw new InvalidReservationRequestException("ID should be empty");
         }
         if (!reservationToCreate.endDate().isAfter(reservationToCreate.startDate())) {
-            throw new IllegalArgumentException("Start date should be before end date");
+            throw new InvalidReservationRequestException("Start date should be before end date");
         }
 
         var entityToSave = mapper.toEntity(reservationToCreate);
         entityToSave.setStatus(ReservationStatus.PENDING);
+        return entityToSave;
+    }
 
-        var savedEntity = repository.save(entityToSave);
-        return mapper.toDomain(savedEntity);
+    /**
+     * Cancels the reservations that are still {@code expectedStatus} and records the
+     * cancellations, in the caller's transaction on the current shard. Undoes the committed
+     * part of a cross-shard write whose other part failed to commit. The cancelled ids are
+     * evicted from the cache once that transaction commits.
+     */
+    public void cancelAllIfStatus(
+            Collection<Long> ids,
+            ReservationStatus expectedStatus
+    ) {
+        var cancelled = repository.findAllForUpdate(ids).stream()
+                .filter(entity -> entity.getStatus() == expectedStatus)
+                .toList();
+        if (cancelled.isEmpty()) {
+            return;
+        }
+        repository.transitionStatusAll(
+                cancelled.stream().map(ReservationEntity::getId).toList(),
+                expectedStatus,
+                ReservationStatus.CANCELLED,
+                ReservationEntity.changeStamp()
+        );
+        outbox.recordAll(ReservationEventType.CANCELLED, cancelled, ReservationStatus.CANCELLED, expectedStatus);
+        evictAfterCommit(cancelled.stream().map(ReservationEntity::getId).toList());
+        log.warn("Cancelled reservations of a failed cross-shard write: ids={}", ids);
     }
 
+    /**
+     * Evicting before the commit would let a concurrent read cache the old status again.
+     */
+    private void evictAfterCommit(List<Long> ids) {
+        if (reservationsCache == null) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            ids.forEach(reservationsCache::evict);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                ids.forEach(reservationsCache::evict);
+            }
+        });
+    }
+
+    /**
+     * One conditional update: the row changes only while it is still PENDING. The status
+     * is read back only when nothing matched, to tell a missing row from a wrong state.
+     * With sharding a reservation can only move to a room on the same shard.
+     */
+    @Timed(OPERATION_TIMER)
+    @CacheEvict(cacheNames = RESERVATIONS_CACHE, key = "#id")
     public Reservation updateReservation(
             Long id,
             Reservation reservationToUpdate
     ) {
-        var reservationEntity = repository.findById(id)
-                .orElseThrow(() -> new EntityNotFoundException("Not found reservation with id = " + id));
-
-        if (reservationEntity.getStatus() != ReservationStatus.PENDING) {
-            throw new IllegalArgumentException("Cannot update reservation with status " + reservationEntity.getStatus());
-        }
         if (!reservationToUpdate.endDate().isAfter(reservationToUpdate.startDate())) {
-            throw new IllegalArgumentException("Start date should be before end date");
+            throw new InvalidReservationRequestException("Start date should be before end date");
+        }
+        if (!shardRouter.isSharded()) {
+            return transactionTemplate.execute(status -> updateOnShard(id, reservationToUpdate));
         }
 
-        var reservationToSave = mapper.toEntity(reservationToUpdate);
-        reservationToSave.setId(reservationEntity.getId());
-        reservationToSave.setStatus(ReservationStatus.PENDING);
+        Long roomId = findRoomId(id);
+        var rooms = List.of(roomId, reservationToUpdate.roomId());
+        return shardRouter.withRoomsFenced(rooms, () -> {
+            String shard = shardRouter.shardFor(roomId);
+            if (!shard.equals(shardRouter.shardFor(reservationToUpdate.roomId()))) {
+                throw new InvalidReservationRequestException(
+                        "Cannot move reservation to room " + reservationToUpdate.roomId() + " on another shard"
+                );
+            }
+            return shardRouter.onShard(shard, () -> transactionTemplate.execute(
+                    status -> updateOnShard(id, reservationToUpdate)
+            ));
+        });
+    }
 
-        var updatedReservation = repository.save(reservationToSave);
+    private Reservation updateOnShard(
+            Long id,
+            Reservation reservationToUpdate
+    ) {
+        int updated = repository.updateIfStatus(
+                id,
+                ReservationStatus.PENDING,
+                reservationToUpdate.userId(),
+                reservationToUpdate.roomId(),
+                reservationToUpdate.startDate(),
+                reservationToUpdate.endDate(),
+                ReservationEntity.changeStamp()
+        );
+        if (updated == 0) {
+            throw transitionFailure(id, "update");
+        }
 
-        return mapper.toDomain(updatedReservation);
+        var updatedReservation = new Reservation(
+                id,
+                reservationToUpdate.userId(),
+                reservationToUpdate.roomId(),
+                reservationToUpdate.startDate(),
+                reservationToUpdate.endDate(),
+                ReservationStatus.PENDING
+        );
+        outbox.record(ReservationEventType.UPDATED, updatedReservation);
+        return updatedReservation;
     }
 
-    @Transactional
+    /**
+     * Only PENDING reservations can be cancelled, and those are never in the availability
+     * index, so the conditional update is all there is to do.
+     */
+    @Timed(OPERATION_TIMER)
+    @CacheEvict(cacheNames = RESERVATIONS_CACHE, key = "#id")
     public void cancelReservation(Long id) {
-        var reservation = repository.findById(id)
-                        .orElseThrow(() -> new EntityNotFoundException("Not found reservation with id = " + id));
-        if (reservation.getStatus().equals(ReservationStatus.APPROVED)) {
-            throw new IllegalStateException("Cannot cancel reservation with status " + reservation.getStatus() + ". Contact with administrator.");
-        }
-        if (reservation.getStatus().equals(ReservationStatus.CANCELLED)) {
-            throw new IllegalStateException("Cannot cancel reservation with status " + reservation.getStatus() + ". Reservation already cancelled.");
+        Supplier<Void> cancel = () -> transactionTemplate.execute(status -> {
+            int updated = repository.transitionStatus(
+                    id,
+                    ReservationStatus.PENDING,
+                    ReservationStatus.CANCELLED,
+                    ReservationEntity.changeStamp()
+            );
+            if (updated == 0) {
+                throw transitionFailure(id, "cancel");
+            }
+            outbox.recordStatusChange(ReservationEventType.CANCELLED, id, ReservationStatus.CANCELLED, ReservationStatus.PENDING);
+            return null;
+        });
+        if (shardRouter.isSharded()) {
+            shardRouter.onShardOf(findRoomId(id), cancel);
+        } else {
+            cancel.get();
         }
-        repository.setStatus(id, ReservationStatus.CANCELLED);
         log.info("Successfully cancelled reservation: id={}", id);
     }
 
+    /**
+     * Approvals are serialized per room only: a striped in-JVM lock keeps threads of this
+     * node apart and a transaction-scoped advisory lock does the same across nodes.
+     * The conflict check and the status change happen inside that critical section.
+     */
+    @Timed(OPERATION_TIMER)
+    @CacheEvict(cacheNames = RESERVATIONS_CACHE, key = "#id")
     public Reservation approveReservation(Long id) {
-        var reservationEntity = repository.findById(id)
-                .orElseThrow(() -> new EntityNotFoundException("Not found reservation with id = " + id));
-
-        if (reservationEntity.getStatus() != ReservationStatus.PENDING) {
-            throw new IllegalArgumentException("Cannot approve reservation with status " + reservationEntity.getStatus());
-        }
-        var isAvailableToApprove = availabilityService.isReservationAvailable(
-                reservationEntity.getRoomId(),
-                reservationEntity.getStartDate(),
-                reservationEntity.getEndDate()
-        );
-        if (isAvailableToApprove) {
-            throw new IllegalArgumentException("Cannot approve reservation because of conflict ");
+        try {
+            Long roomId = findRoomId(id);
+            while (true) {
+                Long lockedRoomId = roomId;
+                Optional<Reservation> approved = shardRouter.onShardOf(
+                        lockedRoomId,
+                        () -> roomLocks.withRoomLock(lockedRoomId, () -> approveUnderRoomLock(id, lockedRoomId))
+                );
+                if (approved.isPresent()) {
+                    countApproval("approved");
+                    return approved.get();
+                }
+                roomId = findRoomId(id);
+                log.info("Room of reservation changed during approval, retrying: id={}, roomId={}", id, roomId);
+            }
+        } catch (ReservationNotFoundException e) {
+            countApproval("not_found");
+            throw e;
+        } catch (DataIntegrityViolationException e) {
+            countApproval("constraint_violation");
+            throw e;
         }
+    }
 
-        reservationEntity.setStatus(ReservationStatus.APPROVED);
-        repository.save(reservationEntity);
+    private Optional<Reservation> approveUnderRoomLock(Long id, Long roomId) {
+        Optional<Reservation> approved = transactionTemplate.execute(status -> {
+            advisoryLock.lockRoom(roomId);
 
-        return mapper.toDomain(reservationEntity);
+            var reservationEntity = repository.findById(id)
+                    .orElseThrow(() -> new ReservationNotFoundException(id));
+            if (!reservationEntity.getRoomId().equals(roomId)) {
+                return Optional.empty();
+            }
+            if (reservationEntity.getStatus() != ReservationStatus.PENDING) {
+                countApproval("invalid_status");
+                throw new ReservationConflictException("Cannot approve reservation with status " + reservationEntity.getStatus());
+            }
+            var isAvailableToApprove = availabilityService.isAvailableForApproval(
+                    reservationEntity.getRoomId(),
+                    reservationEntity.getStartDate(),
+                    reservationEntity.getEndDate()
+            );
+            if (!isAvailableToApprove) {
+                countApproval("conflict");
+                throw new ReservationConflictException("Cannot approve reservation because of conflict");
+            }
+
+            // The version guards against an update of the dates since the check above.
+            int updated = repository.transitionStatusIfUnchanged(
+                    id,
+                    reservationEntity.getVersion(),
+                    ReservationStatus.PENDING,
+                    ReservationStatus.APPROVED,
+                    ReservationEntity.changeStamp()
+            );
+            if (updated == 0) {
+                countApproval("concurrent_modification");
+                throw new ReservationConflictException("Reservation was modified concurrently, id = " + id);
+            }
+            var approvedReservation = new Reservation(
+                    id,
+                    reservationEntity.getUserId(),
+                    reservationEntity.getRoomId(),
+                    reservationEntity.getStartDate(),
+                    reservationEntity.getEndDate(),
+                    ReservationStatus.APPROVED
+            );
+            outbox.record(ReservationEventType.APPROVED, approvedReservation);
+            return Optional.of(approvedReservation);
+        });
+
+        approved.ifPresent(reservation -> availabilityService.registerApproved(
+                reservation.id(),
+                reservation.roomId(),
+                reservation.startDate(),
+                reservation.endDate()
+        ));
+        return approved;
+    }
+
+    /**
+     * Runs in a read-write transaction so it reads the primary: a room id read from a
+     * lagging replica would keep the approval retrying against a stale room.
+     */
+    private Long findRoomId(Long id) {
+        return shardRouter.findOnAnyShard(() -> transactionTemplate.execute(status -> repository.findById(id)
+                        .map(ReservationEntity::getRoomId)))
+                .orElseThrow(() -> new ReservationNotFoundException(id));
     }
 
+    private ReservationException transitionFailure(Long id, String action) {
+        return repository.findStatusById(id)
+                .<ReservationException>map(status -> new ReservationConflictException(
+                        "Cannot " + action + " reservation with status " + status
+                ))
+                .orElseGet(() -> new ReservationNotFoundException(id));
+    }
 
+    private void countApproval(String outcome) {
+        meterRegistry.counter(APPROVAL_COUNTER, "outcome", outcome).increment();
+    }
 }
@@ -0,0 +1,12 @@
+package kg.zhaparov.reservation.reservations;
+
+import java.util.List;
+
+/**
+ * A page of search results and the sync token to poll for changes after it.
+ */
+public record ReservationSnapshot(
+        List<VersionedReservation> reservations,
+        String nextSince
+) {
+}
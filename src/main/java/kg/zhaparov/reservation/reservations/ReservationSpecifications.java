@@ -0,0 +1,53 @@
+package kg.zhaparov.reservation.reservations;
+
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Builds search predicates from only the filters that are present, so the database
+ * plans each combination on its own instead of one generic {@code :param IS NULL OR ...} plan.
+ */
+public final class ReservationSpecifications {
+
+    private ReservationSpecifications() {
+    }
+
+    /**
+     * Date bounds use overlap semantics: a reservation matches when it has
+     * at least one night inside {@code [fromDate, toDate)}. Applies to both the primary
+     * and the archive table, which share attribute names.
+     */
+    public static <T> Specification<T> byFilter(ReservationSearchFilter filter) {
+        return (root, query, builder) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (filter.roomId() != null) {
+                predicates.add(builder.equal(root.get("roomId"), filter.roomId()));
+            }
+            if (filter.userId() != null) {
+                predicates.add(builder.equal(root.get("userId"), filter.userId()));
+            }
+            if (filter.status() != null) {
+                predicates.add(builder.equal(root.get("status"), filter.status()));
+            }
+            if (filter.fromDate() != null) {
+                predicates.add(builder.greaterThan(root.get("endDate"), filter.fromDate()));
+            }
+            if (filter.toDate() != null) {
+                predicates.add(builder.lessThan(root.get("startDate"), filter.toDate()));
+            }
+            return builder.and(predicates.toArray(Predicate[]::new));
+        };
+    }
+
+    public static Specification<ReservationEntity> idIn(Collection<Long> ids) {
+        return (root, query, builder) -> root.get("id").in(ids);
+    }
+
+    public static <T> Specification<T> idGreaterThan(Long afterId) {
+        return (root, query, builder) -> builder.greaterThan(root.get("id"), afterId);
+    }
+}
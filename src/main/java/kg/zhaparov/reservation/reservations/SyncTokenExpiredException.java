@@ -0,0 +1,12 @@
+package kg.zhaparov.reservation.reservations;
+
+/**
+ * The changes after a sync token have been removed from the outbox; the client has to
+ * search again and continue from the token of that search.
+ */
+public class SyncTokenExpiredException extends ReservationException {
+
+    public SyncTokenExpiredException() {
+        super("Sync token expired, search again to get a new one");
+    }
+}
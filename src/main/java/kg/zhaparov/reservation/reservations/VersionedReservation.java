@@ -0,0 +1,11 @@
+package kg.zhaparov.reservation.reservations;
+
+/**
+ * A reservation with the version of its row; the version changes with every write,
+ * so it identifies the representation for conditional requests.
+ */
+public record VersionedReservation(
+        Reservation reservation,
+        Long version
+) {
+}
@@ -0,0 +1,99 @@
+package kg.zhaparov.reservation.reservations.approval;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Progress of one submission. Results arrive from the pipeline worker in batch order;
+ * listeners get every result recorded so far on subscription and the rest as they come.
+ */
+public class ApprovalJob {
+
+    public interface Listener {
+
+        void onResult(ApprovalResult result);
+
+        void onComplete(ApprovalJobResponse summary);
+    }
+
+    private final UUID id;
+    private final int total;
+    private final List<ApprovalResult> results = new ArrayList<>();
+    private final List<Listener> listeners = new ArrayList<>();
+    private int approved;
+
+    ApprovalJob(UUID id, int total) {
+        this.id = id;
+        this.total = total;
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public synchronized ApprovalJobResponse snapshot() {
+        return toResponse(List.copyOf(results));
+    }
+
+    public synchronized void subscribe(Listener listener) {
+        for (ApprovalResult result : results) {
+            listener.onResult(result);
+        }
+        if (isComplete()) {
+            listener.onComplete(toResponse(List.of()));
+        } else {
+            listeners.add(listener);
+        }
+    }
+
+    public synchronized void unsubscribe(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    synchronized void record(ApprovalResult result) {
+        results.add(result);
+        if (result.outcome() == ApprovalOutcome.APPROVED) {
+            approved++;
+        }
+        // A listener that fails (e.g. a disconnected client) is dropped; the job goes on.
+        listeners.removeIf(listener -> !notify(() -> listener.onResult(result)));
+        if (isComplete()) {
+            var summary = toResponse(List.of());
+            listeners.forEach(listener -> notify(() -> listener.onComplete(summary)));
+            listeners.clear();
+        }
+    }
+
+    private static boolean notify(Runnable notification) {
+        try {
+            notification.run();
+            return true;
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+
+    private boolean isComplete() {
+        return results.size() == total;
+    }
+
+    private ApprovalJobResponse toResponse(List<ApprovalResult> reportedResults) {
+        ApprovalJobState state;
+        if (results.isEmpty()) {
+            state = ApprovalJobState.QUEUED;
+        } else if (isComplete()) {
+            state = ApprovalJobState.COMPLETED;
+        } else {
+            state = ApprovalJobState.IN_PROGRESS;
+        }
+        return new ApprovalJobResponse(
+                id,
+                state,
+                total,
+                approved,
+                results.size() - approved,
+                reportedResults
+        );
+    }
+}
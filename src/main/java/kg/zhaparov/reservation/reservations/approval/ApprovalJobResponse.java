@@ -0,0 +1,14 @@
+package kg.zhaparov.reservation.reservations.approval;
+
+import java.util.List;
+import java.util.UUID;
+
+public record ApprovalJobResponse(
+        UUID jobId,
+        ApprovalJobState state,
+        int total,
+        int approved,
+        int rejected,
+        List<ApprovalResult> results
+) {
+}
@@ -0,0 +1,7 @@
+package kg.zhaparov.reservation.reservations.approval;
+
+public enum ApprovalJobState {
+    QUEUED,
+    IN_PROGRESS,
+    COMPLETED
+}
@@ -0,0 +1,9 @@
+package kg.zhaparov.reservation.reservations.approval;
+
+public enum ApprovalOutcome {
+    APPROVED,
+    CONFLICT,
+    INVALID_STATUS,
+    NOT_FOUND,
+    FAILED
+}
@@ -0,0 +1,204 @@
+package kg.zhaparov.reservation.reservations.approval;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import kg.zhaparov.reservation.reservations.InvalidReservationRequestException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Queue-based approval mode for bursts. Submissions return immediately with a job;
+ * a single worker drains the queue into batches of up to {@code batchSize} approvals,
+ * waiting at most {@code linger} for a batch to fill, and resolves each batch with
+ * {@link BatchApprovalService}. Results are recorded on the jobs as batches complete.
+ * <p>
+ * Jobs live in memory only and expire an hour after their last access; work still
+ * queued when the node stops is lost and has to be submitted again.
+ */
+@Service
+public class ApprovalPipeline implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(ApprovalPipeline.class);
+
+    private static final int MAX_SUBMISSION_SIZE = 10_000;
+
+    private record QueuedApproval(ApprovalJob job, Long reservationId) {
+    }
+
+    private final BatchApprovalService batchApprovalService;
+    private final BlockingQueue<QueuedApproval> queue;
+    private final Cache<UUID, ApprovalJob> jobs = Caffeine.newBuilder()
+            .maximumSize(10_000)
+            .expireAfterAccess(Duration.ofHours(1))
+            .build();
+    private final int batchSize;
+    private final Duration linger;
+    private final Duration retryAfter;
+    private final Timer batchTimer;
+
+    private volatile boolean running;
+    private Thread worker;
+
+    public ApprovalPipeline(
+            BatchApprovalService batchApprovalService,
+            @Value("${reservation.approval.queue-capacity:100000}") int queueCapacity,
+            @Value("${reservation.approval.batch-size:1000}") int batchSize,
+            @Value("${reservation.approval.linger:50ms}") Duration linger,
+            @Value("${reservation.approval.retry-after:5s}") Duration retryAfter,
+            MeterRegistry meterRegistry
+    ) {
+        this.batchApprovalService = batchApprovalService;
+        this.queue = new LinkedBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.linger = linger;
+        this.retryAfter = retryAfter;
+        this.batchTimer = Timer.builder("reservation.approval.batch")
+                .description("Time to resolve one batch of queued approvals")
+                .register(meterRegistry);
+        Gauge.builder("reservation.approval.queue.size", queue, BlockingQueue::size)
+                .register(meterRegistry);
+    }
+
+    public ApprovalJob submit(List<Long> reservationIds) {
+        var ids = new LinkedHashSet<>(reservationIds);
+        if (ids.isEmpty()) {
+            throw new InvalidReservationRequestException("Reservation ids should not be empty");
+        }
+        if (ids.size() > MAX_SUBMISSION_SIZE) {
+            throw new InvalidReservationRequestException("Submission size should not exceed " + MAX_SUBMISSION_SIZE);
+        }
+        if (queue.remainingCapacity() < ids.size()) {
+            throw new ApprovalQueueFullException(retryAfter);
+        }
+
+        var job = new ApprovalJob(UUID.randomUUID(), ids.size());
+        jobs.put(job.getId(), job);
+        for (Long id : ids) {
+            if (!queue.offer(new QueuedApproval(job, id))) {
+                job.record(new ApprovalResult(id, ApprovalOutcome.FAILED, "Approval queue is full"));
+            }
+        }
+        log.info("Queued approval job: id={}, size={}", job.getId(), ids.size());
+        return job;
+    }
+
+    public Optional<ApprovalJob> findJob(UUID jobId) {
+        return Optional.ofNullable(jobs.getIfPresent(jobId));
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        worker = Thread.ofPlatform()
+                .name("approval-pipeline")
+                .daemon()
+                .start(this::run);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        worker.interrupt();
+        try {
+            worker.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                List<QueuedApproval> batch = nextBatch();
+                if (!batch.isEmpty()) {
+                    batchTimer.record(() -> process(batch));
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Approval pipeline iteration failed", e);
+            }
+        }
+    }
+
+    private List<QueuedApproval> nextBatch() throws InterruptedException {
+        List<QueuedApproval> batch = new ArrayList<>();
+        QueuedApproval first = queue.poll(1, TimeUnit.SECONDS);
+        if (first == null) {
+            return batch;
+        }
+        batch.add(first);
+        long deadline = System.nanoTime() + linger.toNanos();
+        while (batch.size() < batchSize) {
+            queue.drainTo(batch, batchSize - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() >= batchSize || remaining <= 0) {
+                break;
+            }
+            QueuedApproval next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                break;
+            }
+            batch.add(next);
+        }
+        return batch;
+    }
+
+    private void process(List<QueuedApproval> batch) {
+        // The same reservation may be queued by several jobs; it is resolved once.
+        Map<Long, List<QueuedApproval>> byReservation = new LinkedHashMap<>();
+        for (QueuedApproval approval : batch) {
+            byReservation.computeIfAbsent(approval.reservationId(), id -> new ArrayList<>()).add(approval);
+        }
+
+        BatchApprovalResult result;
+        try {
+            result = batchApprovalService.approveAll(byReservation.keySet());
+        } catch (RuntimeException e) {
+            log.warn("Approval batch of {} reservations failed: {}", byReservation.size(), e.getMessage());
+            var failure = e.getMessage();
+            byReservation.forEach((id, approvals) -> approvals.forEach(approval -> approval.job().record(
+                    new ApprovalResult(id, ApprovalOutcome.FAILED, failure)
+            )));
+            return;
+        }
+
+        for (ApprovalResult approvalResult : result.results()) {
+            byReservation.get(approvalResult.reservationId())
+                    .forEach(approval -> approval.job().record(approvalResult));
+        }
+        for (Long id : result.retry()) {
+            for (QueuedApproval approval : byReservation.get(id)) {
+                if (!queue.offer(approval)) {
+                    approval.job().record(new ApprovalResult(id, ApprovalOutcome.FAILED, "Approval queue is full"));
+                }
+            }
+        }
+        log.info("Resolved approval batch: size={}, approved={}, retried={}",
+                byReservation.size(), result.approved().size(), result.retry().size());
+    }
+}
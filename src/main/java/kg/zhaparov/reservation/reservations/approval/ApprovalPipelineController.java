@@ -0,0 +1,97 @@
+package kg.zhaparov.reservation.reservations.approval;
+
+import jakarta.persistence.EntityNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/reservation/approvals")
+public class ApprovalPipelineController {
+
+    private static final Logger log = LoggerFactory.getLogger(ApprovalPipelineController.class);
+
+    private static final long STREAM_TIMEOUT_MILLIS = Duration.ofMinutes(10).toMillis();
+
+    private final ApprovalPipeline pipeline;
+
+    public ApprovalPipelineController(ApprovalPipeline pipeline) {
+        this.pipeline = pipeline;
+    }
+
+    @PostMapping
+    public ResponseEntity<ApprovalJobResponse> submitApprovals(
+            @RequestBody List<Long> reservationIds
+    ) {
+        log.info("Called submitApprovals: size={}", reservationIds.size());
+        var job = pipeline.submit(reservationIds);
+        return ResponseEntity.accepted()
+                .location(URI.create("/reservation/approvals/" + job.getId()))
+                .body(job.snapshot());
+    }
+
+    @GetMapping("/{jobId}")
+    public ResponseEntity<ApprovalJobResponse> getApprovalJob(
+            @PathVariable("jobId") UUID jobId
+    ) {
+        log.info("Called getApprovalJob: jobId={}", jobId);
+        return ResponseEntity.ok(findJob(jobId).snapshot());
+    }
+
+    /**
+     * Server-sent events: one {@code result} event per resolved reservation, then a
+     * {@code completed} event with the totals.
+     */
+    @GetMapping(value = "/{jobId}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamApprovalJob(
+            @PathVariable("jobId") UUID jobId
+    ) {
+        log.info("Called streamApprovalJob: jobId={}", jobId);
+        var job = findJob(jobId);
+        var emitter = new SseEmitter(STREAM_TIMEOUT_MILLIS);
+        var listener = new ApprovalJob.Listener() {
+            @Override
+            public void onResult(ApprovalResult result) {
+                send(emitter, "result", result);
+            }
+
+            @Override
+            public void onComplete(ApprovalJobResponse summary) {
+                send(emitter, "completed", summary);
+                emitter.complete();
+            }
+        };
+        emitter.onCompletion(() -> job.unsubscribe(listener));
+        emitter.onTimeout(() -> job.unsubscribe(listener));
+        job.subscribe(listener);
+        return emitter;
+    }
+
+    private ApprovalJob findJob(UUID jobId) {
+        return pipeline.findJob(jobId)
+                .orElseThrow(() -> new EntityNotFoundException("Not found approval job with id = " + jobId));
+    }
+
+    private static void send(SseEmitter emitter, String name, Object data) {
+        try {
+            emitter.send(SseEmitter.event().name(name).data(data, MediaType.APPLICATION_JSON));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
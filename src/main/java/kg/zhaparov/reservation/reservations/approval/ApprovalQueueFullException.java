@@ -0,0 +1,23 @@
+package kg.zhaparov.reservation.reservations.approval;
+
+import kg.zhaparov.reservation.reservations.ReservationException;
+
+import java.time.Duration;
+
+/**
+ * The approval queue has no room for the submission. Nothing was queued; the client
+ * should submit again after {@link #getRetryAfter()}.
+ */
+public class ApprovalQueueFullException extends ReservationException {
+
+    private final Duration retryAfter;
+
+    public ApprovalQueueFullException(Duration retryAfter) {
+        super("Approval queue is full, try again later");
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
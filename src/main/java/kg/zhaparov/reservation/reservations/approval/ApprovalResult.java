@@ -0,0 +1,8 @@
+package kg.zhaparov.reservation.reservations.approval;
+
+public record ApprovalResult(
+        Long reservationId,
+        ApprovalOutcome outcome,
+        String message
+) {
+}
@@ -0,0 +1,16 @@
+package kg.zhaparov.reservation.reservations.approval;
+
+import kg.zhaparov.reservation.reservations.ReservationInterval;
+
+import java.util.List;
+
+/**
+ * Outcome of one batch. {@code retry} holds reservations whose room changed
+ * after the room locks were taken; they go back to the queue.
+ */
+record BatchApprovalResult(
+        List<ApprovalResult> results,
+        List<ReservationInterval> approved,
+        List<Long> retry
+) {
+}
@@ -0,0 +1,244 @@
+package kg.zhaparov.reservation.reservations.approval;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import kg.zhaparov.reservation.persistence.ShardRouter;
+import kg.zhaparov.reservation.reservations.ReservationEntity;
+import kg.zhaparov.reservation.reservations.ReservationInterval;
+import kg.zhaparov.reservation.reservations.ReservationRepository;
+import kg.zhaparov.reservation.reservations.ReservationService;
+import kg.zhaparov.reservation.reservations.ReservationStatus;
+import kg.zhaparov.reservation.reservations.availability.ReservationAvailabilityService;
+import kg.zhaparov.reservation.reservations.locking.RoomAdvisoryLock;
+import kg.zhaparov.reservation.reservations.locking.RoomLocks;
+import kg.zhaparov.reservation.reservations.outbox.ReservationEventType;
+import kg.zhaparov.reservation.reservations.outbox.ReservationOutbox;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Resolves a batch of approvals in one transaction: candidates are grouped by room,
+ * sorted by start date and accepted greedily in a single pass against the already
+ * approved reservations of the room. All accepted reservations are then approved
+ * with one update. With sharding the batch is split by shard, one transaction each.
+ * <p>
+ * Room locks are the same ones the synchronous approval takes, held for every room
+ * of the batch; candidate rows are locked, so a concurrent date change waits for the batch.
+ */
+@Service
+public class BatchApprovalService {
+
+    private final ReservationRepository repository;
+    private final ReservationAvailabilityService availabilityService;
+    private final RoomLocks roomLocks;
+    private final RoomAdvisoryLock advisoryLock;
+    private final TransactionTemplate transactionTemplate;
+    private final Cache reservationsCache;
+    private final MeterRegistry meterRegistry;
+    private final ReservationOutbox outbox;
+    private final ShardRouter shardRouter;
+
+    public BatchApprovalService(
+            ReservationRepository repository,
+            ReservationAvailabilityService availabilityService,
+            RoomLocks roomLocks,
+            RoomAdvisoryLock advisoryLock,
+            PlatformTransactionManager transactionManager,
+            CacheManager cacheManager,
+            MeterRegistry meterRegistry,
+            ReservationOutbox outbox,
+            ShardRouter shardRouter
+    ) {
+        this.repository = repository;
+        this.availabilityService = availabilityService;
+        this.roomLocks = roomLocks;
+        this.advisoryLock = advisoryLock;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.reservationsCache = cacheManager.getCache(ReservationService.RESERVATIONS_CACHE);
+        this.meterRegistry = meterRegistry;
+        this.outbox = outbox;
+        this.shardRouter = shardRouter;
+    }
+
+    BatchApprovalResult approveAll(Collection<Long> ids) {
+        Map<Long, Long> roomById = new HashMap<>();
+        shardRouter.onEachShard(shard -> repository.findAllById(ids))
+                .forEach(rows -> rows.forEach(row -> roomById.put(row.getId(), row.getRoomId())));
+
+        var batchResult = shardRouter.withRoomsFenced(roomById.values(), () -> {
+            // Ids without a row go to the first shard, which reports them as not found.
+            Map<String, List<Long>> idsByShard = new LinkedHashMap<>();
+            for (Long id : ids) {
+                Long roomId = roomById.get(id);
+                String shard = roomId != null ? shardRouter.shardFor(roomId) : shardRouter.shards().getFirst();
+                idsByShard.computeIfAbsent(shard, key -> new ArrayList<>()).add(id);
+            }
+
+            List<ApprovalResult> results = new ArrayList<>(ids.size());
+            List<ReservationInterval> approved = new ArrayList<>();
+            List<Long> retry = new ArrayList<>();
+            idsByShard.forEach((shard, shardIds) -> {
+                Set<Long> roomIds = shardIds.stream()
+                        .map(roomById::get)
+                        .filter(Objects::nonNull)
+                        .collect(Collectors.toCollection(TreeSet::new));
+                var result = shardRouter.onShard(shard, () -> approveOnShard(shardIds, roomIds));
+                results.addAll(result.results());
+                approved.addAll(result.approved());
+                retry.addAll(result.retry());
+            });
+            return new BatchApprovalResult(results, approved, retry);
+        });
+
+        if (reservationsCache != null) {
+            batchResult.approved().forEach(interval -> reservationsCache.evict(interval.id()));
+        }
+        batchResult.results().forEach(result -> meterRegistry.counter(
+                ReservationService.APPROVAL_COUNTER,
+                "outcome", result.outcome().name().toLowerCase(Locale.ROOT)
+        ).increment());
+        return batchResult;
+    }
+
+    private BatchApprovalResult approveOnShard(Collection<Long> ids, Set<Long> roomIds) {
+        return roomLocks.withRoomLocks(roomIds, () -> {
+            var result = transactionTemplate.execute(status -> resolveUnderRoomLocks(ids, roomIds));
+            result.approved().forEach(interval -> availabilityService.registerApproved(
+                    interval.id(),
+                    interval.roomId(),
+                    interval.startDate(),
+                    interval.endDate()
+            ));
+            return result;
+        });
+    }
+
+    private BatchApprovalResult resolveUnderRoomLocks(Collection<Long> ids, Set<Long> roomIds) {
+        advisoryLock.lockRooms(roomIds);
+
+        Map<Long, ReservationEntity> rows = repository.findAllForUpdate(ids).stream()
+                .collect(Collectors.toMap(ReservationEntity::getId, Function.identity()));
+
+        List<ApprovalResult> results = new ArrayList<>(ids.size());
+        List<Long> retry = new ArrayList<>();
+        Map<Long, List<ReservationEntity>> candidatesByRoom = new TreeMap<>();
+        for (Long id : ids) {
+            var row = rows.get(id);
+            if (row == null) {
+                results.add(new ApprovalResult(id, ApprovalOutcome.NOT_FOUND, "Not found reservation with id = " + id));
+            } else if (!roomIds.contains(row.getRoomId())) {
+                retry.add(id);
+            } else if (row.getStatus() != ReservationStatus.PENDING) {
+                results.add(new ApprovalResult(id, ApprovalOutcome.INVALID_STATUS, "Cannot approve reservation with status " + row.getStatus()));
+            } else {
+                candidatesByRoom.computeIfAbsent(row.getRoomId(), roomId -> new ArrayList<>()).add(row);
+            }
+        }
+        if (candidatesByRoom.isEmpty()) {
+            return new BatchApprovalResult(results, List.of(), retry);
+        }
+
+        LocalDate rangeStart = LocalDate.MAX;
+        LocalDate rangeEnd = LocalDate.MIN;
+        for (List<ReservationEntity> candidates : candidatesByRoom.values()) {
+            for (ReservationEntity candidate : candidates) {
+                rangeStart = candidate.getStartDate().isBefore(rangeStart) ? candidate.getStartDate() : rangeStart;
+                rangeEnd = candidate.getEndDate().isAfter(rangeEnd) ? candidate.getEndDate() : rangeEnd;
+            }
+        }
+        Map<Long, List<ReservationInterval>> approvedByRoom = repository.findIntervalsInRange(
+                        candidatesByRoom.keySet(),
+                        rangeStart,
+                        rangeEnd,
+                        ReservationStatus.APPROVED
+                ).stream()
+                .collect(Collectors.groupingBy(ReservationInterval::roomId));
+
+        List<ReservationEntity> accepted = new ArrayList<>();
+        candidatesByRoom.forEach((roomId, candidates) -> resolveRoom(
+                candidates,
+                approvedByRoom.getOrDefault(roomId, List.of()),
+                accepted,
+                results
+        ));
+
+        if (!accepted.isEmpty()) {
+            var acceptedIds = accepted.stream().map(ReservationEntity::getId).toList();
+            int updated = repository.transitionStatusAll(
+                    acceptedIds,
+                    ReservationStatus.PENDING,
+                    ReservationStatus.APPROVED,
+                    ReservationEntity.changeStamp()
+            );
+            if (updated != acceptedIds.size()) {
+                throw new IllegalStateException("Expected to approve " + acceptedIds.size() + " reservations, updated " + updated);
+            }
+            outbox.recordAll(ReservationEventType.APPROVED, accepted, ReservationStatus.APPROVED, ReservationStatus.PENDING);
+        }
+        var approvedIntervals = accepted.stream()
+                .map(reservation -> new ReservationInterval(
+                        reservation.getId(),
+                        reservation.getRoomId(),
+                        reservation.getStartDate(),
+                        reservation.getEndDate()
+                ))
+                .toList();
+        return new BatchApprovalResult(results, approvedIntervals, retry);
+    }
+
+    /**
+     * One pass over the candidates of a room in start order. Approved reservations
+     * never overlap each other, so sorted by start they are sorted by end as well,
+     * and a single cursor finds the first one that could still overlap a candidate.
+     */
+    private static void resolveRoom(
+            List<ReservationEntity> candidates,
+            List<ReservationInterval> approved,
+            List<ReservationEntity> accepted,
+            List<ApprovalResult> results
+    ) {
+        candidates.sort(Comparator.comparing(ReservationEntity::getStartDate)
+                .thenComparing(ReservationEntity::getId));
+
+        int cursor = 0;
+        LocalDate acceptedUntil = LocalDate.MIN;
+        for (ReservationEntity candidate : candidates) {
+            while (cursor < approved.size() && !approved.get(cursor).endDate().isAfter(candidate.getStartDate())) {
+                cursor++;
+            }
+            boolean overlapsApproved = cursor < approved.size()
+                    && approved.get(cursor).startDate().isBefore(candidate.getEndDate());
+            boolean overlapsAccepted = acceptedUntil.isAfter(candidate.getStartDate());
+
+            if (overlapsApproved || overlapsAccepted) {
+                results.add(new ApprovalResult(
+                        candidate.getId(),
+                        ApprovalOutcome.CONFLICT,
+                        "Cannot approve reservation because of conflict"
+                ));
+            } else {
+                accepted.add(candidate);
+                acceptedUntil = candidate.getEndDate();
+                results.add(new ApprovalResult(candidate.getId(), ApprovalOutcome.APPROVED, null));
+            }
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package kg.zhaparov.reservation.reservations.archive;
+
+import jakarta.persistence.*;
+import kg.zhaparov.reservation.reservations.ReservationStatus;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * Read-only copy of a reservation moved out of the primary table by {@link ReservationArchiver}.
+ */
+@Table(name = "reservations_archive", schema = "reservation")
+@Entity
+public class ReservationArchiveEntity {
+    @Id
+    @Column(name = "id")
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "room_id", nullable = false)
+    private Long roomId;
+
+    @Column(name = "start_date", nullable = false)
+    private LocalDate startDate;
+
+    @Column(name = "end_date", nullable = false)
+    private LocalDate endDate;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false)
+    private ReservationStatus status;
+
+    @Column(name = "version", nullable = false)
+    private Long version;
+
+    @Column(name = "archived_at", nullable = false)
+    private Instant archivedAt;
+
+    public ReservationArchiveEntity() {
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public Long getRoomId() {
+        return roomId;
+    }
+
+    public LocalDate getStartDate() {
+        return startDate;
+    }
+
+    public LocalDate getEndDate() {
+        return endDate;
+    }
+
+    public ReservationStatus getStatus() {
+        return status;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public Instant getArchivedAt() {
+        return archivedAt;
+    }
+}
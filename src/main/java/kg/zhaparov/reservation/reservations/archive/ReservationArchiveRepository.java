@@ -0,0 +1,30 @@
+package kg.zhaparov.reservation.reservations.archive;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.Collection;
+
+public interface ReservationArchiveRepository extends
+        JpaRepository<ReservationArchiveEntity, Long>,
+        JpaSpecificationExecutor<ReservationArchiveEntity> {
+
+    /**
+     * Copies the rows server-side in one statement; nothing is loaded into the persistence context.
+     */
+    @Modifying
+    @Query("""
+            insert into ReservationArchiveEntity (id, userId, roomId, startDate, endDate, status, version, archivedAt)
+            select r.id, r.userId, r.roomId, r.startDate, r.endDate, r.status, r.version, :archivedAt
+            from ReservationEntity r
+            where r.id in :ids
+            """)
+    int copyFromPrimary(
+            @Param("ids") Collection<Long> ids,
+            @Param("archivedAt") Instant archivedAt
+    );
+}
@@ -0,0 +1,181 @@
+package kg.zhaparov.reservation.reservations.archive;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import kg.zhaparov.reservation.persistence.ShardRouter;
+import kg.zhaparov.reservation.reservations.ReservationEntity;
+import kg.zhaparov.reservation.reservations.ReservationRepository;
+import kg.zhaparov.reservation.reservations.ReservationService;
+import kg.zhaparov.reservation.reservations.availability.ReservationAvailabilityService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Moves reservations that ended more than {@code retention} ago from the primary table to
+ * {@code reservations_archive}, so the indexes behind searches and conflict checks only
+ * cover current and recent stays. Each batch is copied and deleted in one transaction;
+ * rows are locked with {@code SKIP LOCKED}, so a concurrent transition is never lost and
+ * several nodes can archive in parallel. When a run drains the backlog the worker sleeps
+ * for {@code interval}. With sharding each shard archives into its own archive table.
+ * <p>
+ * Archived reservations are read-only: they no longer take part in conflict checks and
+ * are only visible to searches that ask for archived rows. Every node prunes its own
+ * availability index after a run, including the rows other nodes archived.
+ */
+@Component
+public class ReservationArchiver implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(ReservationArchiver.class);
+
+    private final ReservationRepository repository;
+    private final ReservationArchiveRepository archiveRepository;
+    private final ReservationAvailabilityService availabilityService;
+    private final Cache reservationsCache;
+    private final TransactionTemplate transactionTemplate;
+    private final ShardRouter shardRouter;
+    private final boolean enabled;
+    private final Duration retention;
+    private final int batchSize;
+    private final Duration interval;
+    private final Counter archivedCounter;
+
+    private volatile boolean running;
+    private Thread worker;
+
+    public ReservationArchiver(
+            ReservationRepository repository,
+            ReservationArchiveRepository archiveRepository,
+            ReservationAvailabilityService availabilityService,
+            CacheManager cacheManager,
+            PlatformTransactionManager transactionManager,
+            ShardRouter shardRouter,
+            @Value("${reservation.archive.enabled:true}") boolean enabled,
+            @Value("${reservation.archive.retention:180d}") Duration retention,
+            @Value("${reservation.archive.batch-size:5000}") int batchSize,
+            @Value("${reservation.archive.interval:1h}") Duration interval,
+            MeterRegistry meterRegistry
+    ) {
+        this.repository = repository;
+        this.archiveRepository = archiveRepository;
+        this.availabilityService = availabilityService;
+        this.reservationsCache = cacheManager.getCache(ReservationService.RESERVATIONS_CACHE);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.shardRouter = shardRouter;
+        this.enabled = enabled;
+        this.retention = retention;
+        this.batchSize = batchSize;
+        this.interval = interval;
+        this.archivedCounter = Counter.builder("reservation.archive.archived")
+                .description("Reservations moved to the archive table")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void start() {
+        if (!enabled) {
+            log.info("Reservation archiver disabled");
+            return;
+        }
+        running = true;
+        worker = Thread.ofPlatform()
+                .name("reservation-archiver")
+                .daemon()
+                .start(this::run);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (worker == null) {
+            return;
+        }
+        worker.interrupt();
+        try {
+            worker.join(Duration.ofSeconds(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                long archived = archiveAll(LocalDate.now().minusDays(retention.toDays()));
+                if (archived > 0) {
+                    log.info("Archived {} reservations", archived);
+                }
+                Thread.sleep(interval);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.warn("Reservation archiving failed: {}", e.getMessage());
+                try {
+                    Thread.sleep(interval);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Archives batch after batch until no reservation ending before {@code endedBefore} is left.
+     */
+    public long archiveAll(LocalDate endedBefore) {
+        long archived = 0;
+        for (String shard : shardRouter.shards()) {
+            archived += shardRouter.onShard(shard, () -> {
+                long shardArchived = 0;
+                int batch;
+                do {
+                    batch = archiveBatch(endedBefore);
+                    shardArchived += batch;
+                } while (batch == batchSize);
+                return shardArchived;
+            });
+        }
+        availabilityService.pruneEndedBefore(endedBefore);
+        return archived;
+    }
+
+    int archiveBatch(LocalDate endedBefore) {
+        List<ReservationEntity> moved = transactionTemplate.execute(status -> {
+            var rows = repository.findArchivable(endedBefore, Limit.of(batchSize));
+            if (rows.isEmpty()) {
+                return rows;
+            }
+            var ids = rows.stream()
+                    .map(ReservationEntity::getId)
+                    .toList();
+            archiveRepository.copyFromPrimary(ids, Instant.now());
+            repository.deleteAllByIds(ids);
+            return rows;
+        });
+
+        if (reservationsCache != null) {
+            moved.forEach(row -> reservationsCache.evict(row.getId()));
+        }
+        archivedCounter.increment(moved.size());
+        return moved.size();
+    }
+}
@@ -0,0 +1,224 @@
+package kg.zhaparov.reservation.reservations.availability;
+
+import kg.zhaparov.reservation.reservations.ReservationInterval;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory index of APPROVED date ranges per room.
+ * <p>
+ * Every room keeps an immutable snapshot of its intervals as primitive epoch-day arrays sorted by
+ * start date, together with a running maximum of end dates. A conflict check is a binary search
+ * followed by a single comparison, so reads never lock and never allocate. Writes replace the
+ * snapshot of one room atomically.
+ */
+@Component
+public class ApprovedReservationIndex {
+
+    private final Map<Long, RoomIntervals> rooms = new ConcurrentHashMap<>();
+
+    private volatile boolean ready;
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public void load(Collection<ReservationInterval> intervals) {
+        Map<Long, List<ReservationInterval>> byRoom = new HashMap<>();
+        for (ReservationInterval interval : intervals) {
+            byRoom.computeIfAbsent(interval.roomId(), key -> new ArrayList<>()).add(interval);
+        }
+        rooms.clear();
+        byRoom.forEach((roomId, roomIntervals) -> rooms.put(roomId, RoomIntervals.of(roomIntervals)));
+        ready = true;
+    }
+
+    public void invalidate() {
+        ready = false;
+        rooms.clear();
+    }
+
+    /**
+     * Uses the same half-open semantics as the repository query: {@code start < r.end && r.start < end}.
+     */
+    public boolean hasConflict(Long roomId, LocalDate startDate, LocalDate endDate) {
+        RoomIntervals room = rooms.get(roomId);
+        return room != null && room.overlaps(startDate.toEpochDay(), endDate.toEpochDay());
+    }
+
+    public List<ReservationInterval> findIntervals(Long roomId) {
+        RoomIntervals room = rooms.get(roomId);
+        return room == null ? List.of() : room.toIntervals(roomId);
+    }
+
+    public void add(Long id, Long roomId, LocalDate startDate, LocalDate endDate) {
+        rooms.compute(roomId, (key, room) -> room == null
+                ? RoomIntervals.of(List.of(new ReservationInterval(id, roomId, startDate, endDate)))
+                : room.with(id, startDate, endDate));
+    }
+
+    public void remove(Long id, Long roomId) {
+        rooms.computeIfPresent(roomId, (key, room) -> room.without(id));
+    }
+
+    public void removeEndedBefore(LocalDate endedBefore) {
+        long day = endedBefore.toEpochDay();
+        for (Long roomId : rooms.keySet()) {
+            rooms.computeIfPresent(roomId, (key, room) -> room.withoutEndedBefore(day));
+        }
+    }
+
+    private record RoomIntervals(
+            long[] ids,
+            long[] starts,
+            long[] ends,
+            long[] maxEnds
+    ) {
+
+        static RoomIntervals of(List<ReservationInterval> intervals) {
+            List<ReservationInterval> sorted = new ArrayList<>(intervals);
+            sorted.sort(Comparator.comparing(ReservationInterval::startDate));
+
+            int size = sorted.size();
+            long[] ids = new long[size];
+            long[] starts = new long[size];
+            long[] ends = new long[size];
+            for (int i = 0; i < size; i++) {
+                ReservationInterval interval = sorted.get(i);
+                ids[i] = interval.id();
+                starts[i] = interval.startDate().toEpochDay();
+                ends[i] = interval.endDate().toEpochDay();
+            }
+            return new RoomIntervals(ids, starts, ends, runningMax(ends, size));
+        }
+
+        boolean overlaps(long start, long end) {
+            int candidates = firstStartNotBefore(end);
+            return candidates > 0 && maxEnds[candidates - 1] > start;
+        }
+
+        RoomIntervals with(long id, LocalDate startDate, LocalDate endDate) {
+            RoomIntervals base = without(id);
+            if (base == null) {
+                return of(List.of(new ReservationInterval(id, null, startDate, endDate)));
+            }
+            long start = startDate.toEpochDay();
+            int position = base.firstStartNotBefore(start);
+            int size = base.ids.length + 1;
+
+            long[] newIds = insert(base.ids, position, id);
+            long[] newStarts = insert(base.starts, position, start);
+            long[] newEnds = insert(base.ends, position, endDate.toEpochDay());
+            return new RoomIntervals(newIds, newStarts, newEnds, runningMax(newEnds, size));
+        }
+
+        RoomIntervals without(long id) {
+            int position = -1;
+            for (int i = 0; i < ids.length; i++) {
+                if (ids[i] == id) {
+                    position = i;
+                    break;
+                }
+            }
+            if (position < 0) {
+                return this;
+            }
+            if (ids.length == 1) {
+                return null;
+            }
+            long[] newEnds = delete(ends, position);
+            return new RoomIntervals(
+                    delete(ids, position),
+                    delete(starts, position),
+                    newEnds,
+                    runningMax(newEnds, newEnds.length)
+            );
+        }
+
+        RoomIntervals withoutEndedBefore(long day) {
+            int kept = 0;
+            for (long end : ends) {
+                if (end >= day) {
+                    kept++;
+                }
+            }
+            if (kept == ids.length) {
+                return this;
+            }
+            if (kept == 0) {
+                return null;
+            }
+            long[] newIds = new long[kept];
+            long[] newStarts = new long[kept];
+            long[] newEnds = new long[kept];
+            for (int i = 0, j = 0; i < ids.length; i++) {
+                if (ends[i] >= day) {
+                    newIds[j] = ids[i];
+                    newStarts[j] = starts[i];
+                    newEnds[j++] = ends[i];
+                }
+            }
+            return new RoomIntervals(newIds, newStarts, newEnds, runningMax(newEnds, kept));
+        }
+
+        List<ReservationInterval> toIntervals(Long roomId) {
+            ReservationInterval[] result = new ReservationInterval[ids.length];
+            for (int i = 0; i < ids.length; i++) {
+                result[i] = new ReservationInterval(
+                        ids[i],
+                        roomId,
+                        LocalDate.ofEpochDay(starts[i]),
+                        LocalDate.ofEpochDay(ends[i])
+                );
+            }
+            return List.of(result);
+        }
+
+        private int firstStartNotBefore(long day) {
+            int low = 0;
+            int high = starts.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (starts[mid] < day) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        private static long[] insert(long[] source, int position, long value) {
+            long[] target = new long[source.length + 1];
+            System.arraycopy(source, 0, target, 0, position);
+            target[position] = value;
+            System.arraycopy(source, position, target, position + 1, source.length - position);
+            return target;
+        }
+
+        private static long[] delete(long[] source, int position) {
+            long[] target = Arrays.copyOf(source, source.length - 1);
+            System.arraycopy(source, position + 1, target, position, source.length - position - 1);
+            return target;
+        }
+
+        private static long[] runningMax(long[] ends, int size) {
+            long[] maxEnds = new long[size];
+            long max = Long.MIN_VALUE;
+            for (int i = 0; i < size; i++) {
+                max = Math.max(max, ends[i]);
+                maxEnds[i] = max;
+            }
+            return maxEnds;
+        }
+    }
+}
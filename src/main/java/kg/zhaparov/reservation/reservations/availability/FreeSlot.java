@@ -0,0 +1,10 @@
+package kg.zhaparov.reservation.reservations.availability;
+
+import java.time.LocalDate;
+
+public record FreeSlot(
+        LocalDate startDate,
+        LocalDate endDate,
+        long nights
+) {
+}
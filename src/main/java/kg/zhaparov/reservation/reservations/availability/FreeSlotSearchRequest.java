@@ -0,0 +1,20 @@
+package kg.zhaparov.reservation.reservations.availability;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public record FreeSlotSearchRequest(
+        @NotEmpty
+        List<Long> roomIds,
+        @NotNull
+        LocalDate startDate,
+        @NotNull
+        LocalDate endDate,
+        @Positive
+        Integer minNights
+) {
+}
@@ -5,10 +5,14 @@ import kg.zhaparov.reservation.reservations.ReservationService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("/reservation/availability")
 public class ReservationAvailabilityController {
@@ -30,6 +34,31 @@ public class ReservationAvailabilityController {
                 request.roomId(), request.startDate(), request.endDate()
         );
 
+        return ResponseEntity.status(200)
+                .body(toResponse(isAvailable));
+    }
+
+    @PostMapping("/check/batch")
+    public ResponseEntity<List<CheckAvailabilityResponse>> checkAvailabilityBatch(
+            @RequestBody @Valid List<CheckAvailabilityRequest> requests
+    ) {
+        log.info("Called checkAvailabilityBatch method: size={}", requests.size());
+        var responses = service.areReservationsAvailable(requests).stream()
+                .map(this::toResponse)
+                .toList();
+
+        return ResponseEntity.ok(responses);
+    }
+
+    @GetMapping("/free-slots")
+    public ResponseEntity<List<RoomFreeSlotsResponse>> findFreeSlots(
+            @Valid FreeSlotSearchRequest request
+    ) {
+        log.info("Called findFreeSlots method: request {}", request);
+        return ResponseEntity.ok(service.findFreeSlots(request));
+    }
+
+    private CheckAvailabilityResponse toResponse(boolean isAvailable) {
         var message = isAvailable
                 ? "Room available for reservation"
                 : "Room not available for reservation";
@@ -37,7 +66,6 @@ public class ReservationAvailabilityController {
                 ? AvailabilityStatus.AVAILABLE
                 : AvailabilityStatus.RESERVED;
 
-        return ResponseEntity.status(200)
-                .body(new CheckAvailabilityResponse(message, status));
+        return new CheckAvailabilityResponse(message, status);
     }
 }
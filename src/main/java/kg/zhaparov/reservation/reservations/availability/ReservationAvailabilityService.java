@@ -1,47 +1,367 @@
 package kg.zhaparov.reservation.reservations.availability;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import kg.zhaparov.reservation.persistence.ShardRouter;
+import kg.zhaparov.reservation.reservations.InvalidReservationRequestException;
+import kg.zhaparov.reservation.reservations.ReservationInterval;
 import kg.zhaparov.reservation.reservations.ReservationRepository;
-import kg.zhaparov.reservation.reservations.ReservationService;
 import kg.zhaparov.reservation.reservations.ReservationStatus;
+import kg.zhaparov.reservation.reservations.outbox.ReservationEvent;
+import kg.zhaparov.reservation.reservations.outbox.ReservationEventFeed;
+import kg.zhaparov.reservation.reservations.outbox.ReservationEventListener;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
+/**
+ * Conflict checks and free-slot searches. With the index enabled, approvals of this node are
+ * registered as they commit and approvals of every other node arrive through the
+ * {@link ReservationEventFeed}, so the index follows the database on all nodes.
+ */
 @Service
-public class ReservationAvailabilityService {
+public class ReservationAvailabilityService implements SmartInitializingSingleton, ReservationEventListener {
 
-    private static final Logger log = LoggerFactory.getLogger(ReservationService.class);
+    private static final Logger log = LoggerFactory.getLogger(ReservationAvailabilityService.class);
 
-    private final ReservationRepository repository;
+    private static final int MAX_BATCH_SIZE = 1000;
+    private static final int MAX_HORIZON_DAYS = 730;
+    private static final String CHECK_COUNTER = "reservation.availability.checks";
 
+    private final ReservationRepository repository;
+    private final ApprovedReservationIndex index;
+    private final boolean indexEnabled;
+    private final MeterRegistry meterRegistry;
+    private final Timer conflictQueryTimer;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ShardRouter shardRouter;
+    private final ReservationEventFeed feed;
 
-    public ReservationAvailabilityService(ReservationRepository repository) {
+    public ReservationAvailabilityService(
+            ReservationRepository repository,
+            ApprovedReservationIndex index,
+            @Value("${reservation.availability.index.enabled:true}") boolean indexEnabled,
+            MeterRegistry meterRegistry,
+            PlatformTransactionManager transactionManager,
+            ShardRouter shardRouter,
+            ReservationEventFeed feed
+    ) {
         this.repository = repository;
+        this.index = index;
+        this.indexEnabled = indexEnabled;
+        this.meterRegistry = meterRegistry;
+        this.conflictQueryTimer = Timer.builder("reservation.conflict.query")
+                .description("Latency of findConflictReservationIds")
+                .register(meterRegistry);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.shardRouter = shardRouter;
+        this.feed = feed;
     }
 
+    /**
+     * Loads the index before the web server starts accepting requests. The feed is anchored
+     * before the snapshot is read, so every approval committed after the snapshot arrives as
+     * an event; one that is in both is simply added again.
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (!indexEnabled) {
+            log.info("Availability index disabled, conflict checks go to the database");
+            return;
+        }
+        try {
+            feed.anchor();
+            List<ReservationInterval> intervals = new ArrayList<>();
+            shardRouter.onEachShard(shard -> repository.findIntervalsByStatus(ReservationStatus.APPROVED))
+                    .forEach(intervals::addAll);
+            index.load(intervals);
+            log.info("Availability index loaded: {} approved reservations", intervals.size());
+        } catch (RuntimeException e) {
+            index.invalidate();
+            log.warn("Could not load availability index, falling back to the database", e);
+        }
+    }
+
+    /**
+     * Advisory check. Without the index it reads in a read-only transaction on the shard of
+     * the room, which may be served by a read replica; called from inside a read-write
+     * transaction it joins that transaction and reads the primary.
+     */
     public boolean isReservationAvailable(
             Long roomId,
             LocalDate startDate,
             LocalDate endDate
     ) {
         if (!endDate.isAfter(startDate)) {
-            throw new IllegalArgumentException("Start date should be before end date");
+            throw new InvalidReservationRequestException("Start date should be before end date");
         }
 
-        List<Long> conflictingIds = repository.findConflictReservationIds(
+        if (index.isReady()) {
+            boolean available = !index.hasConflict(roomId, startDate, endDate);
+            countCheck("index", available);
+            return available;
+        }
+        return shardRouter.onShardOf(roomId, () -> readOnlyTransaction.execute(
+                status -> hasNoConflictsInDatabase(roomId, startDate, endDate)
+        ));
+    }
+
+    /**
+     * Approval-time check. Always reads the database so that approvals made by
+     * other nodes are seen; callers are expected to hold the room lock.
+     */
+    public boolean isAvailableForApproval(
+            Long roomId,
+            LocalDate startDate,
+            LocalDate endDate
+    ) {
+        if (!endDate.isAfter(startDate)) {
+            throw new InvalidReservationRequestException("Start date should be before end date");
+        }
+        return hasNoConflictsInDatabase(roomId, startDate, endDate);
+    }
+
+    private boolean hasNoConflictsInDatabase(
+            Long roomId,
+            LocalDate startDate,
+            LocalDate endDate
+    ) {
+        List<Long> conflictingIds = conflictQueryTimer.record(() -> repository.findConflictReservationIds(
                 roomId,
                 startDate,
                 endDate,
                 ReservationStatus.APPROVED
-        );
+        ));
 
         if (conflictingIds.isEmpty()) {
+            countCheck("database", true);
             return true;
         }
+        countCheck("database", false);
         log.info("Conflict with ids = {}", conflictingIds);
         return false;
     }
+
+    private void countCheck(String source, boolean available) {
+        meterRegistry.counter(
+                CHECK_COUNTER,
+                "source", source,
+                "result", available ? "available" : "conflict"
+        ).increment();
+    }
+
+    /**
+     * Resolves the whole batch against the index, or with a single range query
+     * over all requested rooms when the index is not available.
+     * Results are returned in request order.
+     */
+    public List<Boolean> areReservationsAvailable(
+            List<CheckAvailabilityRequest> requests
+    ) {
+        if (requests.size() > MAX_BATCH_SIZE) {
+            throw new InvalidReservationRequestException("Batch size should not exceed " + MAX_BATCH_SIZE);
+        }
+        for (CheckAvailabilityRequest request : requests) {
+            if (request.roomId() == null || request.startDate() == null || request.endDate() == null) {
+                throw new InvalidReservationRequestException("Room id, start date and end date are required");
+            }
+            if (!request.endDate().isAfter(request.startDate())) {
+                throw new InvalidReservationRequestException("Start date should be before end date");
+            }
+        }
+        if (requests.isEmpty()) {
+            return List.of();
+        }
+
+        ApprovedReservationIndex source = index.isReady() ? index : loadBatchIndex(requests);
+
+        List<Boolean> result = new ArrayList<>(requests.size());
+        for (CheckAvailabilityRequest request : requests) {
+            result.add(!source.hasConflict(request.roomId(), request.startDate(), request.endDate()));
+        }
+        return result;
+    }
+
+    private ApprovedReservationIndex loadBatchIndex(
+            List<CheckAvailabilityRequest> requests
+    ) {
+        Set<Long> roomIds = new HashSet<>();
+        LocalDate minStartDate = LocalDate.MAX;
+        LocalDate maxEndDate = LocalDate.MIN;
+        for (CheckAvailabilityRequest request : requests) {
+            roomIds.add(request.roomId());
+            if (request.startDate().isBefore(minStartDate)) {
+                minStartDate = request.startDate();
+            }
+            if (request.endDate().isAfter(maxEndDate)) {
+                maxEndDate = request.endDate();
+            }
+        }
+
+        var batchIndex = new ApprovedReservationIndex();
+        batchIndex.load(findIntervalsInRange(roomIds, minStartDate, maxEndDate));
+        return batchIndex;
+    }
+
+    /**
+     * Computes free windows of every requested room with one sweep over its APPROVED
+     * reservations sorted by start date, instead of probing the horizon day by day.
+     */
+    public List<RoomFreeSlotsResponse> findFreeSlots(
+            FreeSlotSearchRequest request
+    ) {
+        LocalDate startDate = request.startDate();
+        LocalDate endDate = request.endDate();
+        int minNights = request.minNights() != null ? request.minNights() : 1;
+
+        if (!endDate.isAfter(startDate)) {
+            throw new InvalidReservationRequestException("Start date should be before end date");
+        }
+        if (ChronoUnit.DAYS.between(startDate, endDate) > MAX_HORIZON_DAYS) {
+            throw new InvalidReservationRequestException("Search horizon should not exceed " + MAX_HORIZON_DAYS + " days");
+        }
+        List<Long> roomIds = request.roomIds().stream().distinct().toList();
+        if (roomIds.size() > MAX_BATCH_SIZE) {
+            throw new InvalidReservationRequestException("Number of rooms should not exceed " + MAX_BATCH_SIZE);
+        }
+
+        Map<Long, List<ReservationInterval>> intervalsByRoom = new HashMap<>();
+        if (index.isReady()) {
+            for (Long roomId : roomIds) {
+                intervalsByRoom.put(roomId, index.findIntervals(roomId));
+            }
+        } else {
+            for (ReservationInterval interval : findIntervalsInRange(roomIds, startDate, endDate)) {
+                intervalsByRoom.computeIfAbsent(interval.roomId(), key -> new ArrayList<>()).add(interval);
+            }
+        }
+
+        return roomIds.stream()
+                .map(roomId -> new RoomFreeSlotsResponse(
+                        roomId,
+                        sweepFreeSlots(
+                                intervalsByRoom.getOrDefault(roomId, List.of()),
+                                startDate,
+                                endDate,
+                                minNights
+                        )
+                ))
+                .toList();
+    }
+
+    /**
+     * One range query per shard, each over the rooms it owns. Rooms live on a single shard,
+     * so the intervals of a room keep the start order of its query.
+     */
+    private List<ReservationInterval> findIntervalsInRange(
+            Collection<Long> roomIds,
+            LocalDate startDate,
+            LocalDate endDate
+    ) {
+        Map<String, List<Long>> roomsByShard = new HashMap<>();
+        for (Long roomId : roomIds) {
+            roomsByShard.computeIfAbsent(shardRouter.shardFor(roomId), shard -> new ArrayList<>()).add(roomId);
+        }
+
+        List<ReservationInterval> intervals = new ArrayList<>();
+        shardRouter.onEachShard(shard -> {
+            var rooms = roomsByShard.get(shard);
+            return rooms == null
+                    ? List.<ReservationInterval>of()
+                    : repository.findIntervalsInRange(rooms, startDate, endDate, ReservationStatus.APPROVED);
+        }).forEach(intervals::addAll);
+        return intervals;
+    }
+
+    private static List<FreeSlot> sweepFreeSlots(
+            List<ReservationInterval> sortedIntervals,
+            LocalDate startDate,
+            LocalDate endDate,
+            int minNights
+    ) {
+        List<FreeSlot> freeSlots = new ArrayList<>();
+        LocalDate cursor = startDate;
+        for (ReservationInterval interval : sortedIntervals) {
+            if (!interval.startDate().isBefore(endDate)) {
+                break;
+            }
+            if (!interval.endDate().isAfter(cursor)) {
+                continue;
+            }
+            if (interval.startDate().isAfter(cursor)) {
+                addFreeSlot(freeSlots, cursor, interval.startDate(), minNights);
+            }
+            cursor = interval.endDate();
+        }
+        if (cursor.isBefore(endDate)) {
+            addFreeSlot(freeSlots, cursor, endDate, minNights);
+        }
+        return freeSlots;
+    }
+
+    private static void addFreeSlot(
+            List<FreeSlot> freeSlots,
+            LocalDate startDate,
+            LocalDate endDate,
+            int minNights
+    ) {
+        long nights = ChronoUnit.DAYS.between(startDate, endDate);
+        if (nights >= minNights) {
+            freeSlots.add(new FreeSlot(startDate, endDate, nights));
+        }
+    }
+
+    public void registerApproved(
+            Long id,
+            Long roomId,
+            LocalDate startDate,
+            LocalDate endDate
+    ) {
+        if (index.isReady()) {
+            index.add(id, roomId, startDate, endDate);
+        }
+    }
+
+    @Override
+    public void onEvents(List<ReservationEvent> events) {
+        if (!index.isReady()) {
+            return;
+        }
+        for (ReservationEvent event : events) {
+            if (event.roomId() == null) {
+                continue;
+            }
+            if (event.status() == ReservationStatus.APPROVED) {
+                index.add(event.reservationId(), event.roomId(), event.startDate(), event.endDate());
+            } else if (event.status() == ReservationStatus.CANCELLED) {
+                // Only the undo of a failed cross-shard write cancels an approved reservation
+                index.remove(event.reservationId(), event.roomId());
+            }
+        }
+    }
+
+    /**
+     * Drops approvals that ended before {@code endedBefore}; every node calls it after
+     * archiving, whichever node archived the rows.
+     */
+    public void pruneEndedBefore(LocalDate endedBefore) {
+        if (index.isReady()) {
+            index.removeEndedBefore(endedBefore);
+        }
+    }
 }
@@ -0,0 +1,9 @@
+package kg.zhaparov.reservation.reservations.availability;
+
+import java.util.List;
+
+public record RoomFreeSlotsResponse(
+        Long roomId,
+        List<FreeSlot> freeSlots
+) {
+}
@@ -0,0 +1,11 @@
+package kg.zhaparov.reservation.reservations.bulk;
+
+import java.util.List;
+
+public record BulkCreateResponse(
+        int created,
+        List<Long> ids,
+        long elapsedMillis,
+        double rowsPerSecond
+) {
+}
@@ -0,0 +1,65 @@
+package kg.zhaparov.reservation.reservations.bulk;
+
+import kg.zhaparov.reservation.reservations.Reservation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+@RestController
+@RequestMapping("/reservation")
+public class ReservationBulkController {
+
+    private static final Logger log = LoggerFactory.getLogger(ReservationBulkController.class);
+
+    private final ReservationBulkService service;
+
+    public ReservationBulkController(ReservationBulkService service) {
+        this.service = service;
+    }
+
+    @PostMapping("/bulk")
+    public ResponseEntity<BulkCreateResponse> createReservations(
+            @RequestBody List<Reservation> reservationsToCreate
+    ) {
+        log.info("Called createReservations: size={}", reservationsToCreate.size());
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .body(service.createReservations(reservationsToCreate));
+    }
+
+    @PostMapping(value = "/import", consumes = "text/csv")
+    public ResponseEntity<ReservationImportResponse> importCsv(
+            InputStream body
+    ) throws IOException {
+        log.info("Called importCsv");
+        return importReservations(body, ReservationImportFormat.CSV);
+    }
+
+    @PostMapping(value = "/import", consumes = "application/x-ndjson")
+    public ResponseEntity<ReservationImportResponse> importJsonLines(
+            InputStream body
+    ) throws IOException {
+        log.info("Called importJsonLines");
+        return importReservations(body, ReservationImportFormat.JSON_LINES);
+    }
+
+    private ResponseEntity<ReservationImportResponse> importReservations(
+            InputStream body,
+            ReservationImportFormat format
+    ) throws IOException {
+        try (var reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            return ResponseEntity.ok(service.importReservations(reader, format));
+        }
+    }
+}
@@ -0,0 +1,277 @@
+package kg.zhaparov.reservation.reservations.bulk;
+
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import kg.zhaparov.reservation.persistence.ShardRouter;
+import kg.zhaparov.reservation.reservations.InvalidReservationRequestException;
+import kg.zhaparov.reservation.reservations.Reservation;
+import kg.zhaparov.reservation.reservations.ReservationEntity;
+import kg.zhaparov.reservation.reservations.ReservationRepository;
+import kg.zhaparov.reservation.reservations.ReservationService;
+import kg.zhaparov.reservation.reservations.ReservationStatus;
+import kg.zhaparov.reservation.reservations.outbox.ReservationEventType;
+import kg.zhaparov.reservation.reservations.outbox.ReservationOutbox;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Creates reservations in large JDBC batches. Every row goes through the same checks
+ * as {@link ReservationService#createReservation}; ids come from a pooled sequence,
+ * so Hibernate can group the inserts. With sharding the rows are split by the shard of
+ * their room and every shard is written in transactions of its own.
+ */
+@Service
+public class ReservationBulkService {
+
+    private static final Logger log = LoggerFactory.getLogger(ReservationBulkService.class);
+
+    private static final int MAX_BULK_SIZE = 10_000;
+    private static final int MAX_REPORTED_ERRORS = 100;
+
+    private final ReservationRepository repository;
+    private final ReservationService reservationService;
+    private final Validator validator;
+    private final JsonMapper jsonMapper;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final ReservationOutbox outbox;
+    private final ShardRouter shardRouter;
+    private final int chunkSize;
+
+    public ReservationBulkService(
+            ReservationRepository repository,
+            ReservationService reservationService,
+            Validator validator,
+            JsonMapper jsonMapper,
+            EntityManager entityManager,
+            PlatformTransactionManager transactionManager,
+            ReservationOutbox outbox,
+            ShardRouter shardRouter,
+            @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:500}") int chunkSize
+    ) {
+        this.repository = repository;
+        this.reservationService = reservationService;
+        this.validator = validator;
+        this.jsonMapper = jsonMapper;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.outbox = outbox;
+        this.shardRouter = shardRouter;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * All-or-nothing: either every reservation is valid and created, or none is. Across
+     * shards the per-shard transactions commit together, see {@link ShardRouter#inTransactionOnShards};
+     * a part that committed while another failed to is cancelled.
+     */
+    public BulkCreateResponse createReservations(List<Reservation> reservationsToCreate) {
+        if (reservationsToCreate.size() > MAX_BULK_SIZE) {
+            throw new InvalidReservationRequestException("Bulk size should not exceed " + MAX_BULK_SIZE);
+        }
+        long startedAt = System.nanoTime();
+
+        List<ReservationEntity> entitiesToSave = new ArrayList<>(reservationsToCreate.size());
+        for (int i = 0; i < reservationsToCreate.size(); i++) {
+            try {
+                entitiesToSave.add(prepare(reservationsToCreate.get(i)));
+            } catch (InvalidReservationRequestException e) {
+                throw new InvalidReservationRequestException("Reservation #" + i + ": " + e.getMessage());
+            }
+        }
+
+        List<Long> ids = shardRouter.withRoomsFenced(roomIds(entitiesToSave), () -> {
+            Map<String, Supplier<List<Long>>> work = new LinkedHashMap<>();
+            byShard(entitiesToSave).forEach((shard, shardEntities) -> work.put(shard, () -> {
+                List<Long> savedIds = new ArrayList<>(shardEntities.size());
+                for (int from = 0; from < shardEntities.size(); from += chunkSize) {
+                    var chunk = shardEntities.subList(from, Math.min(from + chunkSize, shardEntities.size()));
+                    savedIds.addAll(saveChunk(chunk));
+                }
+                return savedIds;
+            }));
+            List<Long> savedIds = new ArrayList<>(entitiesToSave.size());
+            shardRouter.inTransactionOnShards(
+                    work,
+                    committed -> reservationService.cancelAllIfStatus(committed, ReservationStatus.PENDING),
+                    transactionTemplate
+            ).forEach(savedIds::addAll);
+            return savedIds;
+        });
+
+        long elapsedNanos = System.nanoTime() - startedAt;
+        log.info("Bulk created {} reservations in {} ms", ids.size(), elapsedNanos / 1_000_000);
+        return new BulkCreateResponse(
+                ids.size(),
+                ids,
+                elapsedNanos / 1_000_000,
+                rowsPerSecond(ids.size(), elapsedNanos)
+        );
+    }
+
+    /**
+     * Streams the input line by line. Valid rows are written chunk by chunk, each chunk
+     * in its own transaction; invalid rows are skipped and reported.
+     */
+    public ReservationImportResponse importReservations(
+            BufferedReader reader,
+            ReservationImportFormat format
+    ) {
+        long startedAt = System.nanoTime();
+        long imported = 0;
+        long rejected = 0;
+        List<String> errors = new ArrayList<>();
+        List<ReservationEntity> chunk = new ArrayList<>(chunkSize);
+
+        try {
+            String line;
+            long lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank() || isCsvHeader(format, lineNumber, line)) {
+                    continue;
+                }
+                try {
+                    chunk.add(prepare(parse(line, format)));
+                } catch (InvalidReservationRequestException e) {
+                    rejected++;
+                    if (errors.size() < MAX_REPORTED_ERRORS) {
+                        errors.add("Line " + lineNumber + ": " + e.getMessage());
+                    }
+                    continue;
+                }
+                if (chunk.size() == chunkSize) {
+                    imported += saveChunkInTransaction(chunk);
+                    chunk.clear();
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read import stream", e);
+        }
+        if (!chunk.isEmpty()) {
+            imported += saveChunkInTransaction(chunk);
+        }
+
+        long elapsedNanos = System.nanoTime() - startedAt;
+        log.info("Imported {} reservations, rejected {}, in {} ms", imported, rejected, elapsedNanos / 1_000_000);
+        return new ReservationImportResponse(
+                imported,
+                rejected,
+                errors,
+                elapsedNanos / 1_000_000,
+                rowsPerSecond(imported, elapsedNanos)
+        );
+    }
+
+    private ReservationEntity prepare(Reservation reservation) {
+        Set<ConstraintViolation<Reservation>> violations = validator.validate(reservation);
+        if (!violations.isEmpty()) {
+            throw new InvalidReservationRequestException(violations.stream()
+                    .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining(", ")));
+        }
+        return reservationService.prepareNewReservation(reservation);
+    }
+
+    private int saveChunkInTransaction(List<ReservationEntity> chunk) {
+        return shardRouter.withRoomsFenced(roomIds(chunk), () -> {
+            int saved = 0;
+            for (Map.Entry<String, List<ReservationEntity>> shardChunk : byShard(chunk).entrySet()) {
+                saved += shardRouter.onShard(shardChunk.getKey(), () -> transactionTemplate.execute(
+                        status -> saveChunk(shardChunk.getValue())
+                )).size();
+            }
+            return saved;
+        });
+    }
+
+    private Map<String, List<ReservationEntity>> byShard(List<ReservationEntity> entities) {
+        Map<String, List<ReservationEntity>> byShard = new LinkedHashMap<>();
+        for (ReservationEntity entity : entities) {
+            byShard.computeIfAbsent(shardRouter.shardFor(entity.getRoomId()), shard -> new ArrayList<>()).add(entity);
+        }
+        return byShard;
+    }
+
+    private static Set<Long> roomIds(List<ReservationEntity> entities) {
+        return entities.stream()
+                .map(ReservationEntity::getRoomId)
+                .collect(Collectors.toSet());
+    }
+
+    private List<Long> saveChunk(List<ReservationEntity> chunk) {
+        var savedEntities = repository.saveAll(chunk);
+        outbox.recordAll(ReservationEventType.CREATED, savedEntities, ReservationStatus.PENDING, null);
+        List<Long> ids = savedEntities.stream()
+                .map(ReservationEntity::getId)
+                .toList();
+        entityManager.flush();
+        entityManager.clear();
+        return ids;
+    }
+
+    private Reservation parse(String line, ReservationImportFormat format) {
+        return switch (format) {
+            case CSV -> parseCsv(line);
+            case JSON_LINES -> parseJson(line);
+        };
+    }
+
+    private static Reservation parseCsv(String line) {
+        String[] columns = line.split(",", -1);
+        if (columns.length != 4) {
+            throw new InvalidReservationRequestException("Expected columns userId,roomId,startDate,endDate");
+        }
+        try {
+            return new Reservation(
+                    null,
+                    Long.valueOf(columns[0].trim()),
+                    Long.valueOf(columns[1].trim()),
+                    LocalDate.parse(columns[2].trim()),
+                    LocalDate.parse(columns[3].trim()),
+                    null
+            );
+        } catch (NumberFormatException | DateTimeParseException e) {
+            throw new InvalidReservationRequestException("Malformed row: " + e.getMessage());
+        }
+    }
+
+    private Reservation parseJson(String line) {
+        try {
+            return jsonMapper.readValue(line, Reservation.class);
+        } catch (JacksonException e) {
+            throw new InvalidReservationRequestException("Malformed row: " + e.getOriginalMessage());
+        }
+    }
+
+    private static boolean isCsvHeader(ReservationImportFormat format, long lineNumber, String line) {
+        return format == ReservationImportFormat.CSV
+                && lineNumber == 1
+                && line.trim().startsWith("userId");
+    }
+
+    private static double rowsPerSecond(long rows, long elapsedNanos) {
+        return elapsedNanos == 0 ? rows : rows * 1_000_000_000.0 / elapsedNanos;
+    }
+}
@@ -0,0 +1,6 @@
+package kg.zhaparov.reservation.reservations.bulk;
+
+public enum ReservationImportFormat {
+    CSV,
+    JSON_LINES
+}
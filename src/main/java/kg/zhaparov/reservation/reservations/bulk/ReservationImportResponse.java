@@ -0,0 +1,12 @@
+package kg.zhaparov.reservation.reservations.bulk;
+
+import java.util.List;
+
+public record ReservationImportResponse(
+        long imported,
+        long rejected,
+        List<String> errors,
+        long elapsedMillis,
+        double rowsPerSecond
+) {
+}
@@ -0,0 +1,33 @@
+package kg.zhaparov.reservation.reservations.group;
+
+import jakarta.validation.Valid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/reservation")
+public class GroupReservationController {
+
+    private static final Logger log = LoggerFactory.getLogger(GroupReservationController.class);
+
+    private final GroupReservationService service;
+
+    public GroupReservationController(GroupReservationService service) {
+        this.service = service;
+    }
+
+    @PostMapping("/group")
+    public ResponseEntity<GroupReservationResponse> reserveGroup(
+            @RequestBody @Valid GroupReservationRequest request
+    ) {
+        log.info("Called reserveGroup: userId={}, size={}", request.userId(), request.items().size());
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .body(service.reserveGroup(request));
+    }
+}
@@ -0,0 +1,18 @@
+package kg.zhaparov.reservation.reservations.group;
+
+import jakarta.validation.constraints.FutureOrPresent;
+import jakarta.validation.constraints.NotNull;
+
+import java.time.LocalDate;
+
+public record GroupReservationItem(
+        @NotNull
+        Long roomId,
+        @FutureOrPresent
+        @NotNull
+        LocalDate startDate,
+        @FutureOrPresent
+        @NotNull
+        LocalDate endDate
+) {
+}
@@ -0,0 +1,15 @@
+package kg.zhaparov.reservation.reservations.group;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+
+import java.util.List;
+
+public record GroupReservationRequest(
+        @NotNull
+        Long userId,
+        @NotEmpty
+        List<@Valid @NotNull GroupReservationItem> items
+) {
+}
@@ -0,0 +1,11 @@
+package kg.zhaparov.reservation.reservations.group;
+
+import kg.zhaparov.reservation.reservations.Reservation;
+
+import java.util.List;
+
+public record GroupReservationResponse(
+        int size,
+        List<Reservation> reservations
+) {
+}
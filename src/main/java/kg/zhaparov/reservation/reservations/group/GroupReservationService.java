@@ -0,0 +1,224 @@
+package kg.zhaparov.reservation.reservations.group;
+
+import io.micrometer.core.annotation.Timed;
+import kg.zhaparov.reservation.persistence.ShardRouter;
+import kg.zhaparov.reservation.reservations.InvalidReservationRequestException;
+import kg.zhaparov.reservation.reservations.Reservation;
+import kg.zhaparov.reservation.reservations.ReservationConflictException;
+import kg.zhaparov.reservation.reservations.ReservationEntity;
+import kg.zhaparov.reservation.reservations.ReservationInterval;
+import kg.zhaparov.reservation.reservations.ReservationMapper;
+import kg.zhaparov.reservation.reservations.ReservationRepository;
+import kg.zhaparov.reservation.reservations.ReservationService;
+import kg.zhaparov.reservation.reservations.ReservationStatus;
+import kg.zhaparov.reservation.reservations.availability.ReservationAvailabilityService;
+import kg.zhaparov.reservation.reservations.locking.RoomAdvisoryLock;
+import kg.zhaparov.reservation.reservations.locking.RoomLocks;
+import kg.zhaparov.reservation.reservations.outbox.ReservationEventType;
+import kg.zhaparov.reservation.reservations.outbox.ReservationOutbox;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Books several rooms, each for its own dates, as one unit: either every item is
+ * created as an APPROVED reservation or none is.
+ * <p>
+ * The locks of all rooms are taken in a fixed order (stripes by index, advisory locks
+ * by room id), so two overlapping groups cannot deadlock. Conflicts are found with one
+ * range query over all rooms and a sweep per room; the rows are written in JDBC batches.
+ * <p>
+ * A group spanning several shards runs one transaction per shard; they commit together
+ * only if every shard found its rooms free (see {@link ShardRouter#inTransactionOnShards}).
+ * Should a commit still fail, the parts that did commit are cancelled, so the group is
+ * rejected as a whole and the availability index drops them through the event feed.
+ */
+@Service
+public class GroupReservationService {
+
+    private static final Logger log = LoggerFactory.getLogger(GroupReservationService.class);
+
+    private static final int MAX_GROUP_SIZE = 1000;
+
+    private final ReservationRepository repository;
+    private final ReservationService reservationService;
+    private final ReservationMapper mapper;
+    private final ReservationAvailabilityService availabilityService;
+    private final RoomLocks roomLocks;
+    private final RoomAdvisoryLock advisoryLock;
+    private final TransactionTemplate transactionTemplate;
+    private final ReservationOutbox outbox;
+    private final ShardRouter shardRouter;
+
+    public GroupReservationService(
+            ReservationRepository repository,
+            ReservationService reservationService,
+            ReservationMapper mapper,
+            ReservationAvailabilityService availabilityService,
+            RoomLocks roomLocks,
+            RoomAdvisoryLock advisoryLock,
+            PlatformTransactionManager transactionManager,
+            ReservationOutbox outbox,
+            ShardRouter shardRouter
+    ) {
+        this.repository = repository;
+        this.reservationService = reservationService;
+        this.mapper = mapper;
+        this.availabilityService = availabilityService;
+        this.roomLocks = roomLocks;
+        this.advisoryLock = advisoryLock;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.outbox = outbox;
+        this.shardRouter = shardRouter;
+    }
+
+    @Timed("reservation.group")
+    public GroupReservationResponse reserveGroup(GroupReservationRequest request) {
+        if (request.items().size() > MAX_GROUP_SIZE) {
+            throw new InvalidReservationRequestException("Group size should not exceed " + MAX_GROUP_SIZE);
+        }
+        List<ReservationEntity> entities = new ArrayList<>(request.items().size());
+        for (int i = 0; i < request.items().size(); i++) {
+            var item = request.items().get(i);
+            try {
+                var entity = reservationService.prepareNewReservation(new Reservation(
+                        null,
+                        request.userId(),
+                        item.roomId(),
+                        item.startDate(),
+                        item.endDate(),
+                        null
+                ));
+                entity.setStatus(ReservationStatus.APPROVED);
+                entities.add(entity);
+            } catch (InvalidReservationRequestException e) {
+                throw new InvalidReservationRequestException("Item #" + i + ": " + e.getMessage());
+            }
+        }
+
+        Map<Long, List<ReservationEntity>> itemsByRoom = new TreeMap<>();
+        for (ReservationEntity entity : entities) {
+            itemsByRoom.computeIfAbsent(entity.getRoomId(), roomId -> new ArrayList<>()).add(entity);
+        }
+        itemsByRoom.forEach((roomId, items) -> {
+            items.sort(Comparator.comparing(ReservationEntity::getStartDate));
+            for (int i = 1; i < items.size(); i++) {
+                if (items.get(i).getStartDate().isBefore(items.get(i - 1).getEndDate())) {
+                    throw new InvalidReservationRequestException("Items for room " + roomId + " overlap each other");
+                }
+            }
+        });
+
+        Set<Long> roomIds = itemsByRoom.keySet();
+        var created = shardRouter.withRoomsFenced(roomIds, () -> roomLocks.withRoomLocks(roomIds, () -> {
+            Map<String, Supplier<List<ReservationEntity>>> work = new LinkedHashMap<>();
+            itemsByShard(itemsByRoom).forEach((shard, items) -> work.put(shard, () -> {
+                var saved = reserveUnderRoomLocks(items);
+                repository.flush();
+                return saved;
+            }));
+            List<ReservationEntity> saved = new ArrayList<>(entities.size());
+            shardRouter.inTransactionOnShards(
+                    work,
+                    committed -> reservationService.cancelAllIfStatus(ids(committed), ReservationStatus.APPROVED),
+                    transactionTemplate
+            ).forEach(saved::addAll);
+            saved.forEach(entity -> availabilityService.registerApproved(
+                    entity.getId(),
+                    entity.getRoomId(),
+                    entity.getStartDate(),
+                    entity.getEndDate()
+            ));
+            return saved;
+        }));
+
+        log.info("Reserved group: userId={}, rooms={}, reservations={}",
+                request.userId(), itemsByRoom.size(), created.size());
+        var reservations = created.stream()
+                .map(mapper::toDomain)
+                .toList();
+        return new GroupReservationResponse(reservations.size(), reservations);
+    }
+
+    private static List<Long> ids(List<ReservationEntity> entities) {
+        return entities.stream()
+                .map(ReservationEntity::getId)
+                .toList();
+    }
+
+    private Map<String, Map<Long, List<ReservationEntity>>> itemsByShard(Map<Long, List<ReservationEntity>> itemsByRoom) {
+        Map<String, Map<Long, List<ReservationEntity>>> itemsByShard = new TreeMap<>();
+        itemsByRoom.forEach((roomId, items) -> itemsByShard
+                .computeIfAbsent(shardRouter.shardFor(roomId), shard -> new TreeMap<>())
+                .put(roomId, items));
+        return itemsByShard;
+    }
+
+    private List<ReservationEntity> reserveUnderRoomLocks(Map<Long, List<ReservationEntity>> itemsByRoom) {
+        advisoryLock.lockRooms(itemsByRoom.keySet());
+
+        LocalDate rangeStart = LocalDate.MAX;
+        LocalDate rangeEnd = LocalDate.MIN;
+        for (List<ReservationEntity> items : itemsByRoom.values()) {
+            rangeStart = items.getFirst().getStartDate().isBefore(rangeStart) ? items.getFirst().getStartDate() : rangeStart;
+            for (ReservationEntity item : items) {
+                rangeEnd = item.getEndDate().isAfter(rangeEnd) ? item.getEndDate() : rangeEnd;
+            }
+        }
+        Map<Long, List<ReservationInterval>> approvedByRoom = repository.findIntervalsInRange(
+                        itemsByRoom.keySet(),
+                        rangeStart,
+                        rangeEnd,
+                        ReservationStatus.APPROVED
+                ).stream()
+                .collect(Collectors.groupingBy(ReservationInterval::roomId));
+
+        Set<Long> conflictingRooms = new TreeSet<>();
+        itemsByRoom.forEach((roomId, items) -> {
+            if (hasConflict(items, approvedByRoom.getOrDefault(roomId, List.of()))) {
+                conflictingRooms.add(roomId);
+            }
+        });
+        if (!conflictingRooms.isEmpty()) {
+            throw new ReservationConflictException("Cannot reserve group because of conflicts in rooms " + conflictingRooms);
+        }
+
+        List<ReservationEntity> entities = itemsByRoom.values().stream()
+                .flatMap(List::stream)
+                .toList();
+        var saved = repository.saveAll(entities);
+        outbox.recordAll(ReservationEventType.CREATED, saved, ReservationStatus.APPROVED, null);
+        return saved;
+    }
+
+    /**
+     * Both lists are sorted by start date and free of overlaps within themselves,
+     * so one cursor over the approved reservations is enough.
+     */
+    private static boolean hasConflict(List<ReservationEntity> items, List<ReservationInterval> approved) {
+        int cursor = 0;
+        for (ReservationEntity item : items) {
+            while (cursor < approved.size() && !approved.get(cursor).endDate().isAfter(item.getStartDate())) {
+                cursor++;
+            }
+            if (cursor < approved.size() && approved.get(cursor).startDate().isBefore(item.getEndDate())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,53 @@
+package kg.zhaparov.reservation.reservations.idempotency;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+/**
+ * Stored response of a request sent with an {@code Idempotency-Key}. {@code fingerprint}
+ * identifies the operation and its input, so a key reused for another request is rejected.
+ * A row without {@code completedAt} is a claim of a request that is still running.
+ */
+@Table(name = "idempotency_keys", schema = "reservation")
+@Entity
+public class IdempotencyKeyEntity {
+    @Id
+    @Column(name = "idempotency_key")
+    private String key;
+
+    @Column(name = "fingerprint", nullable = false)
+    private String fingerprint;
+
+    @Column(name = "response", columnDefinition = "TEXT")
+    private String response;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    @Column(name = "completed_at")
+    private Instant completedAt;
+
+    public IdempotencyKeyEntity() {
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
+    public String getResponse() {
+        return response;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public Instant getCompletedAt() {
+        return completedAt;
+    }
+}
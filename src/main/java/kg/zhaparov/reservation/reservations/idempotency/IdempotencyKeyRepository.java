@@ -0,0 +1,98 @@
+package kg.zhaparov.reservation.reservations.idempotency;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.Optional;
+
+public interface IdempotencyKeyRepository extends JpaRepository<IdempotencyKeyEntity, String> {
+
+    @Query("""
+            SELECT k from IdempotencyKeyEntity k
+                WHERE k.key = :key
+                AND k.createdAt >= :createdAfter
+            """)
+    Optional<IdempotencyKeyEntity> findUnexpired(
+            @Param("key") String key,
+            @Param("createdAfter") Instant createdAfter
+    );
+
+    /**
+     * A plain insert, not a merge: a concurrent request holding the same key makes it fail
+     * with a unique violation instead of silently overwriting the other response.
+     */
+    @Modifying
+    @Query("""
+            insert into IdempotencyKeyEntity (key, fingerprint, response, createdAt, completedAt)
+            values (:key, :fingerprint, :response, :createdAt, :completedAt)
+            """)
+    int insert(
+            @Param("key") String key,
+            @Param("fingerprint") String fingerprint,
+            @Param("response") String response,
+            @Param("createdAt") Instant createdAt,
+            @Param("completedAt") Instant completedAt
+    );
+
+    @Modifying
+    @Query("""
+            update IdempotencyKeyEntity k
+            set k.response = :response, k.completedAt = :completedAt
+            where k.key = :key
+            and k.completedAt is null
+            """)
+    int complete(
+            @Param("key") String key,
+            @Param("response") String response,
+            @Param("completedAt") Instant completedAt
+    );
+
+    @Modifying
+    @Query("""
+            delete from IdempotencyKeyEntity k
+            where k.key = :key
+            and k.completedAt is null
+            """)
+    int releaseClaim(
+            @Param("key") String key
+    );
+
+    /**
+     * Removes a claim only if it is still the one made at {@code claimedAt}, so a request
+     * that found a claim stale never removes a claim made since.
+     */
+    @Modifying
+    @Query("""
+            delete from IdempotencyKeyEntity k
+            where k.key = :key
+            and k.completedAt is null
+            and k.createdAt = :claimedAt
+            """)
+    int releaseStaleClaim(
+            @Param("key") String key,
+            @Param("claimedAt") Instant claimedAt
+    );
+
+    @Modifying
+    @Query("""
+            delete from IdempotencyKeyEntity k
+            where k.createdAt < :before
+            """)
+    int deleteCreatedBefore(
+            @Param("before") Instant before
+    );
+
+    @Modifying
+    @Query("""
+            delete from IdempotencyKeyEntity k
+            where k.key = :key
+            and k.createdAt < :before
+            """)
+    int deleteExpired(
+            @Param("key") String key,
+            @Param("before") Instant before
+    );
+}
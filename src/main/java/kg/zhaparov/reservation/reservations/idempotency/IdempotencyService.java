@@ -0,0 +1,340 @@
+package kg.zhaparov.reservation.reservations.idempotency;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import kg.zhaparov.reservation.persistence.ShardRouter;
+import kg.zhaparov.reservation.reservations.InvalidReservationRequestException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.function.Supplier;
+
+/**
+ * Replays the stored response of a request retried with the same {@code Idempotency-Key}
+ * instead of executing it again. Responses are kept in a bounded in-memory cache and in
+ * the {@code idempotency_keys} table, so a retry that lands on another node or after a
+ * restart is still answered without touching the reservations. Only successful responses
+ * are stored; a failed request can be retried with the same key.
+ * <p>
+ * A key is bound to the operation and the request it was first used with; reusing it for
+ * a different request is rejected.
+ * <p>
+ * With sharding a key is stored on the shard the request was routed to, the shard of the
+ * room for a create; lookups probe every shard.
+ */
+@Service
+public class IdempotencyService {
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyService.class);
+
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final Duration CLEANUP_INTERVAL = Duration.ofHours(1);
+    private static final Duration PENDING_POLL_INTERVAL = Duration.ofMillis(50);
+
+    private record StoredResponse(
+            String fingerprint,
+            Object body
+    ) {
+    }
+
+    private final IdempotencyKeyRepository repository;
+    private final JsonMapper jsonMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final ShardRouter shardRouter;
+    private final Duration ttl;
+    private final Duration pendingTimeout;
+    private final Cache<String, StoredResponse> responses;
+    private final Counter memoryReplays;
+    private final Counter databaseReplays;
+
+    private volatile Instant nextCleanup = Instant.EPOCH;
+
+    public IdempotencyService(
+            IdempotencyKeyRepository repository,
+            JsonMapper jsonMapper,
+            PlatformTransactionManager transactionManager,
+            ShardRouter shardRouter,
+            @Value("${reservation.idempotency.cache-size:10000}") int cacheSize,
+            @Value("${reservation.idempotency.ttl:24h}") Duration ttl,
+            @Value("${reservation.idempotency.pending-timeout:30s}") Duration pendingTimeout,
+            MeterRegistry meterRegistry
+    ) {
+        this.repository = repository;
+        this.jsonMapper = jsonMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.shardRouter = shardRouter;
+        this.ttl = ttl;
+        this.pendingTimeout = pendingTimeout;
+        this.responses = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterWrite(ttl)
+                .build();
+        this.memoryReplays = replayCounter(meterRegistry, "memory");
+        this.databaseReplays = replayCounter(meterRegistry, "database");
+    }
+
+    /**
+     * Records the key in the same transaction as the action, so of two concurrent requests
+     * with one key exactly one commits; the other is rolled back and answered with the
+     * response of the first. The action must be able to join an outer transaction.
+     */
+    public <T> T executeAtomically(
+            String key,
+            String operation,
+            Object request,
+            Class<T> responseType,
+            Supplier<T> action
+    ) {
+        if (key == null) {
+            return action.get();
+        }
+        String fingerprint = fingerprint(key, operation, request);
+        var stored = lookup(key, responseType);
+        if (stored != null) {
+            return replay(stored, fingerprint, responseType);
+        }
+        try {
+            T response = transactionTemplate.execute(status -> {
+                T result = action.get();
+                record(key, fingerprint, result);
+                return result;
+            });
+            return remember(key, fingerprint, response);
+        } catch (DataIntegrityViolationException e) {
+            return replayWinner(key, fingerprint, responseType, e);
+        }
+    }
+
+    /**
+     * For actions that commit on their own, such as an approval that publishes to the
+     * availability index after its commit. The key is claimed with a pending row in its
+     * own transaction before the action runs; a concurrent request with the same key waits
+     * for that row to complete and replays it. A failed action releases the claim, so the
+     * request can be retried.
+     * <p>
+     * If the node fails between the action and the completion, the claim goes stale after
+     * {@code pendingTimeout}; a retry then runs the action again and its state check
+     * rejects the repeated transition.
+     */
+    public <T> T execute(
+            String key,
+            String operation,
+            Object request,
+            Class<T> responseType,
+            Supplier<T> action
+    ) {
+        if (key == null) {
+            return action.get();
+        }
+        String fingerprint = fingerprint(key, operation, request);
+        var stored = lookup(key, responseType);
+        if (stored != null) {
+            return replay(stored, fingerprint, responseType);
+        }
+        while (!claim(key, fingerprint)) {
+            var winner = awaitCompletion(key, fingerprint, responseType);
+            if (winner != null) {
+                log.info("Concurrent request with the same idempotency key, replaying: key={}", key);
+                return replay(winner, fingerprint, responseType);
+            }
+        }
+
+        T response;
+        try {
+            response = action.get();
+        } catch (RuntimeException e) {
+            releaseClaim(key);
+            throw e;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> repository.complete(
+                    key,
+                    response != null ? jsonMapper.writeValueAsString(response) : null,
+                    Instant.now()
+            ));
+        } catch (RuntimeException e) {
+            // The action has committed: answer it, and leave the claim to go stale
+            log.warn("Could not complete idempotency key: key={}, error={}", key, e.getMessage());
+        }
+        return remember(key, fingerprint, response);
+    }
+
+    private boolean claim(String key, String fingerprint) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                var now = Instant.now();
+                repository.deleteExpired(key, now.minus(ttl));
+                repository.insert(key, fingerprint, null, now, null);
+            });
+            return true;
+        } catch (DataIntegrityViolationException e) {
+            return false;
+        }
+    }
+
+    private void releaseClaim(String key) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> repository.releaseClaim(key));
+        } catch (RuntimeException e) {
+            log.warn("Could not release idempotency key: key={}, error={}", key, e.getMessage());
+        }
+    }
+
+    /**
+     * Waits for the request holding the key; returns its response once it completed, or
+     * null once the key can be claimed again because the claim was released or went stale.
+     */
+    private StoredResponse awaitCompletion(String key, String fingerprint, Class<?> responseType) {
+        while (true) {
+            var now = Instant.now();
+            var row = shardRouter.findOnAnyShard(() -> repository.findUnexpired(key, now.minus(ttl)));
+            if (row.isEmpty()) {
+                return null;
+            }
+            var current = row.get();
+            if (!current.getFingerprint().equals(fingerprint)) {
+                throw new InvalidReservationRequestException("Idempotency-Key was already used for a different request");
+            }
+            if (current.getCompletedAt() != null) {
+                databaseReplays.increment();
+                var stored = new StoredResponse(current.getFingerprint(), readResponse(current.getResponse(), responseType));
+                responses.put(key, stored);
+                return stored;
+            }
+            if (current.getCreatedAt().isBefore(now.minus(pendingTimeout))) {
+                log.warn("Releasing stale idempotency key: key={}, claimedAt={}", key, current.getCreatedAt());
+                transactionTemplate.executeWithoutResult(
+                        status -> repository.releaseStaleClaim(key, current.getCreatedAt())
+                );
+                return null;
+            }
+            try {
+                Thread.sleep(PENDING_POLL_INTERVAL);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for idempotency key " + key, e);
+            }
+        }
+    }
+
+    private StoredResponse lookup(String key, Class<?> responseType) {
+        var stored = responses.getIfPresent(key);
+        if (stored != null) {
+            memoryReplays.increment();
+            return stored;
+        }
+        var createdAfter = Instant.now().minus(ttl);
+        stored = shardRouter.findOnAnyShard(() -> repository.findUnexpired(key, createdAfter))
+                .filter(row -> row.getCompletedAt() != null)
+                .map(row -> new StoredResponse(row.getFingerprint(), readResponse(row.getResponse(), responseType)))
+                .orElse(null);
+        if (stored != null) {
+            databaseReplays.increment();
+            responses.put(key, stored);
+        }
+        return stored;
+    }
+
+    private void record(String key, String fingerprint, Object response) {
+        var now = Instant.now();
+        repository.deleteExpired(key, now.minus(ttl));
+        repository.insert(
+                key,
+                fingerprint,
+                response != null ? jsonMapper.writeValueAsString(response) : null,
+                now,
+                now
+        );
+    }
+
+    /**
+     * Called only after the commit, so the cache never holds a response that was rolled back.
+     */
+    private <T> T remember(String key, String fingerprint, T response) {
+        responses.put(key, new StoredResponse(fingerprint, response));
+        cleanUpIfDue();
+        return response;
+    }
+
+    private <T> T replayWinner(
+            String key,
+            String fingerprint,
+            Class<T> responseType,
+            DataIntegrityViolationException e
+    ) {
+        var winner = lookup(key, responseType);
+        if (winner == null) {
+            throw e;
+        }
+        log.info("Concurrent request with the same idempotency key, replaying: key={}", key);
+        return replay(winner, fingerprint, responseType);
+    }
+
+    private static <T> T replay(StoredResponse stored, String fingerprint, Class<T> responseType) {
+        if (!stored.fingerprint().equals(fingerprint)) {
+            throw new InvalidReservationRequestException("Idempotency-Key was already used for a different request");
+        }
+        return responseType.cast(stored.body());
+    }
+
+    private <T> T readResponse(String response, Class<T> responseType) {
+        return response != null ? jsonMapper.readValue(response, responseType) : null;
+    }
+
+    private String fingerprint(String key, String operation, Object request) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new InvalidReservationRequestException("Idempotency-Key should be 1 to " + MAX_KEY_LENGTH + " characters");
+        }
+        try {
+            var digest = MessageDigest.getInstance("SHA-256");
+            digest.update(operation.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) '\n');
+            digest.update(jsonMapper.writeValueAsBytes(request));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void cleanUpIfDue() {
+        var now = Instant.now();
+        if (now.isBefore(nextCleanup)) {
+            return;
+        }
+        nextCleanup = now.plus(CLEANUP_INTERVAL);
+        try {
+            int deleted = 0;
+            for (String shard : shardRouter.shards()) {
+                deleted += shardRouter.onShard(shard, () -> transactionTemplate.execute(
+                        status -> repository.deleteCreatedBefore(now.minus(ttl))
+                ));
+            }
+            if (deleted > 0) {
+                log.info("Deleted {} expired idempotency keys", deleted);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not delete expired idempotency keys: {}", e.getMessage());
+        }
+    }
+
+    private static Counter replayCounter(MeterRegistry meterRegistry, String source) {
+        return Counter.builder("reservation.idempotency.replays")
+                .description("Requests answered from a stored idempotent response")
+                .tag("source", source)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,75 @@
+package kg.zhaparov.reservation.reservations.locking;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+
+/**
+ * Cross-node room lock backed by a Postgres transaction-scoped advisory lock.
+ * The lock is released by the database on commit or rollback.
+ */
+@Component
+public class RoomAdvisoryLock {
+
+    private static final int ROOM_LOCK_NAMESPACE = 0x524F4F4D;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+
+    public RoomAdvisoryLock(
+            JdbcTemplate jdbcTemplate,
+            @Value("${reservation.locking.advisory-lock.enabled:true}") boolean enabled
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+    }
+
+    public void lockRoom(Long roomId) {
+        if (!enabled) {
+            return;
+        }
+        requireTransaction();
+        jdbcTemplate.query(
+                "SELECT pg_advisory_xact_lock(?, ?)",
+                resultSet -> null,
+                ROOM_LOCK_NAMESPACE,
+                Long.hashCode(roomId)
+        );
+    }
+
+    /**
+     * Locks all rooms with one statement. Keys are taken in ascending order, so callers
+     * locking overlapping sets of rooms cannot deadlock each other.
+     */
+    public void lockRooms(Collection<Long> roomIds) {
+        if (!enabled || roomIds.isEmpty()) {
+            return;
+        }
+        requireTransaction();
+        Integer[] keys = roomIds.stream()
+                .map(roomId -> Long.hashCode(roomId))
+                .distinct()
+                .sorted()
+                .toArray(Integer[]::new);
+        jdbcTemplate.query(
+                connection -> {
+                    var statement = connection.prepareStatement(
+                            "SELECT pg_advisory_xact_lock(?, k) FROM unnest(?) AS k ORDER BY k"
+                    );
+                    statement.setInt(1, ROOM_LOCK_NAMESPACE);
+                    statement.setArray(2, connection.createArrayOf("integer", keys));
+                    return statement;
+                },
+                resultSet -> null
+        );
+    }
+
+    private static void requireTransaction() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Room advisory lock requires an active transaction");
+        }
+    }
+}
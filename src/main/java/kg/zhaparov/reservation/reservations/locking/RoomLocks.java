@@ -0,0 +1,79 @@
+package kg.zhaparov.reservation.reservations.locking;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Striped in-JVM locks keyed by room id.
+ * <p>
+ * Operations on the same room are serialized, operations on different rooms
+ * only contend when their ids land on the same stripe.
+ */
+@Component
+public class RoomLocks {
+
+    private final ReentrantLock[] stripes;
+    private final int mask;
+
+    public RoomLocks(
+            @Value("${reservation.locking.stripes:256}") int stripes
+    ) {
+        if (stripes <= 0) {
+            throw new IllegalArgumentException("Number of lock stripes should be positive");
+        }
+        int size = Integer.highestOneBit(stripes - 1) << 1;
+        this.stripes = new ReentrantLock[Math.max(size, 1)];
+        for (int i = 0; i < this.stripes.length; i++) {
+            this.stripes[i] = new ReentrantLock();
+        }
+        this.mask = this.stripes.length - 1;
+    }
+
+    public <T> T withRoomLock(Long roomId, Supplier<T> action) {
+        ReentrantLock lock = stripeFor(roomId);
+        lock.lock();
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Holds the locks of all given rooms at once. Stripes are taken in index order,
+     * so two multi-room callers can never wait on each other in a cycle.
+     */
+    public <T> T withRoomLocks(Collection<Long> roomIds, Supplier<T> action) {
+        int[] indexes = roomIds.stream()
+                .mapToInt(this::stripeIndex)
+                .distinct()
+                .sorted()
+                .toArray();
+        int locked = 0;
+        try {
+            for (int index : indexes) {
+                stripes[index].lock();
+                locked++;
+            }
+            return action.get();
+        } finally {
+            for (int i = locked - 1; i >= 0; i--) {
+                stripes[indexes[i]].unlock();
+            }
+        }
+    }
+
+    private ReentrantLock stripeFor(Long roomId) {
+        return stripes[stripeIndex(roomId)];
+    }
+
+    private int stripeIndex(Long roomId) {
+        int hash = Long.hashCode(roomId);
+        hash ^= hash >>> 16;
+        return hash & mask;
+    }
+}
@@ -0,0 +1,11 @@
+package kg.zhaparov.reservation.reservations.occupancy;
+
+import java.time.LocalDate;
+
+public record DailyOccupancy(
+        LocalDate date,
+        long occupiedRooms,
+        long rooms,
+        double utilization
+) {
+}
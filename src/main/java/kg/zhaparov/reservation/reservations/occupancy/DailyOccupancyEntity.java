@@ -0,0 +1,30 @@
+package kg.zhaparov.reservation.reservations.occupancy;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDate;
+
+/**
+ * Number of rooms with an approved reservation for the night starting on {@code date}.
+ */
+@Table(name = "occupancy_daily", schema = "reservation")
+@Entity
+public class DailyOccupancyEntity {
+    @Id
+    @Column(name = "occupancy_date")
+    private LocalDate date;
+
+    @Column(name = "occupied_rooms", nullable = false)
+    private Integer occupiedRooms;
+
+    public DailyOccupancyEntity() {
+    }
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public Integer getOccupiedRooms() {
+        return occupiedRooms;
+    }
+}
@@ -0,0 +1,19 @@
+package kg.zhaparov.reservation.reservations.occupancy;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+
+import java.time.LocalDate;
+
+/**
+ * Covers the nights from {@code startDate} inclusive to {@code endDate} exclusive.
+ */
+public record DayRangeOccupancyRequest(
+        @NotNull
+        LocalDate startDate,
+        @NotNull
+        LocalDate endDate,
+        @Positive
+        Integer rooms
+) {
+}
@@ -0,0 +1,9 @@
+package kg.zhaparov.reservation.reservations.occupancy;
+
+import java.time.LocalDate;
+
+public record MonthNights(
+        LocalDate month,
+        Long nights
+) {
+}
@@ -0,0 +1,22 @@
+package kg.zhaparov.reservation.reservations.occupancy;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+
+import java.time.YearMonth;
+import java.util.List;
+
+/**
+ * Both months are inclusive. {@code rooms} is the size of the inventory used for
+ * utilization; without it, every room that ever had an approved night counts.
+ */
+public record MonthRangeOccupancyRequest(
+        List<Long> roomIds,
+        @NotNull
+        YearMonth fromMonth,
+        @NotNull
+        YearMonth toMonth,
+        @Positive
+        Integer rooms
+) {
+}
@@ -0,0 +1,11 @@
+package kg.zhaparov.reservation.reservations.occupancy;
+
+import java.time.YearMonth;
+
+public record MonthlyOccupancy(
+        YearMonth month,
+        long occupiedNights,
+        long availableNights,
+        double utilization
+) {
+}
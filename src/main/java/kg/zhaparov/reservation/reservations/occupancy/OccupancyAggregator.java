@@ -0,0 +1,126 @@
+package kg.zhaparov.reservation.reservations.occupancy;
+
+import kg.zhaparov.reservation.reservations.ReservationStatus;
+import kg.zhaparov.reservation.reservations.outbox.ReservationEvent;
+import kg.zhaparov.reservation.reservations.outbox.ReservationEventSink;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Keeps the occupancy aggregates current from the outbox stream. It runs inside the relay
+ * transaction that marks the batch published, so every approval is counted exactly once,
+ * and it runs first, so a failure here rolls the batch back before other sinks see it.
+ * <p>
+ * Updating the aggregates from the relay rather than inside each approval keeps approvals
+ * of different rooms from contending on the same daily rows; reports lag by one poll.
+ * A batch becomes one batched UPDATE per table plus one batched INSERT for new rows.
+ * A cancellation subtracts nights only when it carries APPROVED as the previous status, which
+ * happens when a cross-shard group write is undone; cancelled requests were never counted.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class OccupancyAggregator implements ReservationEventSink {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public OccupancyAggregator(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void publish(List<ReservationEvent> events) {
+        Map<RoomMonthKey, Integer> nightsByRoomMonth = new TreeMap<>(
+                Comparator.comparing(RoomMonthKey::roomId).thenComparing(RoomMonthKey::month)
+        );
+        Map<LocalDate, Integer> roomsByDate = new TreeMap<>();
+        for (ReservationEvent event : events) {
+            int delta = occupancyDelta(event);
+            if (delta == 0) {
+                continue;
+            }
+            for (LocalDate night = event.startDate(); night.isBefore(event.endDate()); night = night.plusDays(1)) {
+                nightsByRoomMonth.merge(new RoomMonthKey(event.roomId(), night.withDayOfMonth(1)), delta, Integer::sum);
+                roomsByDate.merge(night, delta, Integer::sum);
+            }
+        }
+        if (roomsByDate.isEmpty()) {
+            return;
+        }
+
+        List<Object[]> monthly = new ArrayList<>(nightsByRoomMonth.size());
+        nightsByRoomMonth.forEach((key, nights) -> monthly.add(
+                new Object[]{nights, key.roomId(), Date.valueOf(key.month())}
+        ));
+        applyDeltas(
+                """
+                        UPDATE reservation.room_occupancy_monthly
+                        SET occupied_nights = occupied_nights + ?
+                        WHERE room_id = ? AND occupancy_month = ?
+                        """,
+                """
+                        INSERT INTO reservation.room_occupancy_monthly (occupied_nights, room_id, occupancy_month)
+                        VALUES (?, ?, ?)
+                        """,
+                monthly
+        );
+
+        List<Object[]> daily = new ArrayList<>(roomsByDate.size());
+        roomsByDate.forEach((date, rooms) -> daily.add(new Object[]{rooms, Date.valueOf(date)}));
+        applyDeltas(
+                """
+                        UPDATE reservation.occupancy_daily
+                        SET occupied_rooms = occupied_rooms + ?
+                        WHERE occupancy_date = ?
+                        """,
+                """
+                        INSERT INTO reservation.occupancy_daily (occupied_rooms, occupancy_date)
+                        VALUES (?, ?)
+                        """,
+                daily
+        );
+    }
+
+    /**
+     * Adds every delta to its row; rows that do not exist yet are inserted with the delta.
+     * Keys are applied in sorted order, so concurrent relays lock rows in the same order.
+     */
+    private void applyDeltas(String update, String insert, List<Object[]> deltas) {
+        int[] updated = jdbcTemplate.batchUpdate(update, deltas);
+        List<Object[]> missing = new ArrayList<>();
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] == 0) {
+                missing.add(deltas.get(i));
+            }
+        }
+        if (!missing.isEmpty()) {
+            jdbcTemplate.batchUpdate(insert, missing);
+        }
+    }
+
+    /**
+     * +1 per night for an approval, -1 for a cancelled approval, 0 for everything else.
+     */
+    private static int occupancyDelta(ReservationEvent event) {
+        if (event.roomId() == null || event.startDate() == null || event.endDate() == null) {
+            return 0;
+        }
+        if (event.status() == ReservationStatus.APPROVED) {
+            return 1;
+        }
+        if (event.status() == ReservationStatus.CANCELLED
+                && event.previousStatus() == ReservationStatus.APPROVED) {
+            return -1;
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,48 @@
+package kg.zhaparov.reservation.reservations.occupancy;
+
+import jakarta.validation.Valid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/reservation/occupancy")
+public class OccupancyController {
+
+    private static final Logger log = LoggerFactory.getLogger(OccupancyController.class);
+
+    private final OccupancyService service;
+
+    public OccupancyController(OccupancyService service) {
+        this.service = service;
+    }
+
+    @GetMapping("/rooms")
+    public ResponseEntity<List<RoomOccupancy>> findRoomOccupancy(
+            @Valid MonthRangeOccupancyRequest request
+    ) {
+        log.info("Called findRoomOccupancy: request={}", request);
+        return ResponseEntity.ok(service.findRoomOccupancy(request));
+    }
+
+    @GetMapping("/months")
+    public ResponseEntity<List<MonthlyOccupancy>> findMonthlyOccupancy(
+            @Valid MonthRangeOccupancyRequest request
+    ) {
+        log.info("Called findMonthlyOccupancy: request={}", request);
+        return ResponseEntity.ok(service.findMonthlyOccupancy(request));
+    }
+
+    @GetMapping("/days")
+    public ResponseEntity<List<DailyOccupancy>> findDailyOccupancy(
+            @Valid DayRangeOccupancyRequest request
+    ) {
+        log.info("Called findDailyOccupancy: request={}", request);
+        return ResponseEntity.ok(service.findDailyOccupancy(request));
+    }
+}
@@ -0,0 +1,72 @@
+package kg.zhaparov.reservation.reservations.occupancy;
+
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+public interface OccupancyRepository extends Repository<RoomOccupancyMonthlyEntity, RoomMonthKey> {
+
+    @Query("""
+            SELECT new kg.zhaparov.reservation.reservations.occupancy.RoomNights(
+                    m.id.roomId, SUM(m.occupiedNights)
+                ) from RoomOccupancyMonthlyEntity m
+                WHERE m.id.month >= :fromMonth
+                AND m.id.month <= :toMonth
+                GROUP BY m.id.roomId
+                ORDER BY m.id.roomId
+            """)
+    List<RoomNights> sumNightsByRoom(
+            @Param("fromMonth") LocalDate fromMonth,
+            @Param("toMonth") LocalDate toMonth
+    );
+
+    @Query("""
+            SELECT new kg.zhaparov.reservation.reservations.occupancy.RoomNights(
+                    m.id.roomId, SUM(m.occupiedNights)
+                ) from RoomOccupancyMonthlyEntity m
+                WHERE m.id.roomId IN :roomIds
+                AND m.id.month >= :fromMonth
+                AND m.id.month <= :toMonth
+                GROUP BY m.id.roomId
+                ORDER BY m.id.roomId
+            """)
+    List<RoomNights> sumNightsByRoom(
+            @Param("roomIds") Collection<Long> roomIds,
+            @Param("fromMonth") LocalDate fromMonth,
+            @Param("toMonth") LocalDate toMonth
+    );
+
+    @Query("""
+            SELECT new kg.zhaparov.reservation.reservations.occupancy.MonthNights(
+                    m.id.month, SUM(m.occupiedNights)
+                ) from RoomOccupancyMonthlyEntity m
+                WHERE m.id.month >= :fromMonth
+                AND m.id.month <= :toMonth
+                GROUP BY m.id.month
+                ORDER BY m.id.month
+            """)
+    List<MonthNights> sumNightsByMonth(
+            @Param("fromMonth") LocalDate fromMonth,
+            @Param("toMonth") LocalDate toMonth
+    );
+
+    @Query("""
+            SELECT d from DailyOccupancyEntity d
+                WHERE d.date >= :fromDate
+                AND d.date < :toDate
+                ORDER BY d.date
+            """)
+    List<DailyOccupancyEntity> findDaily(
+            @Param("fromDate") LocalDate fromDate,
+            @Param("toDate") LocalDate toDate
+    );
+
+    @Query("""
+            SELECT COUNT(DISTINCT m.id.roomId) from RoomOccupancyMonthlyEntity m
+            """)
+    long countRooms();
+}
@@ -0,0 +1,138 @@
+package kg.zhaparov.reservation.reservations.occupancy;
+
+import kg.zhaparov.reservation.persistence.ShardRouter;
+import kg.zhaparov.reservation.reservations.InvalidReservationRequestException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+
+/**
+ * Occupancy reports read from the aggregates kept by {@link OccupancyAggregator}, so their
+ * cost depends on the size of the range, not on the number of reservations. The aggregates
+ * follow the outbox relay and may trail the latest approvals by a poll interval.
+ * Utilization is a percentage of the available room-nights. With sharding every shard holds
+ * the aggregates of its own rooms and the reports add them up.
+ */
+@Service
+public class OccupancyService {
+
+    private static final int MAX_MONTHS = 120;
+    private static final int MAX_DAYS = 3_660;
+
+    private final OccupancyRepository repository;
+    private final ShardRouter shardRouter;
+    private final TransactionTemplate readOnlyTransaction;
+
+    public OccupancyService(
+            OccupancyRepository repository,
+            ShardRouter shardRouter,
+            PlatformTransactionManager transactionManager
+    ) {
+        this.repository = repository;
+        this.shardRouter = shardRouter;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    public List<RoomOccupancy> findRoomOccupancy(MonthRangeOccupancyRequest request) {
+        validateMonths(request.fromMonth(), request.toMonth());
+        LocalDate fromMonth = request.fromMonth().atDay(1);
+        LocalDate toMonth = request.toMonth().atDay(1);
+        long nightsPerRoom = ChronoUnit.DAYS.between(fromMonth, request.toMonth().plusMonths(1).atDay(1));
+
+        boolean filtered = request.roomIds() != null && !request.roomIds().isEmpty();
+        var sums = onEachShard(() -> filtered
+                ? repository.sumNightsByRoom(request.roomIds(), fromMonth, toMonth)
+                : repository.sumNightsByRoom(fromMonth, toMonth));
+
+        // Requested rooms without a single approved night are reported with zero
+        Map<Long, Long> nightsByRoom = new TreeMap<>();
+        if (filtered) {
+            request.roomIds().forEach(roomId -> nightsByRoom.put(roomId, 0L));
+        }
+        sums.forEach(shardSums -> shardSums.forEach(sum -> nightsByRoom.merge(sum.roomId(), sum.nights(), Long::sum)));
+
+        List<RoomOccupancy> result = new ArrayList<>(nightsByRoom.size());
+        nightsByRoom.forEach((roomId, nights) -> result.add(new RoomOccupancy(
+                roomId, nights, nightsPerRoom, utilization(nights, nightsPerRoom)
+        )));
+        return result;
+    }
+
+    public List<MonthlyOccupancy> findMonthlyOccupancy(MonthRangeOccupancyRequest request) {
+        validateMonths(request.fromMonth(), request.toMonth());
+        long rooms = rooms(request.rooms());
+
+        Map<LocalDate, Long> nightsByMonth = new HashMap<>();
+        onEachShard(() -> repository.sumNightsByMonth(request.fromMonth().atDay(1), request.toMonth().atDay(1)))
+                .forEach(shardSums -> shardSums.forEach(sum -> nightsByMonth.merge(sum.month(), sum.nights(), Long::sum)));
+
+        List<MonthlyOccupancy> result = new ArrayList<>();
+        for (YearMonth month = request.fromMonth(); !month.isAfter(request.toMonth()); month = month.plusMonths(1)) {
+            long nights = nightsByMonth.getOrDefault(month.atDay(1), 0L);
+            long available = rooms * month.lengthOfMonth();
+            result.add(new MonthlyOccupancy(month, nights, available, utilization(nights, available)));
+        }
+        return result;
+    }
+
+    public List<DailyOccupancy> findDailyOccupancy(DayRangeOccupancyRequest request) {
+        if (!request.endDate().isAfter(request.startDate())) {
+            throw new InvalidReservationRequestException("Start date must be earlier than end date");
+        }
+        if (ChronoUnit.DAYS.between(request.startDate(), request.endDate()) > MAX_DAYS) {
+            throw new InvalidReservationRequestException("Range should not exceed " + MAX_DAYS + " days");
+        }
+        long rooms = rooms(request.rooms());
+
+        Map<LocalDate, Integer> roomsByDate = new HashMap<>();
+        onEachShard(() -> repository.findDaily(request.startDate(), request.endDate()))
+                .forEach(days -> days.forEach(day -> roomsByDate.merge(day.getDate(), day.getOccupiedRooms(), Integer::sum)));
+
+        List<DailyOccupancy> result = new ArrayList<>();
+        for (LocalDate date = request.startDate(); date.isBefore(request.endDate()); date = date.plusDays(1)) {
+            long occupied = roomsByDate.getOrDefault(date, 0);
+            result.add(new DailyOccupancy(date, occupied, rooms, utilization(occupied, rooms)));
+        }
+        return result;
+    }
+
+    private long rooms(Integer rooms) {
+        if (rooms != null) {
+            return rooms;
+        }
+        return onEachShard(repository::countRooms).stream()
+                .mapToLong(Long::longValue)
+                .sum();
+    }
+
+    private <T> List<T> onEachShard(Supplier<T> query) {
+        return shardRouter.onEachShard(shard -> readOnlyTransaction.execute(status -> query.get()));
+    }
+
+    private static void validateMonths(YearMonth fromMonth, YearMonth toMonth) {
+        if (fromMonth.isAfter(toMonth)) {
+            throw new InvalidReservationRequestException("From month must not be later than to month");
+        }
+        if (ChronoUnit.MONTHS.between(fromMonth, toMonth) >= MAX_MONTHS) {
+            throw new InvalidReservationRequestException("Range should not exceed " + MAX_MONTHS + " months");
+        }
+    }
+
+    private static double utilization(long occupied, long available) {
+        if (available == 0) {
+            return 0;
+        }
+        return Math.round(occupied * 10_000.0 / available) / 100.0;
+    }
+}
@@ -0,0 +1,15 @@
+package kg.zhaparov.reservation.reservations.occupancy;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+
+import java.time.LocalDate;
+
+@Embeddable
+public record RoomMonthKey(
+        @Column(name = "room_id", nullable = false)
+        Long roomId,
+        @Column(name = "occupancy_month", nullable = false)
+        LocalDate month
+) {
+}
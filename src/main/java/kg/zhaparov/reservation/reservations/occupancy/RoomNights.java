@@ -0,0 +1,7 @@
+package kg.zhaparov.reservation.reservations.occupancy;
+
+public record RoomNights(
+        Long roomId,
+        Long nights
+) {
+}
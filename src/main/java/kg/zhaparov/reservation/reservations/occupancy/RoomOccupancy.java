@@ -0,0 +1,9 @@
+package kg.zhaparov.reservation.reservations.occupancy;
+
+public record RoomOccupancy(
+        Long roomId,
+        long occupiedNights,
+        long availableNights,
+        double utilization
+) {
+}
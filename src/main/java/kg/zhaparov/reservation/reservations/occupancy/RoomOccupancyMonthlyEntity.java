@@ -0,0 +1,27 @@
+package kg.zhaparov.reservation.reservations.occupancy;
+
+import jakarta.persistence.*;
+
+/**
+ * Approved nights of one room in one month; {@code month} is the first day of the month.
+ */
+@Table(name = "room_occupancy_monthly", schema = "reservation")
+@Entity
+public class RoomOccupancyMonthlyEntity {
+    @EmbeddedId
+    private RoomMonthKey id;
+
+    @Column(name = "occupied_nights", nullable = false)
+    private Integer occupiedNights;
+
+    public RoomOccupancyMonthlyEntity() {
+    }
+
+    public RoomMonthKey getId() {
+        return id;
+    }
+
+    public Integer getOccupiedNights() {
+        return occupiedNights;
+    }
+}
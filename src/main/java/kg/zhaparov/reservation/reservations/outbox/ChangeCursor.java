@@ -0,0 +1,76 @@
+package kg.zhaparov.reservation.reservations.outbox;
+
+import kg.zhaparov.reservation.persistence.ShardRouter;
+import kg.zhaparov.reservation.reservations.InvalidReservationRequestException;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * How far a reader got in the published outbox: the last position seen on every shard, in
+ * {@link ShardRouter#shards()} order. The text form joins them with dots; without sharding it
+ * is just the last position. Every shard numbers from its own id range, so a position also
+ * names its shard and positions may be given in any order; shards left out start from the
+ * beginning of what is still retained.
+ */
+public final class ChangeCursor {
+
+    private final long[] positions;
+
+    private ChangeCursor(long[] positions) {
+        this.positions = positions;
+    }
+
+    public static ChangeCursor of(List<Long> positions) {
+        return new ChangeCursor(positions.stream().mapToLong(Long::longValue).toArray());
+    }
+
+    public static ChangeCursor parse(String text, ShardRouter shardRouter) {
+        List<String> shards = shardRouter.shards();
+        long[] positions = new long[shards.size()];
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = shardRouter.idRangeStart(shards.get(i));
+        }
+        try {
+            for (String part : text.split("\\.")) {
+                long position = Long.parseLong(part.trim());
+                if (position == 0) {
+                    continue;
+                }
+                int shard = shardRouter.shardIndexOfId(position);
+                positions[shard] = Math.max(positions[shard], position);
+            }
+        } catch (IllegalArgumentException e) {
+            throw new InvalidReservationRequestException("Malformed cursor: " + text);
+        }
+        return new ChangeCursor(positions);
+    }
+
+    public long position(int shardIndex) {
+        return positions[shardIndex];
+    }
+
+    public ChangeCursor with(int shardIndex, long position) {
+        long[] advanced = positions.clone();
+        advanced[shardIndex] = position;
+        return new ChangeCursor(advanced);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof ChangeCursor cursor && Arrays.equals(positions, cursor.positions);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(positions);
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.stream(positions)
+                .mapToObj(String::valueOf)
+                .collect(Collectors.joining("."));
+    }
+}
@@ -0,0 +1,28 @@
+package kg.zhaparov.reservation.reservations.outbox;
+
+import kg.zhaparov.reservation.reservations.ReservationStatus;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * One state change of a reservation. Fields the transition does not touch may be
+ * null, e.g. a cancellation carries only the id and the new status. {@code previousStatus} is
+ * set on transitions the writer knows the source state of; it tells a cancelled approval,
+ * which frees its nights, from a cancelled request. {@code eventId} is the
+ * position the relay published the event at: events of one shard are numbered in the order
+ * they were committed.
+ */
+public record ReservationEvent(
+        Long eventId,
+        ReservationEventType type,
+        Long reservationId,
+        Long userId,
+        Long roomId,
+        LocalDate startDate,
+        LocalDate endDate,
+        ReservationStatus status,
+        ReservationStatus previousStatus,
+        Instant occurredAt
+) {
+}
@@ -0,0 +1,192 @@
+package kg.zhaparov.reservation.reservations.outbox;
+
+import kg.zhaparov.reservation.persistence.ShardRouter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.function.BiConsumer;
+
+/**
+ * Fans the events of {@link ReservationEventFeed} out to the open {@code /reservation/events}
+ * streams. Every subscription has a bounded queue drained by a virtual thread of its own, so
+ * a slow client only holds up itself; one that lets its queue overflow is closed and resumes
+ * by reconnecting with its cursor.
+ * <p>
+ * A subscriber that passes a cursor first gets the retained events after it from the
+ * outbox, then live events; events it already has are skipped by position.
+ */
+@Component
+public class ReservationEventBroadcaster implements ReservationEventListener {
+
+    private static final Logger log = LoggerFactory.getLogger(ReservationEventBroadcaster.class);
+
+    private static final int REPLAY_BATCH_SIZE = 500;
+
+    private final ReservationEventFeed feed;
+    private final ReservationOutboxRepository repository;
+    private final ShardRouter shardRouter;
+    private final TransactionTemplate transactionTemplate;
+    private final int queueSize;
+    private final List<Subscription> subscriptions = new ArrayList<>();
+
+    private ChangeCursor delivered;
+
+    public ReservationEventBroadcaster(
+            ReservationEventFeed feed,
+            ReservationOutboxRepository repository,
+            ShardRouter shardRouter,
+            PlatformTransactionManager transactionManager,
+            @Value("${reservation.events.queue-size:10000}") int queueSize
+    ) {
+        this.feed = feed;
+        this.repository = repository;
+        this.shardRouter = shardRouter;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.queueSize = queueSize;
+    }
+
+    @Override
+    public synchronized void onEvents(List<ReservationEvent> events) {
+        for (ReservationEvent event : events) {
+            delivered = delivered().with(shardRouter.shardIndexOfId(event.eventId()), event.eventId());
+        }
+        subscriptions.removeIf(subscription -> !subscription.offer(events));
+    }
+
+    /**
+     * Delivers every event after {@code after} (live events only when it is null) together
+     * with the cursor to resume after it. {@code onClose} runs once the subscription ends,
+     * whether the subscriber failed, fell behind or unsubscribed.
+     */
+    public Subscription subscribe(
+            String after,
+            BiConsumer<ReservationEvent, String> subscriber,
+            Runnable onClose
+    ) {
+        Subscription subscription;
+        synchronized (this) {
+            var from = after != null ? ChangeCursor.parse(after, shardRouter) : delivered();
+            subscription = new Subscription(from, after != null, subscriber, onClose);
+            subscriptions.add(subscription);
+        }
+        subscription.worker = Thread.ofVirtual()
+                .name("event-stream")
+                .start(subscription::run);
+        return subscription;
+    }
+
+    public void unsubscribe(Subscription subscription) {
+        synchronized (this) {
+            subscriptions.remove(subscription);
+        }
+        subscription.close();
+    }
+
+    private ChangeCursor delivered() {
+        if (delivered == null) {
+            delivered = feed.anchor();
+        }
+        return delivered;
+    }
+
+    public final class Subscription {
+
+        private final BlockingQueue<ReservationEvent> queue = new ArrayBlockingQueue<>(queueSize);
+        private final BiConsumer<ReservationEvent, String> subscriber;
+        private final Runnable onClose;
+        private final boolean replay;
+
+        private ChangeCursor cursor;
+        private volatile Thread worker;
+        private volatile boolean closed;
+
+        private Subscription(
+                ChangeCursor cursor,
+                boolean replay,
+                BiConsumer<ReservationEvent, String> subscriber,
+                Runnable onClose
+        ) {
+            this.cursor = cursor;
+            this.replay = replay;
+            this.subscriber = subscriber;
+            this.onClose = onClose;
+        }
+
+        private boolean offer(List<ReservationEvent> events) {
+            for (ReservationEvent event : events) {
+                if (!queue.offer(event)) {
+                    log.info("Closing event stream that fell {} events behind", queueSize);
+                    close();
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void run() {
+            try {
+                if (replay) {
+                    replay();
+                }
+                while (!closed) {
+                    deliver(queue.take());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException e) {
+                // Typically a client that went away
+                log.debug("Event stream ended: {}", e.getMessage());
+            } finally {
+                unsubscribe(this);
+                onClose.run();
+            }
+        }
+
+        /**
+         * Reads the primary: a lagging replica could miss events the feed has already
+         * delivered before this subscription was registered.
+         */
+        private void replay() {
+            List<String> shards = shardRouter.shards();
+            for (int i = 0; i < shards.size() && !closed; i++) {
+                int shardIndex = i;
+                List<ReservationEvent> page;
+                do {
+                    long after = cursor.position(shardIndex);
+                    page = shardRouter.onShard(shards.get(shardIndex), () -> transactionTemplate.execute(
+                            status -> repository.findPublishedAfter(after, Limit.of(REPLAY_BATCH_SIZE)).stream()
+                                    .map(ReservationOutboxRelay::toEvent)
+                                    .toList()
+                    ));
+                    page.forEach(this::deliver);
+                } while (page.size() == REPLAY_BATCH_SIZE && !closed);
+            }
+        }
+
+        private void deliver(ReservationEvent event) {
+            int shardIndex = shardRouter.shardIndexOfId(event.eventId());
+            if (event.eventId() <= cursor.position(shardIndex)) {
+                return;
+            }
+            cursor = cursor.with(shardIndex, event.eventId());
+            subscriber.accept(event, cursor.toString());
+        }
+
+        private void close() {
+            closed = true;
+            var thread = worker;
+            if (thread != null && thread != Thread.currentThread()) {
+                thread.interrupt();
+            }
+        }
+    }
+}
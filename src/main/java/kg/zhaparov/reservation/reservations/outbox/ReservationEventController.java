@@ -0,0 +1,94 @@
+package kg.zhaparov.reservation.reservations.outbox;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.function.BiConsumer;
+
+/**
+ * Change stream of reservations. Consumers tail it instead of re-scanning
+ * {@code GET /reservation}; to resume, pass the cursor of the last event received as
+ * {@code Last-Event-ID} (server-sent events) or {@code afterEventId}. The cursor is the
+ * event id of a server-sent event; without sharding it equals {@code eventId}, with sharding
+ * it is the last {@code eventId} of every shard joined by dots. Any node resumes any cursor.
+ */
+@RestController
+@RequestMapping("/reservation/events")
+public class ReservationEventController {
+
+    private static final Logger log = LoggerFactory.getLogger(ReservationEventController.class);
+
+    private static final long STREAM_TIMEOUT_MILLIS = Duration.ofMinutes(30).toMillis();
+
+    private final ReservationEventBroadcaster broadcaster;
+    private final JsonMapper jsonMapper;
+
+    public ReservationEventController(
+            ReservationEventBroadcaster broadcaster,
+            JsonMapper jsonMapper
+    ) {
+        this.broadcaster = broadcaster;
+        this.jsonMapper = jsonMapper;
+    }
+
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamEvents(
+            @RequestHeader(name = "Last-Event-ID", required = false) String lastEventId,
+            @RequestParam(name = "afterEventId", required = false) String afterEventId
+    ) {
+        log.info("Called streamEvents: lastEventId={}", lastEventId != null ? lastEventId : afterEventId);
+        var emitter = new SseEmitter(STREAM_TIMEOUT_MILLIS);
+        subscribe(emitter, lastEventId != null ? lastEventId : afterEventId, (event, cursor) -> send(emitter, SseEmitter.event()
+                .id(cursor)
+                .name(event.type().name())
+                .data(event, MediaType.APPLICATION_JSON)));
+        return emitter;
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseBodyEmitter streamEventsAsJsonLines(
+            @RequestParam(name = "afterEventId", required = false) String afterEventId
+    ) {
+        log.info("Called streamEventsAsJsonLines: afterEventId={}", afterEventId);
+        var emitter = new ResponseBodyEmitter(STREAM_TIMEOUT_MILLIS);
+        subscribe(emitter, afterEventId, (event, cursor) -> {
+            try {
+                emitter.send(jsonMapper.writeValueAsString(event) + "\n", MediaType.APPLICATION_NDJSON);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return emitter;
+    }
+
+    private void subscribe(
+            ResponseBodyEmitter emitter,
+            String after,
+            BiConsumer<ReservationEvent, String> subscriber
+    ) {
+        var subscription = broadcaster.subscribe(after, subscriber, emitter::complete);
+        emitter.onCompletion(() -> broadcaster.unsubscribe(subscription));
+        emitter.onTimeout(() -> broadcaster.unsubscribe(subscription));
+        emitter.onError(error -> broadcaster.unsubscribe(subscription));
+    }
+
+    private static void send(SseEmitter emitter, SseEmitter.SseEventBuilder event) {
+        try {
+            emitter.send(event);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package kg.zhaparov.reservation.reservations.outbox;
+
+import kg.zhaparov.reservation.persistence.ShardRouter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tails the published outbox of every shard by position and hands each batch to every
+ * {@link ReservationEventListener} of this node. It reads what any node's relay published,
+ * so every node sees every event, and it only reads committed rows, so listeners never see
+ * an event that is rolled back later.
+ * <p>
+ * The feed starts at the positions fixed by the first {@link #anchor()}; a listener that
+ * loads a snapshot anchors the feed before reading it, so no later event is missed.
+ */
+@Component
+public class ReservationEventFeed implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(ReservationEventFeed.class);
+
+    private final ReservationOutboxRepository repository;
+    private final ReservationOutboxCursorRepository cursorRepository;
+    private final ObjectProvider<ReservationEventListener> listeners;
+    private final ShardRouter shardRouter;
+    private final TransactionTemplate readOnlyTransaction;
+    private final int batchSize;
+    private final Duration pollInterval;
+
+    private ChangeCursor position;
+    private volatile boolean running;
+    private Thread worker;
+
+    public ReservationEventFeed(
+            ReservationOutboxRepository repository,
+            ReservationOutboxCursorRepository cursorRepository,
+            ObjectProvider<ReservationEventListener> listeners,
+            ShardRouter shardRouter,
+            PlatformTransactionManager transactionManager,
+            @Value("${reservation.events.batch-size:500}") int batchSize,
+            @Value("${reservation.events.poll-interval:200ms}") Duration pollInterval
+    ) {
+        this.repository = repository;
+        this.cursorRepository = cursorRepository;
+        this.listeners = listeners;
+        this.shardRouter = shardRouter;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.batchSize = batchSize;
+        this.pollInterval = pollInterval;
+    }
+
+    /**
+     * Fixes the positions the feed starts after, at the last published event of every shard,
+     * unless already fixed, and returns them.
+     */
+    public synchronized ChangeCursor anchor() {
+        if (position == null) {
+            position = ChangeCursor.of(shardRouter.onEachShard(shard -> readOnlyTransaction.execute(
+                    status -> cursorRepository.lastPosition(shardRouter.idRangeStart(shard))
+            )));
+        }
+        return position;
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        worker = Thread.ofPlatform()
+                .name("outbox-feed")
+                .daemon()
+                .start(this::run);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (worker == null) {
+            return;
+        }
+        worker.interrupt();
+        try {
+            worker.join(Duration.ofSeconds(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                if (pollOnce() < batchSize) {
+                    Thread.sleep(pollInterval);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.warn("Outbox feed poll failed: {}", e.getMessage());
+                try {
+                    Thread.sleep(pollInterval);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads the next batch of every shard and dispatches it; returns the largest batch read.
+     */
+    int pollOnce() {
+        var from = anchor();
+        List<String> shards = shardRouter.shards();
+        int largest = 0;
+        for (int i = 0; i < shards.size(); i++) {
+            long after = from.position(i);
+            List<ReservationEvent> events = shardRouter.onShard(shards.get(i), () -> readOnlyTransaction.execute(
+                    status -> repository.findPublishedAfter(after, Limit.of(batchSize)).stream()
+                            .map(ReservationOutboxRelay::toEvent)
+                            .toList()
+            ));
+            if (events.isEmpty()) {
+                continue;
+            }
+            dispatch(events);
+            synchronized (this) {
+                position = position.with(i, events.getLast().eventId());
+            }
+            largest = Math.max(largest, events.size());
+        }
+        return largest;
+    }
+
+    private void dispatch(List<ReservationEvent> events) {
+        List<ReservationEventListener> targets = new ArrayList<>();
+        listeners.orderedStream().forEach(targets::add);
+        for (ReservationEventListener listener : targets) {
+            try {
+                listener.onEvents(events);
+            } catch (RuntimeException e) {
+                log.warn("Event listener {} failed: {}", listener.getClass().getSimpleName(), e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package kg.zhaparov.reservation.reservations.outbox;
+
+import java.util.List;
+
+/**
+ * Receives every published event on every node, after it is committed, from
+ * {@link ReservationEventFeed}. Events of one shard arrive in publication order. Called on the
+ * feed thread: implementations hand slow work off instead of blocking it.
+ */
+public interface ReservationEventListener {
+
+    void onEvents(List<ReservationEvent> events);
+}
@@ -0,0 +1,15 @@
+package kg.zhaparov.reservation.reservations.outbox;
+
+import java.util.List;
+
+/**
+ * Destination of the outbox relay, called inside the transaction that publishes the batch.
+ * Every sink bean receives every batch; a batch is marked published only when all sinks
+ * accepted it, so delivery is at-least-once. Sinks see each event on one node only;
+ * consumers that every node needs, or that must not hold up the relay, are
+ * {@link ReservationEventListener}s.
+ */
+public interface ReservationEventSink {
+
+    void publish(List<ReservationEvent> events);
+}
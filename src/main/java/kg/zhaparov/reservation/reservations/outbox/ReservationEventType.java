@@ -0,0 +1,8 @@
+package kg.zhaparov.reservation.reservations.outbox;
+
+public enum ReservationEventType {
+    CREATED,
+    UPDATED,
+    CANCELLED,
+    APPROVED
+}
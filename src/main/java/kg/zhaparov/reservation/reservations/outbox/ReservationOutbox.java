@@ -0,0 +1,88 @@
+package kg.zhaparov.reservation.reservations.outbox;
+
+import kg.zhaparov.reservation.reservations.Reservation;
+import kg.zhaparov.reservation.reservations.ReservationEntity;
+import kg.zhaparov.reservation.reservations.ReservationStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Collection;
+
+/**
+ * Writes state changes to the outbox table. Must be called inside the transaction
+ * that makes the change, so the event commits or rolls back together with it.
+ */
+@Component
+@Transactional(propagation = Propagation.MANDATORY)
+public class ReservationOutbox {
+
+    private final ReservationOutboxRepository repository;
+    private final Clock clock;
+
+    public ReservationOutbox(ReservationOutboxRepository repository) {
+        this.repository = repository;
+        this.clock = Clock.systemUTC();
+    }
+
+    public void record(ReservationEventType type, Reservation reservation) {
+        repository.save(new ReservationOutboxEntity(
+                type,
+                reservation.id(),
+                reservation.userId(),
+                reservation.roomId(),
+                reservation.startDate(),
+                reservation.endDate(),
+                reservation.status(),
+                null,
+                Instant.now(clock)
+        ));
+    }
+
+    /**
+     * {@code status} is passed explicitly: after a bulk update the entities still hold the old one.
+     * {@code previousStatus} is the status the reservations moved from, null for new ones.
+     */
+    public void recordAll(
+            ReservationEventType type,
+            Collection<ReservationEntity> reservations,
+            ReservationStatus status,
+            ReservationStatus previousStatus
+    ) {
+        Instant occurredAt = Instant.now(clock);
+        repository.saveAll(reservations.stream()
+                .map(reservation -> new ReservationOutboxEntity(
+                        type,
+                        reservation.getId(),
+                        reservation.getUserId(),
+                        reservation.getRoomId(),
+                        reservation.getStartDate(),
+                        reservation.getEndDate(),
+                        status,
+                        previousStatus,
+                        occurredAt
+                ))
+                .toList());
+    }
+
+    public void recordStatusChange(
+            ReservationEventType type,
+            Long reservationId,
+            ReservationStatus status,
+            ReservationStatus previousStatus
+    ) {
+        repository.save(new ReservationOutboxEntity(
+                type,
+                reservationId,
+                null,
+                null,
+                null,
+                null,
+                status,
+                previousStatus,
+                Instant.now(clock)
+        ));
+    }
+}
@@ -0,0 +1,57 @@
+package kg.zhaparov.reservation.reservations.outbox;
+
+import jakarta.persistence.*;
+
+/**
+ * The single row that numbers published events. The relay locks it for writing, so batches
+ * of several relays are numbered one after another in the order they commit.
+ * <p>
+ * With sharding every shard numbers from the start of its own id range; a row created before
+ * the shard got its range is moved up on the next advance.
+ */
+@Table(name = "reservation_outbox_cursor", schema = "reservation")
+@Entity
+public class ReservationOutboxCursorEntity {
+
+    public static final int ID = 1;
+
+    @Id
+    @Column(name = "id")
+    private Integer id;
+
+    @Column(name = "last_position", nullable = false)
+    private long lastPosition;
+
+    @Column(name = "pruned_position", nullable = false)
+    private long prunedPosition;
+
+    public ReservationOutboxCursorEntity() {
+    }
+
+    public ReservationOutboxCursorEntity(long rangeStart) {
+        this.id = ID;
+        this.lastPosition = rangeStart;
+        this.prunedPosition = rangeStart;
+    }
+
+    /**
+     * Reserves the next {@code count} positions and returns the first of them.
+     */
+    public long advance(int count, long rangeStart) {
+        long first = Math.max(lastPosition, rangeStart) + 1;
+        lastPosition = first + count - 1;
+        return first;
+    }
+
+    public void prunedThrough(long position) {
+        prunedPosition = Math.max(prunedPosition, position);
+    }
+
+    public long getLastPosition() {
+        return lastPosition;
+    }
+
+    public long getPrunedPosition() {
+        return prunedPosition;
+    }
+}
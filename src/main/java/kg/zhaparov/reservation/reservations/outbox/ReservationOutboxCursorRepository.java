@@ -0,0 +1,39 @@
+package kg.zhaparov.reservation.reservations.outbox;
+
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.Optional;
+
+public interface ReservationOutboxCursorRepository extends JpaRepository<ReservationOutboxCursorEntity, Integer> {
+
+    /**
+     * Held until commit: a second relay waits here until the batch before it is committed.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("""
+            SELECT c from ReservationOutboxCursorEntity c
+                WHERE c.id = 1
+            """)
+    Optional<ReservationOutboxCursorEntity> findForUpdate();
+
+    /**
+     * Position of the last event published on the current shard.
+     */
+    default long lastPosition(long rangeStart) {
+        return findById(ReservationOutboxCursorEntity.ID)
+                .map(cursor -> Math.max(cursor.getLastPosition(), rangeStart))
+                .orElse(rangeStart);
+    }
+
+    /**
+     * Events up to this position have been deleted by the retention cleanup.
+     */
+    default long prunedPosition() {
+        return findById(ReservationOutboxCursorEntity.ID)
+                .map(ReservationOutboxCursorEntity::getPrunedPosition)
+                .orElse(0L);
+    }
+}
@@ -0,0 +1,139 @@
+package kg.zhaparov.reservation.reservations.outbox;
+
+import jakarta.persistence.*;
+import kg.zhaparov.reservation.reservations.ReservationStatus;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+@Table(name = "reservation_outbox", schema = "reservation")
+@Entity
+public class ReservationOutboxEntity {
+    @Id
+    @Column(name = "id")
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "reservation_outbox_id_seq")
+    @SequenceGenerator(
+            name = "reservation_outbox_id_seq",
+            sequenceName = "reservation_outbox_id_seq",
+            schema = "reservation",
+            allocationSize = 1
+    )
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "event_type", nullable = false)
+    private ReservationEventType eventType;
+
+    @Column(name = "reservation_id", nullable = false)
+    private Long reservationId;
+
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "room_id")
+    private Long roomId;
+
+    @Column(name = "start_date")
+    private LocalDate startDate;
+
+    @Column(name = "end_date")
+    private LocalDate endDate;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false)
+    private ReservationStatus status;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "previous_status")
+    private ReservationStatus previousStatus;
+
+    @Column(name = "occurred_at", nullable = false)
+    private Instant occurredAt;
+
+    @Column(name = "published_at")
+    private Instant publishedAt;
+
+    @Column(name = "position", unique = true)
+    private Long position;
+
+    public ReservationOutboxEntity() {
+    }
+
+    public ReservationOutboxEntity(
+            ReservationEventType eventType,
+            Long reservationId,
+            Long userId,
+            Long roomId,
+            LocalDate startDate,
+            LocalDate endDate,
+            ReservationStatus status,
+            ReservationStatus previousStatus,
+            Instant occurredAt
+    ) {
+        this.eventType = eventType;
+        this.reservationId = reservationId;
+        this.userId = userId;
+        this.roomId = roomId;
+        this.startDate = startDate;
+        this.endDate = endDate;
+        this.status = status;
+        this.previousStatus = previousStatus;
+        this.occurredAt = occurredAt;
+    }
+
+    /**
+     * Dirty-checked, so the whole batch is written with one JDBC batch at commit.
+     */
+    public void markPublished(long position, Instant publishedAt) {
+        this.position = position;
+        this.publishedAt = publishedAt;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public ReservationEventType getEventType() {
+        return eventType;
+    }
+
+    public Long getReservationId() {
+        return reservationId;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public Long getRoomId() {
+        return roomId;
+    }
+
+    public LocalDate getStartDate() {
+        return startDate;
+    }
+
+    public LocalDate getEndDate() {
+        return endDate;
+    }
+
+    public ReservationStatus getStatus() {
+        return status;
+    }
+
+    public ReservationStatus getPreviousStatus() {
+        return previousStatus;
+    }
+
+    public Instant getOccurredAt() {
+        return occurredAt;
+    }
+
+    public Instant getPublishedAt() {
+        return publishedAt;
+    }
+
+    public Long getPosition() {
+        return position;
+    }
+}
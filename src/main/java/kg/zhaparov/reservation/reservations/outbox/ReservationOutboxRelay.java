@@ -0,0 +1,196 @@
+package kg.zhaparov.reservation.reservations.outbox;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import kg.zhaparov.reservation.persistence.ShardRouter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Publishes the outbox in id order, in batches, to every {@link ReservationEventSink}.
+ * A batch is read with {@code FOR UPDATE SKIP LOCKED}, numbered from the locked
+ * {@link ReservationOutboxCursorEntity}, handed to the sinks and marked published in one
+ * transaction; if a sink fails the batch is retried on the next poll. Positions therefore
+ * commit in order and {@link ReservationEventFeed} tails them on every node.
+ * Published rows are kept for {@code retention} and then deleted. With sharding every shard's
+ * outbox is relayed in turn; a room's events live on its shard, so they stay in order.
+ */
+@Component
+public class ReservationOutboxRelay implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(ReservationOutboxRelay.class);
+
+    private static final Duration CLEANUP_INTERVAL = Duration.ofHours(1);
+
+    private final ReservationOutboxRepository repository;
+    private final ReservationOutboxCursorRepository cursorRepository;
+    private final List<ReservationEventSink> sinks;
+    private final TransactionTemplate transactionTemplate;
+    private final ShardRouter shardRouter;
+    private final boolean enabled;
+    private final int batchSize;
+    private final Duration pollInterval;
+    private final Duration retention;
+    private final Counter publishedCounter;
+
+    private volatile boolean running;
+    private Thread worker;
+    private Instant nextCleanup = Instant.EPOCH;
+
+    public ReservationOutboxRelay(
+            ReservationOutboxRepository repository,
+            ReservationOutboxCursorRepository cursorRepository,
+            List<ReservationEventSink> sinks,
+            PlatformTransactionManager transactionManager,
+            ShardRouter shardRouter,
+            @Value("${reservation.outbox.relay.enabled:true}") boolean enabled,
+            @Value("${reservation.outbox.relay.batch-size:500}") int batchSize,
+            @Value("${reservation.outbox.relay.poll-interval:200ms}") Duration pollInterval,
+            @Value("${reservation.outbox.retention:7d}") Duration retention,
+            MeterRegistry meterRegistry
+    ) {
+        this.repository = repository;
+        this.cursorRepository = cursorRepository;
+        this.sinks = sinks;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.shardRouter = shardRouter;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.pollInterval = pollInterval;
+        this.retention = retention;
+        this.publishedCounter = Counter.builder("reservation.outbox.published")
+                .description("Reservation events handed to the sinks")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void start() {
+        if (!enabled) {
+            log.info("Outbox relay disabled");
+            return;
+        }
+        running = true;
+        worker = Thread.ofPlatform()
+                .name("outbox-relay")
+                .daemon()
+                .start(this::run);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (worker == null) {
+            return;
+        }
+        worker.interrupt();
+        try {
+            worker.join(Duration.ofSeconds(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                boolean drained = true;
+                for (String shard : shardRouter.shards()) {
+                    drained &= shardRouter.onShard(shard, () -> publishBatch(shard)) < batchSize;
+                }
+                cleanUpIfDue();
+                if (drained) {
+                    Thread.sleep(pollInterval);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.warn("Outbox relay iteration failed: {}", e.getMessage());
+                try {
+                    Thread.sleep(pollInterval);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    int publishBatch(String shard) {
+        Integer published = transactionTemplate.execute(status -> {
+            var rows = repository.findUnpublished(Limit.of(batchSize));
+            if (rows.isEmpty()) {
+                return 0;
+            }
+            long rangeStart = shardRouter.idRangeStart(shard);
+            var cursor = cursorRepository.findForUpdate()
+                    .orElseGet(() -> cursorRepository.saveAndFlush(new ReservationOutboxCursorEntity(rangeStart)));
+            long position = cursor.advance(rows.size(), rangeStart);
+            var publishedAt = Instant.now();
+            List<ReservationEvent> events = new ArrayList<>(rows.size());
+            for (ReservationOutboxEntity row : rows) {
+                row.markPublished(position++, publishedAt);
+                events.add(toEvent(row));
+            }
+            sinks.forEach(sink -> sink.publish(events));
+            return rows.size();
+        });
+        publishedCounter.increment(published);
+        return published;
+    }
+
+    private void cleanUpIfDue() {
+        var now = Instant.now();
+        if (now.isBefore(nextCleanup)) {
+            return;
+        }
+        nextCleanup = now.plus(CLEANUP_INTERVAL);
+        int deleted = 0;
+        for (String shard : shardRouter.shards()) {
+            deleted += shardRouter.onShard(shard, () -> transactionTemplate.execute(status -> {
+                var before = now.minus(retention);
+                Long pruned = repository.findLastPositionPublishedBefore(before);
+                if (pruned == null) {
+                    return 0;
+                }
+                // Readers behind the pruned position have lost events and must re-sync.
+                cursorRepository.findForUpdate().ifPresent(cursor -> cursor.prunedThrough(pruned));
+                return repository.deletePublishedBefore(before);
+            }));
+        }
+        if (deleted > 0) {
+            log.info("Deleted {} published outbox rows", deleted);
+        }
+    }
+
+    static ReservationEvent toEvent(ReservationOutboxEntity row) {
+        return new ReservationEvent(
+                row.getPosition(),
+                row.getEventType(),
+                row.getReservationId(),
+                row.getUserId(),
+                row.getRoomId(),
+                row.getStartDate(),
+                row.getEndDate(),
+                row.getStatus(),
+                row.getPreviousStatus(),
+                row.getOccurredAt()
+        );
+    }
+}
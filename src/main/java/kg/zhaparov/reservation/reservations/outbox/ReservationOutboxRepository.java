@@ -0,0 +1,60 @@
+package kg.zhaparov.reservation.reservations.outbox;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface ReservationOutboxRepository extends JpaRepository<ReservationOutboxEntity, Long> {
+
+    /**
+     * Rows locked by another relay instance are skipped, so several nodes can relay in parallel.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("""
+            SELECT e from ReservationOutboxEntity e
+                WHERE e.publishedAt IS NULL
+                ORDER BY e.id
+            """)
+    List<ReservationOutboxEntity> findUnpublished(Limit limit);
+
+    /**
+     * Published events in publication order. Positions commit in order, so a reader that
+     * resumes after the last position it saw misses nothing.
+     */
+    @Query("""
+            SELECT e from ReservationOutboxEntity e
+                WHERE e.position > :after
+                ORDER BY e.position
+            """)
+    List<ReservationOutboxEntity> findPublishedAfter(
+            @Param("after") long after,
+            Limit limit
+    );
+
+    @Query("""
+            SELECT max(e.position) from ReservationOutboxEntity e
+                WHERE e.publishedAt < :before
+            """)
+    Long findLastPositionPublishedBefore(
+            @Param("before") Instant before
+    );
+
+    @Modifying
+    @Query("""
+            delete from ReservationOutboxEntity e
+            where e.publishedAt < :before
+            """)
+    int deletePublishedBefore(
+            @Param("before") Instant before
+    );
+}
@@ -1,21 +1,45 @@
 package kg.zhaparov.reservation.web;
 
 import jakarta.persistence.EntityNotFoundException;
+import kg.zhaparov.reservation.reservations.InvalidReservationRequestException;
+import kg.zhaparov.reservation.reservations.ReservationConflictException;
+import kg.zhaparov.reservation.reservations.ReservationNotFoundException;
+import kg.zhaparov.reservation.reservations.SyncTokenExpiredException;
+import kg.zhaparov.reservation.reservations.approval.ApprovalQueueFullException;
+import org.hibernate.exception.ConstraintViolationException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.CannotCreateTransactionException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 
 import java.time.LocalDateTime;
+import java.util.Locale;
+import java.util.Map;
 
+/**
+ * Business rejections (4xx) are expected traffic: they are logged as one line without a
+ * stack trace, and the logging configuration samples them per logger. Only unexpected
+ * failures are logged at ERROR with their stack trace.
+ */
 @ControllerAdvice
 public class GlobalExceptionHandler {
 
     private static final Logger log = LoggerFactory.getLogger(GlobalExceptionHandler.class);
 
+    private static final Map<String, String> CONFLICT_CONSTRAINTS = Map.of(
+            "reservations_approved_no_overlap", "Reservation overlaps an approved reservation of the room",
+            "idempotency_keys_pkey", "A request with the same Idempotency-Key was already processed"
+    );
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ErrorResponseDto> handleGenericException(
             Exception e
@@ -33,11 +57,14 @@ public class GlobalExceptionHandler {
                 .body(errorDto);
     }
 
-    @ExceptionHandler(EntityNotFoundException.class)
+    @ExceptionHandler( exception = {
+            ReservationNotFoundException.class,
+            EntityNotFoundException.class
+    })
     public ResponseEntity<ErrorResponseDto> handleEntityNotFound(
-            EntityNotFoundException e
+            RuntimeException e
     ) {
-        log.error("Handle EntityNotFoundException", e);
+        log.warn("Handle NotFound: {}", e.getMessage());
 
         var errorDto = new ErrorResponseDto(
                 "Entity not found",
@@ -50,15 +77,118 @@ public class GlobalExceptionHandler {
                 .body(errorDto);
     }
 
+    @ExceptionHandler(SyncTokenExpiredException.class)
+    public ResponseEntity<ErrorResponseDto> handleSyncTokenExpired(
+            SyncTokenExpiredException e
+    ) {
+        log.warn("Handle Gone: {}", e.getMessage());
+
+        var errorDto = new ErrorResponseDto(
+                "Gone",
+                e.getMessage(),
+                LocalDateTime.now()
+        );
+
+        return ResponseEntity
+                .status(HttpStatus.GONE)
+                .body(errorDto);
+    }
+
+    /**
+     * Only the constraints that guard business rules become a 409, with a fixed message;
+     * the driver message names tables and values and is not meant for clients. Any other
+     * integrity violation is a fault and is handled like an unexpected exception.
+     */
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public ResponseEntity<ErrorResponseDto> handleConflict(
+            DataIntegrityViolationException e
+    ) {
+        String constraint = constraintName(e);
+        String message = constraint != null ? CONFLICT_CONSTRAINTS.get(constraint) : null;
+        if (message == null) {
+            return handleGenericException(e);
+        }
+        log.warn("Handle constraint conflict: {}", constraint);
+
+        var errorDto = new ErrorResponseDto(
+                "Conflict",
+                message,
+                LocalDateTime.now()
+        );
+
+        return ResponseEntity
+                .status(HttpStatus.CONFLICT)
+                .body(errorDto);
+    }
+
+    @ExceptionHandler( exception = {
+            ReservationConflictException.class,
+            OptimisticLockingFailureException.class,
+            PessimisticLockingFailureException.class
+    })
+    public ResponseEntity<ErrorResponseDto> handleStateConflict(
+            RuntimeException e
+    ) {
+        log.warn("Handle state conflict: {}", e.getMessage());
+
+        var errorDto = new ErrorResponseDto(
+                "Conflict",
+                e.getMessage(),
+                LocalDateTime.now()
+        );
+
+        return ResponseEntity
+                .status(HttpStatus.CONFLICT)
+                .body(errorDto);
+    }
+
+    @ExceptionHandler( exception = {
+            CannotCreateTransactionException.class,
+            DataAccessResourceFailureException.class
+    })
+    public ResponseEntity<ErrorResponseDto> handleServiceUnavailable(
+            Exception e
+    ) {
+        log.warn("Handle ServiceUnavailable: {}", e.getMessage());
+
+        var errorDto = new ErrorResponseDto(
+                "Service Unavailable",
+                e.getMessage(),
+                LocalDateTime.now()
+        );
+
+        return ResponseEntity
+                .status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body(errorDto);
+    }
+
+    @ExceptionHandler(ApprovalQueueFullException.class)
+    public ResponseEntity<ErrorResponseDto> handleApprovalQueueFull(
+            ApprovalQueueFullException e
+    ) {
+        log.warn("Handle ServiceUnavailable: {}", e.getMessage());
+
+        var errorDto = new ErrorResponseDto(
+                "Service Unavailable",
+                e.getMessage(),
+                LocalDateTime.now()
+        );
+
+        return ResponseEntity
+                .status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, e.getRetryAfter().toSeconds())))
+                .body(errorDto);
+    }
+
     @ExceptionHandler( exception = {
+            InvalidReservationRequestException.class,
             IllegalArgumentException.class,
-            IllegalStateException.class,
             MethodArgumentNotValidException.class
     })
     public ResponseEntity<ErrorResponseDto> handleBadRequest(
             Exception e
     ) {
-        log.error("Handle BadRequest", e);
+        log.warn("Handle BadRequest: {}", e.getMessage());
 
         var errorDto = new ErrorResponseDto(
                 "Bad Request",
@@ -70,4 +200,25 @@ public class GlobalExceptionHandler {
                 .status(HttpStatus.BAD_REQUEST)
                 .body(errorDto);
     }
+
+    private static String constraintName(DataIntegrityViolationException e) {
+        String text = null;
+        for (Throwable cause = e; cause != null && text == null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation) {
+                text = violation.getConstraintName();
+            }
+        }
+        if (text == null) {
+            // Not every driver error is translated with its constraint name; the message names it
+            text = e.getMostSpecificCause().getMessage();
+        }
+        if (text == null) {
+            return null;
+        }
+        String lowerCase = text.toLowerCase(Locale.ROOT);
+        return CONFLICT_CONSTRAINTS.keySet().stream()
+                .filter(lowerCase::contains)
+                .findFirst()
+                .orElse(null);
+    }
 }
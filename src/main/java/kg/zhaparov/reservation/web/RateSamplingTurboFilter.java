@@ -0,0 +1,84 @@
+package kg.zhaparov.reservation.web;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * Lets through at most {@code permitsPerSecond} events below ERROR per logger whose name
+ * matches {@code loggerPattern}, and drops the rest before a message is formatted. The
+ * number of dropped events is reported once the next second starts. ERROR always passes.
+ * Configured in {@code logback-spring.xml}.
+ */
+public class RateSamplingTurboFilter extends TurboFilter {
+
+    private static final Window NOT_SAMPLED = new Window();
+
+    private Pattern loggerPattern;
+    private int permitsPerSecond = 20;
+    private final ConcurrentHashMap<String, Window> windows = new ConcurrentHashMap<>();
+
+    public void setLoggerPattern(String loggerPattern) {
+        this.loggerPattern = Pattern.compile(loggerPattern);
+    }
+
+    public void setPermitsPerSecond(int permitsPerSecond) {
+        this.permitsPerSecond = permitsPerSecond;
+    }
+
+    @Override
+    public void start() {
+        if (loggerPattern == null) {
+            addError("No loggerPattern set for " + getName());
+            return;
+        }
+        super.start();
+    }
+
+    @Override
+    public FilterReply decide(
+            Marker marker,
+            Logger logger,
+            Level level,
+            String format,
+            Object[] params,
+            Throwable t
+    ) {
+        // format is null for isXxxEnabled() checks, which must not use up permits
+        if (!isStarted() || format == null || level.isGreaterOrEqual(Level.ERROR)) {
+            return FilterReply.NEUTRAL;
+        }
+        Window window = windows.computeIfAbsent(
+                logger.getName(),
+                name -> loggerPattern.matcher(name).matches() ? new Window() : NOT_SAMPLED
+        );
+        if (window == NOT_SAMPLED) {
+            return FilterReply.NEUTRAL;
+        }
+
+        long second = System.nanoTime() / 1_000_000_000L;
+        long windowSecond = window.second.get();
+        if (second != windowSecond && window.second.compareAndSet(windowSecond, second)) {
+            int dropped = window.count.getAndSet(0) - permitsPerSecond;
+            if (dropped > 0) {
+                logger.getLoggerContext()
+                        .getLogger(RateSamplingTurboFilter.class)
+                        .warn("Sampled out {} log events of {}", dropped, logger.getName());
+            }
+        }
+        return window.count.incrementAndGet() <= permitsPerSecond ? FilterReply.NEUTRAL : FilterReply.DENY;
+    }
+
+    private static final class Window {
+
+        private final AtomicLong second = new AtomicLong(System.nanoTime() / 1_000_000_000L);
+        private final AtomicInteger count = new AtomicInteger();
+    }
+}
@@ -0,0 +1,3 @@
+-- Time of the last change, stamped by every write; drives the delta mode of the search.
+ALTER TABLE reservation.reservations
+    ADD COLUMN IF NOT EXISTS updated_at TIMESTAMPTZ NOT NULL DEFAULT now();
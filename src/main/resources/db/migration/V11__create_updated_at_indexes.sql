@@ -0,0 +1,6 @@
+-- Serve delta polling, per user and over all reservations.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS reservations_user_updated_at_idx
+    ON reservation.reservations (user_id, updated_at);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS reservations_updated_at_idx
+    ON reservation.reservations (updated_at);
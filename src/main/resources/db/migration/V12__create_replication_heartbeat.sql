@@ -0,0 +1,7 @@
+-- Single row advanced on the primary by ReplicaLagMonitor; how far a replica's copy trails
+-- the primary clock is its replication lag.
+CREATE TABLE IF NOT EXISTS reservation.replication_heartbeat
+(
+    id      INT PRIMARY KEY,
+    beat_at TIMESTAMPTZ NOT NULL
+);
@@ -0,0 +1,21 @@
+-- Publication order of the outbox. The relay numbers each batch from the single cursor row,
+-- which stays locked until the batch commits, so positions become visible in commit order
+-- and readers on any node can tail the outbox by position without missing a late commit.
+ALTER TABLE reservation.reservation_outbox
+    ADD COLUMN IF NOT EXISTS position BIGINT;
+
+-- pruned_position: highest position already deleted by the retention cleanup.
+CREATE TABLE IF NOT EXISTS reservation.reservation_outbox_cursor
+(
+    id              INT PRIMARY KEY,
+    last_position   BIGINT NOT NULL,
+    pruned_position BIGINT NOT NULL
+);
+
+INSERT INTO reservation.reservation_outbox_cursor (id, last_position, pruned_position)
+VALUES (1, 0, 0)
+ON CONFLICT DO NOTHING;
+
+-- One id per event: ids then follow the order events are written, which for one
+-- reservation is the order its changes commit in.
+ALTER SEQUENCE reservation.reservation_outbox_id_seq INCREMENT BY 1;
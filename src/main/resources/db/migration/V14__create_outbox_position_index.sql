@@ -0,0 +1,3 @@
+-- Readers tail the outbox by position.
+CREATE UNIQUE INDEX CONCURRENTLY IF NOT EXISTS reservation_outbox_position_idx
+    ON reservation.reservation_outbox (position);
@@ -0,0 +1,3 @@
+-- Lets a shard rebalance find the rooms archived while it scanned without reading the archive.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS reservations_archive_archived_at_idx
+    ON reservation.reservations_archive (archived_at);
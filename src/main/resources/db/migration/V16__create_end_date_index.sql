@@ -0,0 +1,3 @@
+-- The archiver reads the oldest stays first.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS reservations_end_date_idx
+    ON reservation.reservations (end_date);
@@ -0,0 +1,8 @@
+-- A key is claimed with a row without completed_at before its request runs; concurrent
+-- retries wait for the row to complete instead of running the request again.
+ALTER TABLE reservation.idempotency_keys
+    ADD COLUMN IF NOT EXISTS completed_at TIMESTAMPTZ;
+
+UPDATE reservation.idempotency_keys
+SET completed_at = created_at
+WHERE completed_at IS NULL;
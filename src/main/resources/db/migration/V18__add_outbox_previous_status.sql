@@ -0,0 +1,4 @@
+-- Status a reservation moved from, so consumers can tell a cancelled approval, whose
+-- nights the occupancy aggregates must release, from a cancelled request.
+ALTER TABLE reservation.reservation_outbox
+    ADD COLUMN IF NOT EXISTS previous_status VARCHAR(32);
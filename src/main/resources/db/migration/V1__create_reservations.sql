@@ -0,0 +1,15 @@
+CREATE SCHEMA IF NOT EXISTS reservation;
+
+-- Hibernate allocates ids in pools of 50 (see ReservationEntity), the increment must match.
+CREATE SEQUENCE IF NOT EXISTS reservation.reservations_id_seq INCREMENT BY 50;
+ALTER SEQUENCE reservation.reservations_id_seq INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS reservation.reservations
+(
+    id         BIGINT PRIMARY KEY DEFAULT nextval('reservation.reservations_id_seq'),
+    user_id    BIGINT      NOT NULL,
+    room_id    BIGINT      NOT NULL,
+    start_date DATE        NOT NULL,
+    end_date   DATE        NOT NULL,
+    status     VARCHAR(32) NOT NULL
+);
@@ -0,0 +1,7 @@
+-- Serves room searches with optional status and date bounds, and the conflict lookup.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS reservations_room_status_dates_idx
+    ON reservation.reservations (room_id, status, start_date, end_date);
+
+-- Serves per-user searches, optionally bounded by date.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS reservations_user_start_date_idx
+    ON reservation.reservations (user_id, start_date);
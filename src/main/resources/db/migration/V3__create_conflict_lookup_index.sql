@@ -0,0 +1,4 @@
+-- findConflictReservationIds only ever looks at APPROVED rows of a single room.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS reservations_approved_conflict_idx
+    ON reservation.reservations (room_id, start_date, end_date)
+    WHERE status = 'APPROVED';
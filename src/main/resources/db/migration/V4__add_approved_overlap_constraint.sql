@@ -0,0 +1,34 @@
+-- Makes double-booking impossible at the database level: two APPROVED reservations
+-- of the same room cannot share a night. Needs btree_gist for the equality on room_id.
+CREATE EXTENSION IF NOT EXISTS btree_gist;
+
+-- Approvals made before the approval path was fixed may overlap. Fail with a clear
+-- message instead of a constraint error; cancel or move the reported rows and re-run.
+DO
+$$
+    DECLARE
+        overlapping BIGINT;
+    BEGIN
+        SELECT count(*)
+        INTO overlapping
+        FROM reservation.reservations a
+                 JOIN reservation.reservations b
+                      ON a.room_id = b.room_id
+                          AND a.id < b.id
+                          AND a.start_date < b.end_date
+                          AND b.start_date < a.end_date
+        WHERE a.status = 'APPROVED'
+          AND b.status = 'APPROVED';
+
+        IF overlapping > 0 THEN
+            RAISE EXCEPTION 'Found % pairs of overlapping APPROVED reservations, resolve them before migrating', overlapping;
+        END IF;
+    END
+$$;
+
+ALTER TABLE reservation.reservations
+    ADD CONSTRAINT reservations_approved_no_overlap
+        EXCLUDE USING gist (
+        room_id WITH =,
+        daterange(start_date, end_date, '[)') WITH &&
+        ) WHERE (status = 'APPROVED');
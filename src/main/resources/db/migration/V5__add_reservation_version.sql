@@ -0,0 +1,3 @@
+-- Version column for optimistic locking; every conditional state transition bumps it.
+ALTER TABLE reservation.reservations
+    ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
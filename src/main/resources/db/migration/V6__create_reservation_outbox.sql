@@ -0,0 +1,22 @@
+-- Transactional outbox: one row per reservation state change, written in the same
+-- transaction as the change and published by ReservationOutboxRelay.
+CREATE SEQUENCE IF NOT EXISTS reservation.reservation_outbox_id_seq INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS reservation.reservation_outbox
+(
+    id             BIGINT PRIMARY KEY DEFAULT nextval('reservation.reservation_outbox_id_seq'),
+    event_type     VARCHAR(32) NOT NULL,
+    reservation_id BIGINT      NOT NULL,
+    user_id        BIGINT,
+    room_id        BIGINT,
+    start_date     DATE,
+    end_date       DATE,
+    status         VARCHAR(32) NOT NULL,
+    occurred_at    TIMESTAMPTZ NOT NULL,
+    published_at   TIMESTAMPTZ
+);
+
+-- The relay only ever reads the unpublished tail.
+CREATE INDEX IF NOT EXISTS reservation_outbox_unpublished_idx
+    ON reservation.reservation_outbox (id)
+    WHERE published_at IS NULL;
@@ -0,0 +1,42 @@
+-- Occupancy aggregates maintained by OccupancyAggregator from the outbox stream.
+CREATE TABLE IF NOT EXISTS reservation.room_occupancy_monthly
+(
+    room_id          BIGINT  NOT NULL,
+    occupancy_month  DATE    NOT NULL,
+    occupied_nights  INTEGER NOT NULL,
+    PRIMARY KEY (room_id, occupancy_month)
+);
+
+CREATE TABLE IF NOT EXISTS reservation.occupancy_daily
+(
+    occupancy_date  DATE PRIMARY KEY,
+    occupied_rooms  INTEGER NOT NULL
+);
+
+-- Backfill from the approved reservations. Approvals whose outbox event is still
+-- unpublished are left out: the aggregator counts them when the event is relayed.
+INSERT INTO reservation.room_occupancy_monthly (room_id, occupancy_month, occupied_nights)
+SELECT r.room_id, date_trunc('month', night)::date, count(*)
+FROM reservation.reservations r
+         CROSS JOIN LATERAL generate_series(r.start_date, r.end_date - 1, interval '1 day') night
+WHERE r.status = 'APPROVED'
+  AND NOT EXISTS (SELECT 1
+                  FROM reservation.reservation_outbox o
+                  WHERE o.reservation_id = r.id
+                    AND o.status = 'APPROVED'
+                    AND o.published_at IS NULL)
+GROUP BY r.room_id, date_trunc('month', night)
+ON CONFLICT DO NOTHING;
+
+INSERT INTO reservation.occupancy_daily (occupancy_date, occupied_rooms)
+SELECT night::date, count(*)
+FROM reservation.reservations r
+         CROSS JOIN LATERAL generate_series(r.start_date, r.end_date - 1, interval '1 day') night
+WHERE r.status = 'APPROVED'
+  AND NOT EXISTS (SELECT 1
+                  FROM reservation.reservation_outbox o
+                  WHERE o.reservation_id = r.id
+                    AND o.status = 'APPROVED'
+                    AND o.published_at IS NULL)
+GROUP BY night::date
+ON CONFLICT DO NOTHING;
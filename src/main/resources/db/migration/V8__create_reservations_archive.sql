@@ -0,0 +1,17 @@
+-- Cold tier: reservations that ended before the retention window, moved here by
+-- ReservationArchiver. Rows keep their ids, so a search spanning both tiers can merge by id.
+CREATE TABLE IF NOT EXISTS reservation.reservations_archive
+(
+    id          BIGINT PRIMARY KEY,
+    user_id     BIGINT      NOT NULL,
+    room_id     BIGINT      NOT NULL,
+    start_date  DATE        NOT NULL,
+    end_date    DATE        NOT NULL,
+    status      VARCHAR(32) NOT NULL,
+    version     BIGINT      NOT NULL,
+    archived_at TIMESTAMPTZ NOT NULL
+);
+
+-- Serves per-user searches that include archived reservations.
+CREATE INDEX IF NOT EXISTS reservations_archive_user_id_idx
+    ON reservation.reservations_archive (user_id, id);
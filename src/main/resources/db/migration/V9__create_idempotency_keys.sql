@@ -0,0 +1,12 @@
+-- Responses of requests sent with an Idempotency-Key, so a retried request is answered
+-- from here instead of being executed again. Rows expire after reservation.idempotency.ttl.
+CREATE TABLE IF NOT EXISTS reservation.idempotency_keys
+(
+    idempotency_key VARCHAR(255) PRIMARY KEY,
+    fingerprint     VARCHAR(64)  NOT NULL,
+    response        TEXT,
+    created_at      TIMESTAMPTZ  NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idempotency_keys_created_at_idx
+    ON reservation.idempotency_keys (created_at);
@@ -0,0 +1,110 @@
+package kg.zhaparov.reservation.reactive;
+
+import kg.zhaparov.reservation.reservations.Reservation;
+import kg.zhaparov.reservation.web.ErrorResponseDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(
+        classes = ReactiveReservationApplication.class,
+        properties = {
+                "spring.config.name=reactive",
+                "spring.main.web-application-type=reactive",
+                "spring.r2dbc.url=r2dbc:h2:mem:///reactive;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+                "spring.flyway.enabled=false"
+        }
+)
+class ReactiveReservationControllerTests {
+
+    private static final long USER_ID = 130_000L;
+    private static final LocalDate START = LocalDate.now().plusDays(5);
+
+    private static boolean tablePrepared;
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    private WebTestClient client;
+
+    @BeforeEach
+    void prepare() {
+        client = WebTestClient.bindToApplicationContext(applicationContext).build();
+        if (tablePrepared) {
+            return;
+        }
+        databaseClient.sql("CREATE SCHEMA IF NOT EXISTS reservation").then().block();
+        databaseClient.sql("""
+                CREATE TABLE reservation.reservations
+                (
+                    id         BIGINT PRIMARY KEY,
+                    user_id    BIGINT      NOT NULL,
+                    room_id    BIGINT      NOT NULL,
+                    start_date DATE        NOT NULL,
+                    end_date   DATE        NOT NULL,
+                    status     VARCHAR(32) NOT NULL
+                )
+                """).then().block();
+        for (long id = 1; id <= 5; id++) {
+            databaseClient.sql("INSERT INTO reservation.reservations VALUES (:id, :userId, :roomId, :startDate, :endDate, 'PENDING')")
+                    .bind("id", id)
+                    .bind("userId", USER_ID)
+                    .bind("roomId", USER_ID + id)
+                    .bind("startDate", START)
+                    .bind("endDate", START.plusDays(2))
+                    .then()
+                    .block();
+        }
+        tablePrepared = true;
+    }
+
+    @Test
+    void pagesByOffsetAndByKeyset() {
+        assertThat(page("pageSize=2&pageNumber=1")).containsExactly(3L, 4L);
+        assertThat(page("pageSize=2&afterId=4")).containsExactly(5L);
+        assertThat(page("pageSize=10&afterId=5")).isEmpty();
+    }
+
+    @Test
+    void missingReservationIsNotFound() {
+        var error = client.get()
+                .uri("/reservation/999")
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.NOT_FOUND)
+                .expectBody(ErrorResponseDto.class)
+                .returnResult()
+                .getResponseBody();
+
+        assertThat(error.message()).isEqualTo("Entity not found");
+        assertThat(error.detailedMessage()).isEqualTo("Not found reservation with id = 999");
+    }
+
+    private List<Long> page(String query) {
+        return client.get()
+                .uri("/reservation?userId=" + USER_ID + "&" + query)
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(Reservation.class)
+                .returnResult()
+                .getResponseBody()
+                .stream()
+                .map(Reservation::id)
+                .toList();
+    }
+}
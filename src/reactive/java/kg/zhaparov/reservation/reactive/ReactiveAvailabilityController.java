@@ -0,0 +1,61 @@
+package kg.zhaparov.reservation.reactive;
+
+import jakarta.validation.Valid;
+import kg.zhaparov.reservation.reservations.InvalidReservationRequestException;
+import kg.zhaparov.reservation.reservations.ReservationStatus;
+import kg.zhaparov.reservation.reservations.availability.AvailabilityStatus;
+import kg.zhaparov.reservation.reservations.availability.CheckAvailabilityRequest;
+import kg.zhaparov.reservation.reservations.availability.CheckAvailabilityResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+/**
+ * Answers availability checks straight from the database; the in-memory index of
+ * approved reservations lives in the servlet application only.
+ */
+@RestController
+@RequestMapping("/reservation/availability")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveAvailabilityController {
+
+    private static final Logger log = LoggerFactory.getLogger(ReactiveAvailabilityController.class);
+
+    private final ReactiveReservationRepository repository;
+
+    public ReactiveAvailabilityController(ReactiveReservationRepository repository) {
+        this.repository = repository;
+    }
+
+    @PostMapping("/check")
+    public Mono<CheckAvailabilityResponse> checkAvailability(
+            @Valid CheckAvailabilityRequest request
+    ) {
+        log.info("Called checkAvailability method: request {}", request);
+        if (!request.endDate().isAfter(request.startDate())) {
+            return Mono.error(new InvalidReservationRequestException("Start date should be before end date"));
+        }
+        return repository.hasConflict(
+                        request.roomId(),
+                        request.startDate(),
+                        request.endDate(),
+                        ReservationStatus.APPROVED
+                )
+                .map(hasConflict -> toResponse(!hasConflict));
+    }
+
+    private CheckAvailabilityResponse toResponse(boolean isAvailable) {
+        var message = isAvailable
+                ? "Room available for reservation"
+                : "Room not available for reservation";
+        var status = isAvailable
+                ? AvailabilityStatus.AVAILABLE
+                : AvailabilityStatus.RESERVED;
+
+        return new CheckAvailabilityResponse(message, status);
+    }
+}
@@ -0,0 +1,49 @@
+package kg.zhaparov.reservation.reactive;
+
+import kg.zhaparov.reservation.reservations.InvalidReservationRequestException;
+import kg.zhaparov.reservation.reservations.ReservationNotFoundException;
+import kg.zhaparov.reservation.web.ErrorResponseDto;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.server.ServerWebInputException;
+
+import java.time.LocalDateTime;
+
+/**
+ * Same status mapping and body as {@code GlobalExceptionHandler} for the read paths.
+ */
+@RestControllerAdvice
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveExceptionHandler {
+
+    private static final Logger log = LoggerFactory.getLogger(ReactiveExceptionHandler.class);
+
+    @ExceptionHandler(ReservationNotFoundException.class)
+    public ResponseEntity<ErrorResponseDto> handleNotFound(
+            ReservationNotFoundException e
+    ) {
+        log.warn("Handle NotFound: {}", e.getMessage());
+        return ResponseEntity
+                .status(HttpStatus.NOT_FOUND)
+                .body(new ErrorResponseDto("Entity not found", e.getMessage(), LocalDateTime.now()));
+    }
+
+    @ExceptionHandler( exception = {
+            InvalidReservationRequestException.class,
+            IllegalArgumentException.class,
+            ServerWebInputException.class
+    })
+    public ResponseEntity<ErrorResponseDto> handleBadRequest(
+            Exception e
+    ) {
+        log.warn("Handle BadRequest: {}", e.getMessage());
+        return ResponseEntity
+                .status(HttpStatus.BAD_REQUEST)
+                .body(new ErrorResponseDto("Bad Request", e.getMessage(), LocalDateTime.now()));
+    }
+}
@@ -0,0 +1,28 @@
+package kg.zhaparov.reservation.reactive;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+
+/**
+ * Non-blocking read API over the reservation table: WebFlux on Netty, R2DBC to the database.
+ * A request waiting on the database holds no thread, so tens of thousands of them can stay open.
+ * Writes, approvals and the in-memory availability index remain in the servlet application.
+ * It reads a single database and does not start when {@code reservation.sharding.*} is set.
+ * <p>
+ * Built with {@code -Preactive}; configured by {@code reactive.properties}. Every bean here is
+ * conditional on a reactive web application, so the servlet application skips this package
+ * when it is on the classpath.
+ */
+@SpringBootApplication
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveReservationApplication {
+
+    public static void main(String[] args) {
+        new SpringApplicationBuilder(ReactiveReservationApplication.class)
+                .web(WebApplicationType.REACTIVE)
+                .properties("spring.config.name=reactive")
+                .run(args);
+    }
+}
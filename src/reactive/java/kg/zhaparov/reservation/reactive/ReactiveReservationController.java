@@ -0,0 +1,100 @@
+package kg.zhaparov.reservation.reactive;
+
+import kg.zhaparov.reservation.reservations.Reservation;
+import kg.zhaparov.reservation.reservations.ReservationNotFoundException;
+import kg.zhaparov.reservation.reservations.ReservationSearchFilter;
+import kg.zhaparov.reservation.reservations.ReservationStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+
+@RestController
+@RequestMapping("/reservation")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveReservationController {
+
+    private static final Logger log = LoggerFactory.getLogger(ReactiveReservationController.class);
+
+    /**
+     * Rows requested from the database ahead of the client. A slow reader stops the fetch
+     * after this many buffered rows instead of filling memory.
+     */
+    private static final int STREAM_PREFETCH = 256;
+
+    private final ReactiveReservationRepository repository;
+
+    public ReactiveReservationController(ReactiveReservationRepository repository) {
+        this.repository = repository;
+    }
+
+    @GetMapping("/{id}")
+    public Mono<Reservation> getReservationById(
+            @PathVariable("id") Long id
+    ) {
+        log.info("Called getReservationById: id={}", id);
+        return repository.findById(id)
+                .switchIfEmpty(Mono.error(() -> new ReservationNotFoundException(id)));
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public Flux<Reservation> getAllReservations(
+            @RequestParam(name = "roomId", required = false) Long roomId,
+            @RequestParam(name = "userId", required = false) Long userId,
+            @RequestParam(name = "status", required = false) ReservationStatus status,
+            @RequestParam(name = "fromDate", required = false) LocalDate fromDate,
+            @RequestParam(name = "toDate", required = false) LocalDate toDate,
+            @RequestParam(name = "pageSize", required = false) Integer pageSize,
+            @RequestParam(name = "pageNumber", required = false) Integer pageNumber,
+            @RequestParam(name = "afterId", required = false) Long afterId
+    ) {
+        log.info("Called getAllReservations");
+        return repository.findPageByFilter(new ReservationSearchFilter(
+                roomId,
+                userId,
+                status,
+                fromDate,
+                toDate,
+                pageSize,
+                pageNumber,
+                afterId,
+                null
+        ));
+    }
+
+    /**
+     * Streams every match as NDJSON, unpaged. Demand flows from the client socket back
+     * to the R2DBC cursor.
+     */
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<Reservation> streamReservations(
+            @RequestParam(name = "roomId", required = false) Long roomId,
+            @RequestParam(name = "userId", required = false) Long userId,
+            @RequestParam(name = "status", required = false) ReservationStatus status,
+            @RequestParam(name = "fromDate", required = false) LocalDate fromDate,
+            @RequestParam(name = "toDate", required = false) LocalDate toDate
+    ) {
+        log.info("Called streamReservations: roomId={}, userId={}", roomId, userId);
+        return repository.findAllByFilter(new ReservationSearchFilter(
+                        roomId,
+                        userId,
+                        status,
+                        fromDate,
+                        toDate,
+                        null,
+                        null,
+                        null,
+                        null
+                ))
+                .limitRate(STREAM_PREFETCH);
+    }
+}
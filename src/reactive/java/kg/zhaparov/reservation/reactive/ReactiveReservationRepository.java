@@ -0,0 +1,164 @@
+package kg.zhaparov.reservation.reactive;
+
+import io.r2dbc.spi.Readable;
+import kg.zhaparov.reservation.reservations.Reservation;
+import kg.zhaparov.reservation.reservations.ReservationSearchFilter;
+import kg.zhaparov.reservation.reservations.ReservationStatus;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.env.Environment;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * R2DBC counterpart of the read queries of {@code ReservationRepository}. Rows map straight
+ * to {@link Reservation}; filters and the conflict predicate keep the same semantics.
+ * <p>
+ * It reads the one database of {@code spring.r2dbc.url}. With {@code reservation.sharding.*}
+ * the reservations are spread over several databases, so it refuses to start rather than
+ * answer from the home shard only.
+ */
+@Repository
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveReservationRepository {
+
+    private static final String SELECT_RESERVATIONS = """
+            SELECT id, user_id, room_id, start_date, end_date, status
+            FROM reservation.reservations
+            """;
+
+    private static final String SHARDING_PROPERTY = "reservation.sharding.shards[0].url";
+
+    private final DatabaseClient client;
+
+    public ReactiveReservationRepository(DatabaseClient client, Environment environment) {
+        if (environment.containsProperty(SHARDING_PROPERTY)) {
+            throw new IllegalStateException("The reactive read API does not support sharding, remove "
+                    + SHARDING_PROPERTY + " or serve reads from the servlet application");
+        }
+        this.client = client;
+    }
+
+    public Mono<Reservation> findById(Long id) {
+        return client.sql(SELECT_RESERVATIONS + "WHERE id = :id")
+                .bind("id", id)
+                .map(ReactiveReservationRepository::toReservation)
+                .one();
+    }
+
+    /**
+     * One page in id order: keyset after {@code afterId} when present, otherwise by offset.
+     */
+    public Flux<Reservation> findPageByFilter(ReservationSearchFilter filter) {
+        int pageSize = filter.pageSize() != null ? filter.pageSize() : 10;
+        int pageNumber = filter.pageNumber() != null ? filter.pageNumber() : 0;
+        Map<String, Object> params = new LinkedHashMap<>();
+        params.put("limit", pageSize);
+
+        String page;
+        if (filter.afterId() != null) {
+            page = "LIMIT :limit";
+        } else {
+            page = "LIMIT :limit OFFSET :offset";
+            params.put("offset", (long) pageSize * pageNumber);
+        }
+        return select(filter, filter.afterId(), page, params);
+    }
+
+    /**
+     * Every match in id order. Rows are fetched as the subscriber requests them.
+     */
+    public Flux<Reservation> findAllByFilter(ReservationSearchFilter filter) {
+        return select(filter, null, "", new LinkedHashMap<>());
+    }
+
+    public Mono<Boolean> hasConflict(
+            Long roomId,
+            LocalDate startDate,
+            LocalDate endDate,
+            ReservationStatus status
+    ) {
+        return client.sql("""
+                        SELECT r.id FROM reservation.reservations r
+                            WHERE r.room_id = :roomId
+                            AND :startDate < r.end_date
+                            AND r.start_date < :endDate
+                            AND r.status = :status
+                            LIMIT 1
+                        """)
+                .bind("roomId", roomId)
+                .bind("startDate", startDate)
+                .bind("endDate", endDate)
+                .bind("status", status.name())
+                .map(row -> row.get("id", Long.class))
+                .first()
+                .hasElement();
+    }
+
+    /**
+     * Same predicates as {@code ReservationSpecifications.byFilter}: only the present filters
+     * reach the SQL, and date bounds use overlap semantics.
+     */
+    private Flux<Reservation> select(
+            ReservationSearchFilter filter,
+            Long afterId,
+            String page,
+            Map<String, Object> params
+    ) {
+        List<String> conditions = new ArrayList<>();
+        if (filter.roomId() != null) {
+            conditions.add("room_id = :roomId");
+            params.put("roomId", filter.roomId());
+        }
+        if (filter.userId() != null) {
+            conditions.add("user_id = :userId");
+            params.put("userId", filter.userId());
+        }
+        if (filter.status() != null) {
+            conditions.add("status = :status");
+            params.put("status", filter.status().name());
+        }
+        if (filter.fromDate() != null) {
+            conditions.add("end_date > :fromDate");
+            params.put("fromDate", filter.fromDate());
+        }
+        if (filter.toDate() != null) {
+            conditions.add("start_date < :toDate");
+            params.put("toDate", filter.toDate());
+        }
+        if (afterId != null) {
+            conditions.add("id > :afterId");
+            params.put("afterId", afterId);
+        }
+
+        var sql = new StringBuilder(SELECT_RESERVATIONS);
+        if (!conditions.isEmpty()) {
+            sql.append("WHERE ").append(String.join(" AND ", conditions)).append('\n');
+        }
+        sql.append("ORDER BY id ").append(page);
+
+        var spec = client.sql(sql.toString());
+        for (var param : params.entrySet()) {
+            spec = spec.bind(param.getKey(), param.getValue());
+        }
+        return spec.map(ReactiveReservationRepository::toReservation).all();
+    }
+
+    private static Reservation toReservation(Readable row) {
+        return new Reservation(
+                row.get("id", Long.class),
+                row.get("user_id", Long.class),
+                row.get("room_id", Long.class),
+                row.get("start_date", LocalDate.class),
+                row.get("end_date", LocalDate.class),
+                ReservationStatus.valueOf(row.get("status", String.class))
+        );
+    }
+}
@@ -0,0 +1,32 @@
+package kg.zhaparov.reservation;
+
+import kg.zhaparov.reservation.reservations.Reservation;
+import kg.zhaparov.reservation.reservations.ReservationEntity;
+import kg.zhaparov.reservation.reservations.ReservationInterval;
+import kg.zhaparov.reservation.reservations.occupancy.RoomNights;
+import kg.zhaparov.reservation.reservations.outbox.ReservationEvent;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReservationRuntimeHintsTests {
+
+    @Test
+    void registersTypesReachedByReflection() {
+        var hints = new RuntimeHints();
+        new ReservationRuntimeHints().registerHints(hints, getClass().getClassLoader());
+        var reflection = RuntimeHintsPredicates.reflection();
+
+        assertThat(reflection.onType(ReservationInterval.class)
+                .withMemberCategory(MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS)).accepts(hints);
+        assertThat(reflection.onType(RoomNights.class)
+                .withMemberCategory(MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS)).accepts(hints);
+        assertThat(reflection.onType(ReservationEntity.class)
+                .withMemberCategory(MemberCategory.ACCESS_DECLARED_FIELDS)).accepts(hints);
+        assertThat(reflection.onType(Reservation.class)).accepts(hints);
+        assertThat(reflection.onType(ReservationEvent.class)).accepts(hints);
+    }
+}
@@ -0,0 +1,78 @@
+package kg.zhaparov.reservation.persistence;
+
+import kg.zhaparov.reservation.reservations.Reservation;
+import kg.zhaparov.reservation.reservations.ReservationService;
+import kg.zhaparov.reservation.reservations.ReservationStatus;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.postgresql.PostgreSQLContainer;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Runs every Flyway migration against a real PostgreSQL and lets Hibernate validate the
+ * entities against the result. The other tests build their schema from the entities on H2,
+ * which has neither the exclusion constraint nor the concurrent index builds.
+ * Skipped where Docker is not available.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=validate",
+        "spring.flyway.enabled=true"
+})
+@Testcontainers(disabledWithoutDocker = true)
+class MigrationTests {
+
+    @Container
+    @ServiceConnection
+    static final PostgreSQLContainer POSTGRES = new PostgreSQLContainer("postgres:17-alpine");
+
+    private static final long ROOM_ID = 170_000L;
+    private static final LocalDate START = LocalDate.now().plusDays(30);
+
+    @Autowired
+    private Flyway flyway;
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void migrationsProduceTheSchemaTheEntitiesExpect() {
+        assertThat(flyway.info().current()).isNotNull();
+        assertThat(flyway.info().pending()).isEmpty();
+    }
+
+    @Test
+    void overlappingApprovalIsRejectedByTheExclusionConstraint() {
+        var approved = create(START, START.plusDays(3));
+        var overlapping = create(START.plusDays(2), START.plusDays(4));
+        assertThat(reservationService.approveReservation(approved.id()).status())
+                .isEqualTo(ReservationStatus.APPROVED);
+
+        // Bypasses the service's conflict check, as a racing node that missed it would.
+        assertThatThrownBy(() -> jdbcTemplate.update(
+                "UPDATE reservation.reservations SET status = 'APPROVED' WHERE id = ?",
+                overlapping.id()
+        ))
+                .isInstanceOf(DataIntegrityViolationException.class)
+                .hasMessageContaining("reservations_approved_no_overlap");
+    }
+
+    private Reservation create(LocalDate startDate, LocalDate endDate) {
+        return reservationService.createReservation(new Reservation(
+                null, 1L, ROOM_ID, startDate, endDate, null
+        ));
+    }
+}
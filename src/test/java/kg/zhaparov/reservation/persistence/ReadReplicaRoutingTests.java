@@ -0,0 +1,117 @@
+package kg.zhaparov.reservation.persistence;
+
+import kg.zhaparov.reservation.reservations.Reservation;
+import kg.zhaparov.reservation.reservations.ReservationNotFoundException;
+import kg.zhaparov.reservation.reservations.ReservationSearchFilter;
+import kg.zhaparov.reservation.reservations.ReservationService;
+import kg.zhaparov.reservation.reservations.ReservationStatus;
+import kg.zhaparov.reservation.reservations.availability.ReservationAvailabilityService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Two embedded databases stand in for a primary and its replica. Replication is not
+ * simulated: rows written only to the replica show which side served a read.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:routing-primary;MODE=PostgreSQL;DB_CLOSE_DELAY=-1;"
+                + "INIT=CREATE SCHEMA IF NOT EXISTS reservation",
+        "reservation.datasource.replicas[0].url=" + ReadReplicaRoutingTests.REPLICA_URL,
+        "reservation.datasource.replicas[0].username=sa",
+        "reservation.datasource.replica-max-lag=1h",
+        "reservation.datasource.replica-check-interval=50ms",
+        "reservation.availability.index.enabled=false"
+})
+@ActiveProfiles("test")
+class ReadReplicaRoutingTests {
+
+    static final String REPLICA_URL = "jdbc:h2:mem:routing-replica;MODE=PostgreSQL;DB_CLOSE_DELAY=-1;"
+            + "INIT=CREATE SCHEMA IF NOT EXISTS reservation";
+
+    private static final long USER_ID = 90_000L;
+    private static final long ROOM_ID = 90_000L;
+    private static final long REPLICA_ONLY_ID = 900_001L;
+    private static final String HEARTBEAT_TABLE = """
+            CREATE TABLE IF NOT EXISTS reservation.replication_heartbeat
+            (id INT PRIMARY KEY, beat_at TIMESTAMP WITH TIME ZONE NOT NULL)
+            """;
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private ReservationAvailabilityService availabilityService;
+
+    @Autowired
+    private ReplicaRoutingDataSource router;
+
+    @Autowired
+    private JdbcTemplate primary;
+
+    @Test
+    void readOnlyCallsUseHealthyReplicaAndWritesStayOnPrimary() throws Exception {
+        LocalDate startDate = LocalDate.now().plusDays(10);
+        LocalDate endDate = startDate.plusDays(2);
+
+        var replica = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", ""));
+        replica.execute("""
+                CREATE TABLE IF NOT EXISTS reservation.reservations
+                (id BIGINT PRIMARY KEY, user_id BIGINT NOT NULL, room_id BIGINT NOT NULL,
+                 start_date DATE NOT NULL, end_date DATE NOT NULL, status VARCHAR(32) NOT NULL,
+                 version BIGINT NOT NULL, updated_at TIMESTAMP WITH TIME ZONE NOT NULL)
+                """);
+        replica.execute(HEARTBEAT_TABLE);
+        replica.update("""
+                INSERT INTO reservation.reservations
+                VALUES (?, ?, ?, ?, ?, 'APPROVED', 0, CURRENT_TIMESTAMP)
+                """, REPLICA_ONLY_ID, USER_ID, ROOM_ID, startDate, endDate);
+        replica.update("INSERT INTO reservation.replication_heartbeat VALUES (1, CURRENT_TIMESTAMP)");
+        primary.execute(HEARTBEAT_TABLE);
+
+        assertThat(await(() -> router.healthyReplicaCount() == 1)).isTrue();
+
+        var filter = new ReservationSearchFilter(null, USER_ID, null, null, null, 10, null, null, null);
+        assertThat(reservationService.searchAllByFilter(filter))
+                .extracting(Reservation::id)
+                .containsExactly(REPLICA_ONLY_ID);
+        // Cached reads go to the primary, a lagging replica must not fill the cache
+        assertThatThrownBy(() -> reservationService.getReservationById(REPLICA_ONLY_ID))
+                .isInstanceOf(ReservationNotFoundException.class);
+        assertThat(availabilityService.isReservationAvailable(ROOM_ID, startDate, endDate)).isFalse();
+
+        var created = reservationService.createReservation(new Reservation(
+                null, USER_ID, ROOM_ID, startDate, endDate, null
+        ));
+        assertThat(reservationService.approveReservation(created.id()).status())
+                .isEqualTo(ReservationStatus.APPROVED);
+        assertThat(reservationService.getReservationById(created.id()).reservation().status())
+                .isEqualTo(ReservationStatus.APPROVED);
+
+        replica.update("UPDATE reservation.replication_heartbeat SET beat_at = DATEADD('HOUR', -2, CURRENT_TIMESTAMP)");
+        assertThat(await(() -> router.healthyReplicaCount() == 0)).isTrue();
+
+        assertThat(reservationService.searchAllByFilter(filter))
+                .extracting(Reservation::id)
+                .containsExactly(created.id());
+        assertThat(availabilityService.isReservationAvailable(ROOM_ID, startDate, endDate)).isFalse();
+        assertThat(availabilityService.isReservationAvailable(ROOM_ID, endDate, endDate.plusDays(1))).isTrue();
+    }
+
+    private static boolean await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+        }
+        return condition.getAsBoolean();
+    }
+}
@@ -0,0 +1,331 @@
+package kg.zhaparov.reservation.persistence;
+
+import jakarta.persistence.EntityManagerFactory;
+import kg.zhaparov.reservation.reservations.Reservation;
+import kg.zhaparov.reservation.reservations.ReservationConflictException;
+import kg.zhaparov.reservation.reservations.ReservationRepository;
+import kg.zhaparov.reservation.reservations.ReservationSearchFilter;
+import kg.zhaparov.reservation.reservations.ReservationService;
+import kg.zhaparov.reservation.reservations.ReservationStatus;
+import kg.zhaparov.reservation.reservations.group.GroupReservationItem;
+import kg.zhaparov.reservation.reservations.group.GroupReservationRequest;
+import kg.zhaparov.reservation.reservations.group.GroupReservationService;
+import kg.zhaparov.reservation.reservations.outbox.ReservationEventType;
+import kg.zhaparov.reservation.reservations.outbox.ReservationOutbox;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.TransactionSystemException;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Three embedded databases stand in for three shards; shard-2 starts outside the ring as a
+ * standby. Flyway is off in tests, so the schema and id ranges of every shard are set up here.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:sharding-0;" + ShardingTests.H2_OPTIONS,
+        "reservation.sharding.shards[0].name=shard-1",
+        "reservation.sharding.shards[0].url=jdbc:h2:mem:sharding-1;" + ShardingTests.H2_OPTIONS,
+        "reservation.sharding.shards[0].username=sa",
+        "reservation.sharding.shards[1].name=shard-2",
+        "reservation.sharding.shards[1].url=jdbc:h2:mem:sharding-2;" + ShardingTests.H2_OPTIONS,
+        "reservation.sharding.shards[1].username=sa",
+        "reservation.sharding.ring=shard-0,shard-1",
+        "reservation.availability.index.enabled=false"
+})
+@ActiveProfiles("test")
+class ShardingTests {
+
+    static final String H2_OPTIONS = "MODE=PostgreSQL;DB_CLOSE_DELAY=-1;INIT=CREATE SCHEMA IF NOT EXISTS reservation";
+
+    private static final long USER_ID = 110_000L;
+    private static final LocalDate START = LocalDate.now().plusDays(20);
+
+    private static boolean shardsPrepared;
+
+    @Autowired
+    private ShardRouter router;
+
+    @Autowired
+    private ShardRebalancer rebalancer;
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private GroupReservationService groupReservationService;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private ReservationOutbox outbox;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ShardRoutingDataSource dataSource;
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    @BeforeEach
+    void prepareShards() {
+        if (shardsPrepared) {
+            return;
+        }
+        List<String> shards = router.shards();
+        for (int i = 0; i < shards.size(); i++) {
+            if (i > 0) {
+                router.onShard(shards.get(i), () -> {
+                    entityManagerFactory.getSchemaManager().create(false);
+                    return null;
+                });
+            }
+            ShardSequences.reserveIdRange(dataSource.getShards().get(shards.get(i)), i);
+        }
+        shardsPrepared = true;
+    }
+
+    @Test
+    void singleRoomCallsGoToTheRoomsShardAndSearchesFanOut() {
+        long roomOnHome = roomOn("shard-0", 110_000L);
+        long roomOnSecond = roomOn("shard-1", 110_000L);
+
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            ids.add(create(USER_ID, roomOnHome, START.plusDays(i * 3L)).id());
+            ids.add(create(USER_ID, roomOnSecond, START.plusDays(i * 3L)).id());
+        }
+
+        assertThat(rowsOf("shard-0", roomOnHome)).isEqualTo(3);
+        assertThat(rowsOf("shard-1", roomOnHome)).isZero();
+        assertThat(rowsOf("shard-1", roomOnSecond)).isEqualTo(3);
+        assertThat(ids).doesNotHaveDuplicates();
+
+        var approved = reservationService.approveReservation(ids.get(1));
+        assertThat(approved.status()).isEqualTo(ReservationStatus.APPROVED);
+        assertThat(reservationService.getReservationById(ids.get(1)).reservation().roomId())
+                .isEqualTo(roomOnSecond);
+
+        var firstPage = searchByUser(USER_ID, 0);
+        var secondPage = searchByUser(USER_ID, 1);
+        assertThat(firstPage).hasSize(4);
+        assertThat(secondPage).hasSize(2);
+        assertThat(Stream.concat(firstPage.stream(), secondPage.stream()).map(Reservation::id))
+                .containsExactlyInAnyOrderElementsOf(ids);
+    }
+
+    @Test
+    void groupAcrossShardsIsReservedAllOrNothing() {
+        long roomOnHome = roomOn("shard-0", 111_000L);
+        long roomOnSecond = roomOn("shard-1", 111_000L);
+        var blocker = create(1L, roomOnSecond, START);
+        reservationService.approveReservation(blocker.id());
+
+        var conflicting = new GroupReservationRequest(USER_ID + 1, List.of(
+                new GroupReservationItem(roomOnHome, START, START.plusDays(2)),
+                new GroupReservationItem(roomOnSecond, START.plusDays(1), START.plusDays(3))
+        ));
+        assertThatThrownBy(() -> groupReservationService.reserveGroup(conflicting))
+                .isInstanceOf(ReservationConflictException.class);
+        assertThat(rowsOf("shard-0", roomOnHome)).isZero();
+
+        var response = groupReservationService.reserveGroup(new GroupReservationRequest(USER_ID + 1, List.of(
+                new GroupReservationItem(roomOnHome, START, START.plusDays(2)),
+                new GroupReservationItem(roomOnSecond, START.plusDays(5), START.plusDays(7))
+        )));
+        assertThat(response.reservations())
+                .extracting(Reservation::status)
+                .containsOnly(ReservationStatus.APPROVED);
+        assertThat(rowsOf("shard-0", roomOnHome)).isEqualTo(1);
+        assertThat(rowsOf("shard-1", roomOnSecond)).isEqualTo(2);
+    }
+
+    @Test
+    void shardsThatCommittedAreUndoneWhenAnotherCommitFails() {
+        long roomOnHome = roomOn("shard-0", 113_000L);
+        long roomOnSecond = roomOn("shard-1", 113_000L);
+
+        Map<String, Supplier<Long>> work = new LinkedHashMap<>();
+        work.put("shard-0", () -> save(roomOnHome));
+        work.put("shard-1", () -> save(roomOnSecond));
+        assertThatThrownBy(() -> router.inTransactionOnShards(
+                work,
+                id -> reservationService.cancelAllIfStatus(List.of(id), ReservationStatus.PENDING),
+                failingCommitsOnSecondShard()
+        )).isInstanceOf(TransactionSystemException.class);
+
+        assertThat(statusesOf("shard-0", roomOnHome)).containsExactly(ReservationStatus.CANCELLED.name());
+        assertThat(statusesOf("shard-1", roomOnSecond)).isEmpty();
+    }
+
+    @Test
+    void undoneApprovalsAreTakenOutOfTheOccupancyAggregates() throws Exception {
+        long roomOnHome = roomOn("shard-0", 114_000L);
+        long roomOnSecond = roomOn("shard-1", 114_000L);
+
+        Map<String, Supplier<Long>> work = new LinkedHashMap<>();
+        work.put("shard-0", () -> saveApproved(roomOnHome));
+        work.put("shard-1", () -> saveApproved(roomOnSecond));
+        assertThatThrownBy(() -> router.inTransactionOnShards(
+                work,
+                id -> reservationService.cancelAllIfStatus(List.of(id), ReservationStatus.APPROVED),
+                failingCommitsOnSecondShard()
+        )).isInstanceOf(TransactionSystemException.class);
+
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        while (unpublishedEventsOf("shard-0", roomOnHome) > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+        }
+        assertThat(unpublishedEventsOf("shard-0", roomOnHome)).isZero();
+        assertThat(statusesOf("shard-0", roomOnHome)).containsExactly(ReservationStatus.CANCELLED.name());
+        assertThat(occupiedNightsOf("shard-0", roomOnHome)).isZero();
+    }
+
+    @Test
+    void adminEndpointsAreOffByDefault() {
+        assertThat(applicationContext.getBeanProvider(ShardAdminController.class).getIfAvailable()).isNull();
+    }
+
+    @Test
+    void rebalanceMovesRoomsOntoTheStandbyShard() {
+        assertThat(rebalancer.rebalance(List.of("shard-0", "shard-1")).failedRooms()).isEmpty();
+
+        List<Long> rooms = new ArrayList<>();
+        List<Long> ids = new ArrayList<>();
+        for (long room = 112_000L; room < 112_040L; room++) {
+            rooms.add(room);
+            ids.add(create(USER_ID + 2, room, START).id());
+        }
+        reservationService.approveReservation(ids.getFirst());
+
+        var report = rebalancer.rebalance(List.of("shard-0", "shard-1", "shard-2"));
+
+        assertThat(report.failedRooms()).isEmpty();
+        assertThat(report.movedRooms()).isPositive();
+        List<Long> moved = rooms.stream()
+                .filter(room -> router.shardFor(room).equals("shard-2"))
+                .toList();
+        assertThat(moved).isNotEmpty();
+        for (Long room : moved) {
+            assertThat(rowsOf("shard-2", room)).isEqualTo(1);
+            assertThat(rowsOf("shard-0", room) + rowsOf("shard-1", room)).isZero();
+        }
+        for (int i = 0; i < ids.size(); i++) {
+            assertThat(reservationService.getReservationById(ids.get(i)).reservation().roomId())
+                    .isEqualTo(rooms.get(i));
+        }
+        assertThat(reservationService.getReservationById(ids.getFirst()).reservation().status())
+                .isEqualTo(ReservationStatus.APPROVED);
+
+        create(USER_ID + 2, moved.getFirst(), START.plusDays(5));
+        assertThat(rowsOf("shard-2", moved.getFirst())).isEqualTo(2);
+        assertThat(searchByUser(USER_ID + 2, 0)).hasSize(4);
+    }
+
+    private long roomOn(String shard, long from) {
+        long room = from;
+        while (!router.shardFor(room).equals(shard)) {
+            room++;
+        }
+        return room;
+    }
+
+    private long rowsOf(String shard, long roomId) {
+        return router.onShard(shard, () -> jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM reservation.reservations WHERE room_id = ?", Long.class, roomId
+        ));
+    }
+
+    private List<String> statusesOf(String shard, long roomId) {
+        return router.onShard(shard, () -> jdbcTemplate.queryForList(
+                "SELECT status FROM reservation.reservations WHERE room_id = ?", String.class, roomId
+        ));
+    }
+
+    private long unpublishedEventsOf(String shard, long roomId) {
+        return router.onShard(shard, () -> jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM reservation.reservation_outbox WHERE room_id = ? AND published_at IS NULL",
+                Long.class,
+                roomId
+        ));
+    }
+
+    private long occupiedNightsOf(String shard, long roomId) {
+        return router.onShard(shard, () -> jdbcTemplate.queryForObject(
+                "SELECT COALESCE(SUM(occupied_nights), 0) FROM reservation.room_occupancy_monthly WHERE room_id = ?",
+                Long.class,
+                roomId
+        ));
+    }
+
+    /**
+     * Rolls back instead of committing on shard-1, as if the connection dropped mid-commit.
+     */
+    private TransactionTemplate failingCommitsOnSecondShard() {
+        return new TransactionTemplate(new JpaTransactionManager(entityManagerFactory) {
+            @Override
+            protected void doCommit(DefaultTransactionStatus status) {
+                if ("shard-1".equals(ShardRouter.currentShard())) {
+                    doRollback(status);
+                    throw new TransactionSystemException("Connection lost during commit");
+                }
+                super.doCommit(status);
+            }
+        });
+    }
+
+    /**
+     * Saves an approved reservation with its outbox event, the way a group write does.
+     */
+    private Long saveApproved(long roomId) {
+        var entity = reservationService.prepareNewReservation(new Reservation(
+                null, USER_ID + 4, roomId, START, START.plusDays(2), null
+        ));
+        entity.setStatus(ReservationStatus.APPROVED);
+        var saved = reservationRepository.saveAndFlush(entity);
+        outbox.recordAll(ReservationEventType.CREATED, List.of(saved), ReservationStatus.APPROVED, null);
+        return saved.getId();
+    }
+
+    private Long save(long roomId) {
+        var entity = reservationService.prepareNewReservation(new Reservation(
+                null, USER_ID + 3, roomId, START, START.plusDays(2), null
+        ));
+        return reservationRepository.saveAndFlush(entity).getId();
+    }
+
+    private Reservation create(long userId, long roomId, LocalDate startDate) {
+        return reservationService.createReservation(new Reservation(
+                null, userId, roomId, startDate, startDate.plusDays(2), null
+        ));
+    }
+
+    private List<Reservation> searchByUser(long userId, int pageNumber) {
+        return reservationService.searchAllByFilter(new ReservationSearchFilter(
+                null, userId, null, null, null, 4, pageNumber, null, null
+        ));
+    }
+}
@@ -0,0 +1,101 @@
+package kg.zhaparov.reservation.reservations;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ReservationApprovalConcurrencyTests {
+
+    private static final long FIRST_ROOM_ID = 10_000L;
+    private static final int ROOMS = 8;
+    private static final int RESERVATIONS_PER_ROOM = 60;
+    private static final LocalDate HORIZON_START = LocalDate.now().plusDays(1);
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private ReservationRepository repository;
+
+    @Test
+    void parallelApprovalsNeverDoubleBookARoom() throws Exception {
+        var random = new Random(42);
+        List<Long> pendingIds = new ArrayList<>();
+        for (int room = 0; room < ROOMS; room++) {
+            for (int i = 0; i < RESERVATIONS_PER_ROOM; i++) {
+                LocalDate startDate = HORIZON_START.plusDays(random.nextInt(60));
+                var created = reservationService.createReservation(new Reservation(
+                        null,
+                        1L,
+                        FIRST_ROOM_ID + room,
+                        startDate,
+                        startDate.plusDays(1 + random.nextInt(7)),
+                        null
+                ));
+                pendingIds.add(created.id());
+            }
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(64);
+        var startSignal = new CountDownLatch(1);
+        List<Future<Boolean>> outcomes = new ArrayList<>();
+        for (Long id : pendingIds) {
+            Callable<Boolean> approval = () -> {
+                startSignal.await();
+                try {
+                    reservationService.approveReservation(id);
+                    return true;
+                } catch (ReservationConflictException e) {
+                    return false;
+                }
+            };
+            outcomes.add(executor.submit(approval));
+        }
+        startSignal.countDown();
+
+        int approvedCount = 0;
+        for (Future<Boolean> outcome : outcomes) {
+            if (outcome.get()) {
+                approvedCount++;
+            }
+        }
+        executor.shutdown();
+
+        Map<Long, List<ReservationInterval>> approvedByRoom = repository
+                .findIntervalsByStatus(ReservationStatus.APPROVED).stream()
+                .filter(interval -> interval.roomId() >= FIRST_ROOM_ID
+                        && interval.roomId() < FIRST_ROOM_ID + ROOMS)
+                .collect(Collectors.groupingBy(ReservationInterval::roomId));
+
+        assertThat(approvedByRoom).hasSize(ROOMS);
+        assertThat(approvedByRoom.values().stream().mapToInt(List::size).sum())
+                .isEqualTo(approvedCount);
+
+        for (List<ReservationInterval> intervals : approvedByRoom.values()) {
+            var sorted = new ArrayList<>(intervals);
+            sorted.sort(Comparator.comparing(ReservationInterval::startDate));
+            for (int i = 1; i < sorted.size(); i++) {
+                assertThat(sorted.get(i).startDate())
+                        .isAfterOrEqualTo(sorted.get(i - 1).endDate());
+            }
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package kg.zhaparov.reservation.reservations;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ReservationCacheTests {
+
+    private static final long USER_ID = 160_000L;
+    private static final long ROOM_ID = 160_000L;
+    private static final LocalDate START = LocalDate.now().plusDays(5);
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void updateAndApproveEvictTheCachedReservation() {
+        var created = create(ROOM_ID);
+        assertThat(cachedAfterRead(created.id()).reservation()).isEqualTo(created);
+
+        var updated = reservationService.updateReservation(created.id(), new Reservation(
+                null, USER_ID, ROOM_ID, START.plusDays(1), START.plusDays(4), null
+        ));
+        assertThat(cache().get(created.id())).isNull();
+        assertThat(cachedAfterRead(created.id()).reservation()).isEqualTo(updated);
+
+        reservationService.approveReservation(created.id());
+        assertThat(cache().get(created.id())).isNull();
+        assertThat(cachedAfterRead(created.id()).reservation().status()).isEqualTo(ReservationStatus.APPROVED);
+    }
+
+    @Test
+    void cancelEvictsTheCachedReservation() {
+        var created = create(ROOM_ID + 1);
+        assertThat(cachedAfterRead(created.id()).reservation().status()).isEqualTo(ReservationStatus.PENDING);
+
+        reservationService.cancelReservation(created.id());
+
+        assertThat(cache().get(created.id())).isNull();
+        assertThat(cachedAfterRead(created.id()).reservation().status()).isEqualTo(ReservationStatus.CANCELLED);
+    }
+
+    @Test
+    void undoOfACrossShardWriteEvictsTheCancelledReservations() {
+        var created = create(ROOM_ID + 2);
+        assertThat(cachedAfterRead(created.id()).reservation().status()).isEqualTo(ReservationStatus.PENDING);
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            reservationService.cancelAllIfStatus(List.of(created.id()), ReservationStatus.PENDING);
+            assertThat(cache().get(created.id())).isNotNull();
+        });
+
+        assertThat(cache().get(created.id())).isNull();
+        assertThat(cachedAfterRead(created.id()).reservation().status()).isEqualTo(ReservationStatus.CANCELLED);
+    }
+
+    /**
+     * Reads the reservation and checks that the read left it in the cache.
+     */
+    private VersionedReservation cachedAfterRead(Long id) {
+        var reservation = reservationService.getReservationById(id);
+        assertThat(cache().get(id, VersionedReservation.class)).isEqualTo(reservation);
+        return reservation;
+    }
+
+    private Cache cache() {
+        return cacheManager.getCache(ReservationService.RESERVATIONS_CACHE);
+    }
+
+    private Reservation create(long roomId) {
+        return reservationService.createReservation(new Reservation(
+                null, USER_ID, roomId, START, START.plusDays(2), null
+        ));
+    }
+}
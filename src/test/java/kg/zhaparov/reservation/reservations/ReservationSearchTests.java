@@ -0,0 +1,82 @@
+package kg.zhaparov.reservation.reservations;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ReservationSearchTests {
+
+    private static final long USER_ID = 150_000L;
+    private static final LocalDate START = LocalDate.now().plusDays(5);
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private ReservationController reservationController;
+
+    @Autowired
+    private JsonMapper jsonMapper;
+
+    @Test
+    void keysetPagesFollowIdsAndSkipRowsOfOtherFilters() {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            ids.add(create(USER_ID, 150_000L + i).id());
+            create(USER_ID + 1, 150_000L + i);
+        }
+
+        List<Long> paged = new ArrayList<>();
+        Long afterId = null;
+        List<Reservation> page;
+        do {
+            // With afterId the page number is ignored
+            Integer pageNumber = afterId != null ? 7 : null;
+            page = reservationService.searchAllByFilter(new ReservationSearchFilter(
+                    null, USER_ID, null, null, null, 2, pageNumber, afterId, null
+            ));
+            assertThat(page.size()).isLessThanOrEqualTo(2);
+            page.forEach(reservation -> paged.add(reservation.id()));
+            afterId = page.isEmpty() ? afterId : page.getLast().id();
+        } while (page.size() == 2);
+
+        assertThat(paged).containsExactlyElementsOf(ids);
+    }
+
+    @Test
+    void exportWritesOneJsonObjectPerLine() throws Exception {
+        List<Reservation> created = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            created.add(create(USER_ID + 2, 151_000L + i));
+        }
+
+        var response = reservationController.exportReservations(null, USER_ID + 2, null, null, null);
+        var output = new ByteArrayOutputStream();
+        response.getBody().writeTo(output);
+
+        assertThat(response.getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_NDJSON);
+        List<Reservation> exported = output.toString(StandardCharsets.UTF_8).lines()
+                .map(line -> jsonMapper.readValue(line, Reservation.class))
+                .toList();
+        assertThat(exported).containsExactlyInAnyOrderElementsOf(created);
+    }
+
+    private Reservation create(long userId, long roomId) {
+        return reservationService.createReservation(new Reservation(
+                null, userId, roomId, START, START.plusDays(2), null
+        ));
+    }
+}
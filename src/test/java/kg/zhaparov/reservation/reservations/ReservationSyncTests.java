@@ -0,0 +1,100 @@
+package kg.zhaparov.reservation.reservations;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.function.Predicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ReservationSyncTests {
+
+    private static final long USER_ID = 80_000L;
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void etagFollowsVersionsAndDeltaReturnsOnlyChanges() throws Exception {
+        var filter = new ReservationSearchFilter(null, USER_ID, null, null, null, 10, null, null, null);
+        var empty = reservationService.searchSnapshotByFilter(filter);
+        assertThat(empty.reservations()).isEmpty();
+
+        var first = create(80_000L);
+        var second = create(80_001L);
+
+        String etag = ReservationEtags.of(reservationService.searchVersionedByFilter(filter));
+        assertThat(ReservationEtags.of(reservationService.searchVersionedByFilter(filter))).isEqualTo(etag);
+
+        var created = pollUntil(filter, empty.nextSince(), changes -> changes.reservations().size() == 2);
+        assertThat(created.reservations())
+                .extracting(changed -> changed.reservation().id())
+                .containsExactly(first.id(), second.id());
+
+        long versionBefore = reservationService.getReservationById(first.id()).version();
+        reservationService.approveReservation(first.id());
+
+        var approved = reservationService.getReservationById(first.id());
+        assertThat(approved.version()).isGreaterThan(versionBefore);
+        assertThat(ReservationEtags.of(reservationService.searchVersionedByFilter(filter))).isNotEqualTo(etag);
+
+        var delta = pollUntil(filter, created.nextSince(), changes -> !changes.reservations().isEmpty());
+        assertThat(delta.reservations()).containsExactly(approved);
+        assertThat(reservationService.findChangedSince(filter, delta.nextSince()).reservations()).isEmpty();
+    }
+
+    @Test
+    void tokenOlderThanTheRetainedOutboxIsRejected() {
+        var filter = new ReservationSearchFilter(null, USER_ID + 1, null, null, null, 10, null, null, null);
+        var snapshot = reservationService.searchSnapshotByFilter(filter);
+        prunedThrough(Long.parseLong(snapshot.nextSince()) + 1);
+        try {
+            assertThatThrownBy(() -> reservationService.findChangedSince(filter, snapshot.nextSince()))
+                    .isInstanceOf(SyncTokenExpiredException.class);
+        } finally {
+            prunedThrough(0);
+        }
+    }
+
+    private void prunedThrough(long position) {
+        int updated = jdbcTemplate.update(
+                "UPDATE reservation.reservation_outbox_cursor SET pruned_position = ?", position
+        );
+        if (updated == 0) {
+            jdbcTemplate.update(
+                    "INSERT INTO reservation.reservation_outbox_cursor (id, last_position, pruned_position) VALUES (1, 0, ?)",
+                    position
+            );
+        }
+    }
+
+    private ReservationChanges pollUntil(
+            ReservationSearchFilter filter,
+            String since,
+            Predicate<ReservationChanges> condition
+    ) throws InterruptedException {
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        var changes = reservationService.findChangedSince(filter, since);
+        while (!condition.test(changes) && System.nanoTime() < deadline) {
+            Thread.sleep(100);
+            changes = reservationService.findChangedSince(filter, since);
+        }
+        return changes;
+    }
+
+    private Reservation create(long roomId) {
+        return reservationService.createReservation(new Reservation(
+                null, USER_ID, roomId, LocalDate.now().plusDays(3), LocalDate.now().plusDays(5), null
+        ));
+    }
+}
@@ -0,0 +1,103 @@
+package kg.zhaparov.reservation.reservations.approval;
+
+import kg.zhaparov.reservation.reservations.Reservation;
+import kg.zhaparov.reservation.reservations.ReservationInterval;
+import kg.zhaparov.reservation.reservations.ReservationRepository;
+import kg.zhaparov.reservation.reservations.ReservationService;
+import kg.zhaparov.reservation.reservations.ReservationStatus;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ApprovalPipelineTests {
+
+    private static final long FIRST_ROOM_ID = 20_000L;
+    private static final int ROOMS = 5;
+    private static final int RESERVATIONS_PER_ROOM = 40;
+    private static final LocalDate HORIZON_START = LocalDate.now().plusDays(1);
+
+    @Autowired
+    private ApprovalPipeline pipeline;
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private ReservationRepository repository;
+
+    @Test
+    void queuedApprovalsAreResolvedPerRoomWithoutOverlap() throws Exception {
+        var random = new Random(7);
+        List<Long> ids = new ArrayList<>();
+        for (int room = 0; room < ROOMS; room++) {
+            for (int i = 0; i < RESERVATIONS_PER_ROOM; i++) {
+                LocalDate startDate = HORIZON_START.plusDays(random.nextInt(40));
+                ids.add(create(FIRST_ROOM_ID + room, startDate, startDate.plusDays(1 + random.nextInt(5))));
+            }
+        }
+        Long alreadyApproved = create(FIRST_ROOM_ID, HORIZON_START.plusDays(100), HORIZON_START.plusDays(103));
+        reservationService.approveReservation(alreadyApproved);
+        Long overlapsApproved = create(FIRST_ROOM_ID, HORIZON_START.plusDays(101), HORIZON_START.plusDays(102));
+        Long cancelled = create(FIRST_ROOM_ID, HORIZON_START.plusDays(200), HORIZON_START.plusDays(201));
+        reservationService.cancelReservation(cancelled);
+        ids.addAll(List.of(overlapsApproved, cancelled, Long.MAX_VALUE));
+
+        var job = pipeline.submit(ids);
+        var response = awaitCompletion(job);
+
+        assertThat(response.total()).isEqualTo(ids.size());
+        assertThat(response.results()).hasSize(ids.size());
+        Map<Long, ApprovalOutcome> outcomes = response.results().stream()
+                .collect(Collectors.toMap(ApprovalResult::reservationId, ApprovalResult::outcome));
+        assertThat(outcomes.get(overlapsApproved)).isEqualTo(ApprovalOutcome.CONFLICT);
+        assertThat(outcomes.get(cancelled)).isEqualTo(ApprovalOutcome.INVALID_STATUS);
+        assertThat(outcomes.get(Long.MAX_VALUE)).isEqualTo(ApprovalOutcome.NOT_FOUND);
+
+        Map<Long, List<ReservationInterval>> approvedByRoom = repository
+                .findIntervalsByStatus(ReservationStatus.APPROVED).stream()
+                .filter(interval -> interval.roomId() >= FIRST_ROOM_ID
+                        && interval.roomId() < FIRST_ROOM_ID + ROOMS)
+                .collect(Collectors.groupingBy(ReservationInterval::roomId));
+        assertThat(approvedByRoom.values().stream().mapToInt(List::size).sum())
+                .isEqualTo(response.approved() + 1);
+
+        for (List<ReservationInterval> intervals : approvedByRoom.values()) {
+            var sorted = new ArrayList<>(intervals);
+            sorted.sort(Comparator.comparing(ReservationInterval::startDate));
+            for (int i = 1; i < sorted.size(); i++) {
+                assertThat(sorted.get(i).startDate())
+                        .isAfterOrEqualTo(sorted.get(i - 1).endDate());
+            }
+        }
+    }
+
+    private Long create(Long roomId, LocalDate startDate, LocalDate endDate) {
+        return reservationService.createReservation(new Reservation(
+                null, 1L, roomId, startDate, endDate, null
+        )).id();
+    }
+
+    private static ApprovalJobResponse awaitCompletion(ApprovalJob job) throws InterruptedException {
+        long deadline = System.nanoTime() + 30_000_000_000L;
+        var response = job.snapshot();
+        while (response.state() != ApprovalJobState.COMPLETED && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+            response = job.snapshot();
+        }
+        assertThat(response.state()).isEqualTo(ApprovalJobState.COMPLETED);
+        return response;
+    }
+}
@@ -0,0 +1,73 @@
+package kg.zhaparov.reservation.reservations.archive;
+
+import kg.zhaparov.reservation.reservations.Reservation;
+import kg.zhaparov.reservation.reservations.ReservationNotFoundException;
+import kg.zhaparov.reservation.reservations.ReservationSearchFilter;
+import kg.zhaparov.reservation.reservations.ReservationService;
+import kg.zhaparov.reservation.reservations.ReservationStatus;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ReservationArchiveTests {
+
+    private static final long USER_ID = 60_000L;
+    private static final long ROOM_ID = 60_000L;
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private ReservationArchiver archiver;
+
+    @Test
+    void pastStaysMoveToTheArchiveAndStaySearchable() {
+        LocalDate longAgo = LocalDate.now().minusYears(2);
+        var oldApproved = create(longAgo, longAgo.plusDays(3));
+        var oldPending = create(longAgo.plusDays(10), longAgo.plusDays(12));
+        var upcoming = create(LocalDate.now().plusDays(30), LocalDate.now().plusDays(32));
+        reservationService.approveReservation(oldApproved.id());
+
+        assertThat(archiver.archiveAll(LocalDate.now().minusDays(180))).isEqualTo(2);
+
+        assertThatThrownBy(() -> reservationService.getReservationById(oldApproved.id()))
+                .isInstanceOf(ReservationNotFoundException.class)
+                .satisfies(e -> assertThat(e.getStackTrace()).isEmpty());
+        assertThat(search(false, null, 10)).extracting(Reservation::id)
+                .containsExactly(upcoming.id());
+
+        assertThat(search(true, null, 10))
+                .extracting(Reservation::id, Reservation::status)
+                .containsExactly(
+                        tuple(oldApproved.id(), ReservationStatus.APPROVED),
+                        tuple(oldPending.id(), ReservationStatus.PENDING),
+                        tuple(upcoming.id(), ReservationStatus.PENDING)
+                );
+        assertThat(search(true, oldPending.id(), 1)).extracting(Reservation::id)
+                .containsExactly(upcoming.id());
+        assertThat(search(true, oldApproved.id(), 1)).extracting(Reservation::id)
+                .containsExactly(oldPending.id());
+    }
+
+    private Reservation create(LocalDate startDate, LocalDate endDate) {
+        return reservationService.createReservation(new Reservation(
+                null, USER_ID, ROOM_ID, startDate, endDate, null
+        ));
+    }
+
+    private List<Reservation> search(boolean includeArchived, Long afterId, int pageSize) {
+        return reservationService.searchAllByFilter(new ReservationSearchFilter(
+                null, USER_ID, null, null, null, pageSize, null, afterId, includeArchived
+        ));
+    }
+}
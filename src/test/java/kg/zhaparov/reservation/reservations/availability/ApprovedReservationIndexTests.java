@@ -0,0 +1,76 @@
+package kg.zhaparov.reservation.reservations.availability;
+
+import kg.zhaparov.reservation.reservations.ReservationInterval;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ApprovedReservationIndexTests {
+
+    private static final LocalDate DAY = LocalDate.of(2030, 1, 1);
+
+    @Test
+    void detectsOverlapWithHalfOpenRanges() {
+        var index = new ApprovedReservationIndex();
+        index.load(List.of(
+                new ReservationInterval(1L, 10L, DAY.plusDays(5), DAY.plusDays(10))
+        ));
+
+        assertThat(index.hasConflict(10L, DAY.plusDays(9), DAY.plusDays(12))).isTrue();
+        assertThat(index.hasConflict(10L, DAY.plusDays(1), DAY.plusDays(6))).isTrue();
+        assertThat(index.hasConflict(10L, DAY.plusDays(6), DAY.plusDays(7))).isTrue();
+        assertThat(index.hasConflict(10L, DAY.plusDays(10), DAY.plusDays(12))).isFalse();
+        assertThat(index.hasConflict(10L, DAY, DAY.plusDays(5))).isFalse();
+        assertThat(index.hasConflict(11L, DAY.plusDays(6), DAY.plusDays(7))).isFalse();
+    }
+
+    @Test
+    void findsLongIntervalHiddenBehindShorterOnes() {
+        var index = new ApprovedReservationIndex();
+        index.load(List.of(
+                new ReservationInterval(1L, 10L, DAY, DAY.plusDays(30)),
+                new ReservationInterval(2L, 10L, DAY.plusDays(2), DAY.plusDays(3))
+        ));
+
+        assertThat(index.hasConflict(10L, DAY.plusDays(20), DAY.plusDays(21))).isTrue();
+    }
+
+    @Test
+    void reflectsAddAndRemove() {
+        var index = new ApprovedReservationIndex();
+        index.load(List.of());
+
+        index.add(1L, 10L, DAY, DAY.plusDays(3));
+        index.add(2L, 10L, DAY.plusDays(7), DAY.plusDays(9));
+        assertThat(index.hasConflict(10L, DAY.plusDays(8), DAY.plusDays(10))).isTrue();
+
+        index.remove(2L, 10L);
+        assertThat(index.hasConflict(10L, DAY.plusDays(8), DAY.plusDays(10))).isFalse();
+        assertThat(index.hasConflict(10L, DAY.plusDays(2), DAY.plusDays(4))).isTrue();
+
+        index.remove(1L, 10L);
+        assertThat(index.findIntervals(10L)).isEmpty();
+    }
+
+    @Test
+    void prunesIntervalsThatEndedBeforeTheCutoff() {
+        var index = new ApprovedReservationIndex();
+        index.load(List.of(
+                new ReservationInterval(1L, 10L, DAY, DAY.plusDays(30)),
+                new ReservationInterval(2L, 10L, DAY.plusDays(2), DAY.plusDays(3)),
+                new ReservationInterval(3L, 11L, DAY, DAY.plusDays(4))
+        ));
+
+        index.removeEndedBefore(DAY.plusDays(4));
+
+        assertThat(index.findIntervals(10L)).extracting(ReservationInterval::id).containsExactly(1L);
+        assertThat(index.findIntervals(11L)).extracting(ReservationInterval::id).containsExactly(3L);
+        assertThat(index.hasConflict(10L, DAY.plusDays(2), DAY.plusDays(3))).isTrue();
+
+        index.removeEndedBefore(DAY.plusDays(5));
+        assertThat(index.findIntervals(11L)).isEmpty();
+    }
+}
@@ -0,0 +1,146 @@
+package kg.zhaparov.reservation.reservations.availability;
+
+import kg.zhaparov.reservation.reservations.InvalidReservationRequestException;
+import kg.zhaparov.reservation.reservations.Reservation;
+import kg.zhaparov.reservation.reservations.ReservationService;
+import kg.zhaparov.reservation.reservations.ReservationStatus;
+import kg.zhaparov.reservation.reservations.outbox.ReservationEventType;
+import kg.zhaparov.reservation.reservations.outbox.ReservationOutboxEntity;
+import kg.zhaparov.reservation.reservations.outbox.ReservationOutboxRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ReservationAvailabilityServiceTests {
+
+    private static final long ROOM_ID = 120_000L;
+    private static final long USER_ID = 120_000L;
+    private static final LocalDate START = LocalDate.now().plusDays(60);
+
+    @Autowired
+    private ReservationAvailabilityService availabilityService;
+
+    @Autowired
+    private ReservationOutboxRepository outboxRepository;
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Test
+    void batchIsCheckedInRequestOrder() {
+        long room = ROOM_ID + 1;
+        approve(room, START.plusDays(2), START.plusDays(4));
+        reservationService.createReservation(new Reservation(
+                null, USER_ID, room + 1, START, START.plusDays(3), null
+        ));
+
+        var result = availabilityService.areReservationsAvailable(List.of(
+                new CheckAvailabilityRequest(room, START.plusDays(3), START.plusDays(5)),
+                new CheckAvailabilityRequest(room, START, START.plusDays(2)),
+                new CheckAvailabilityRequest(room, START.plusDays(4), START.plusDays(6)),
+                new CheckAvailabilityRequest(room + 1, START, START.plusDays(3)),
+                new CheckAvailabilityRequest(room, START.plusDays(1), START.plusDays(3))
+        ));
+
+        assertThat(result).containsExactly(false, true, true, true, false);
+    }
+
+    @Test
+    void batchOverTheLimitOrWithInvalidDatesIsRejected() {
+        var request = new CheckAvailabilityRequest(ROOM_ID + 3, START, START.plusDays(1));
+        assertThatThrownBy(() -> availabilityService.areReservationsAvailable(Collections.nCopies(1001, request)))
+                .isInstanceOf(InvalidReservationRequestException.class)
+                .hasMessage("Batch size should not exceed 1000");
+        assertThatThrownBy(() -> availabilityService.areReservationsAvailable(List.of(
+                request,
+                new CheckAvailabilityRequest(ROOM_ID + 3, START, START)
+        ))).isInstanceOf(InvalidReservationRequestException.class);
+        assertThat(availabilityService.areReservationsAvailable(List.of())).isEmpty();
+    }
+
+    @Test
+    void freeSlotsSkipZeroLengthGapsAndShortWindows() {
+        long room = ROOM_ID + 4;
+        approve(room, START.plusDays(2), START.plusDays(4));
+        approve(room, START.plusDays(4), START.plusDays(6));
+        approve(room, START.plusDays(8), START.plusDays(9));
+
+        var slots = availabilityService.findFreeSlots(new FreeSlotSearchRequest(
+                List.of(room, room + 1, room), START, START.plusDays(10), null
+        ));
+
+        assertThat(slots).extracting(RoomFreeSlotsResponse::roomId).containsExactly(room, room + 1);
+        assertThat(slots.getFirst().freeSlots()).containsExactly(
+                new FreeSlot(START, START.plusDays(2), 2),
+                new FreeSlot(START.plusDays(6), START.plusDays(8), 2),
+                new FreeSlot(START.plusDays(9), START.plusDays(10), 1)
+        );
+        assertThat(slots.getLast().freeSlots()).containsExactly(new FreeSlot(START, START.plusDays(10), 10));
+
+        var longSlots = availabilityService.findFreeSlots(new FreeSlotSearchRequest(
+                List.of(room), START.plusDays(1), START.plusDays(10), 2
+        ));
+        assertThat(longSlots.getFirst().freeSlots()).containsExactly(
+                new FreeSlot(START.plusDays(6), START.plusDays(8), 2)
+        );
+    }
+
+    @Test
+    void freeSlotHorizonIsCapped() {
+        var request = new FreeSlotSearchRequest(List.of(ROOM_ID + 6), START, START.plusDays(731), null);
+
+        assertThatThrownBy(() -> availabilityService.findFreeSlots(request))
+                .isInstanceOf(InvalidReservationRequestException.class)
+                .hasMessage("Search horizon should not exceed 730 days");
+        assertThat(availabilityService.findFreeSlots(new FreeSlotSearchRequest(
+                List.of(ROOM_ID + 6), START, START.plusDays(730), null
+        )).getFirst().freeSlots()).containsExactly(new FreeSlot(START, START.plusDays(730), 730));
+    }
+
+    @Test
+    void approvalsOfOtherNodesReachTheIndexThroughTheOutbox() throws Exception {
+        LocalDate startDate = LocalDate.now().plusDays(30);
+        LocalDate endDate = startDate.plusDays(3);
+        assertThat(availabilityService.isReservationAvailable(ROOM_ID, startDate, endDate)).isTrue();
+
+        // Written as another node would: the row commits, nothing registers it locally
+        outboxRepository.save(new ReservationOutboxEntity(
+                ReservationEventType.APPROVED,
+                999_999L,
+                1L,
+                ROOM_ID,
+                startDate,
+                endDate,
+                ReservationStatus.APPROVED,
+                ReservationStatus.PENDING,
+                Instant.now()
+        ));
+
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        while (availabilityService.isReservationAvailable(ROOM_ID, startDate, endDate)
+                && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+        }
+        assertThat(availabilityService.isReservationAvailable(ROOM_ID, startDate.plusDays(1), startDate.plusDays(2)))
+                .isFalse();
+        assertThat(availabilityService.isReservationAvailable(ROOM_ID, endDate, endDate.plusDays(1))).isTrue();
+    }
+
+    private void approve(long roomId, LocalDate startDate, LocalDate endDate) {
+        var created = reservationService.createReservation(new Reservation(
+                null, USER_ID, roomId, startDate, endDate, null
+        ));
+        reservationService.approveReservation(created.id());
+    }
+}
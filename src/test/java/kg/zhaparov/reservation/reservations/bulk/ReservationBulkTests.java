@@ -0,0 +1,113 @@
+package kg.zhaparov.reservation.reservations.bulk;
+
+import kg.zhaparov.reservation.reservations.InvalidReservationRequestException;
+import kg.zhaparov.reservation.reservations.Reservation;
+import kg.zhaparov.reservation.reservations.ReservationSearchFilter;
+import kg.zhaparov.reservation.reservations.ReservationService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ReservationBulkTests {
+
+    private static final long USER_ID = 120_000L;
+    private static final long ROOM_ID = 120_000L;
+    private static final LocalDate START = LocalDate.now().plusDays(10);
+
+    @Autowired
+    private ReservationBulkService bulkService;
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void importSkipsAndReportsInvalidRows() {
+        String csv = """
+                userId,roomId,startDate,endDate
+                %d,%d,%s,%s
+                %d,%d,not-a-date,%s
+                %d,%d,%s,%s
+                %d,%d
+                %d,%d,%s,%s
+                """.formatted(
+                USER_ID, ROOM_ID, START, START.plusDays(2),
+                USER_ID, ROOM_ID, START.plusDays(2),
+                USER_ID, ROOM_ID + 1, START.plusDays(3), START.plusDays(1),
+                USER_ID, ROOM_ID,
+                USER_ID, ROOM_ID + 2, START, START.plusDays(1)
+        );
+
+        var response = bulkService.importReservations(
+                new BufferedReader(new StringReader(csv)),
+                ReservationImportFormat.CSV
+        );
+
+        assertThat(response.imported()).isEqualTo(2);
+        assertThat(response.rejected()).isEqualTo(3);
+        assertThat(response.errors())
+                .hasSize(3)
+                .satisfiesExactly(
+                        error -> assertThat(error).startsWith("Line 3: Malformed row"),
+                        error -> assertThat(error).isEqualTo("Line 4: Start date should be before end date"),
+                        error -> assertThat(error).startsWith("Line 5: Expected columns")
+                );
+        assertThat(reservationsOf(USER_ID))
+                .extracting(Reservation::roomId)
+                .containsExactlyInAnyOrder(ROOM_ID, ROOM_ID + 2);
+    }
+
+    @Test
+    void bulkOverTheLimitIsRejected() {
+        var reservation = new Reservation(null, USER_ID + 1, ROOM_ID, START, START.plusDays(1), null);
+
+        assertThatThrownBy(() -> bulkService.createReservations(Collections.nCopies(10_001, reservation)))
+                .isInstanceOf(InvalidReservationRequestException.class)
+                .hasMessage("Bulk size should not exceed 10000");
+        assertThat(reservationsOf(USER_ID + 1)).isEmpty();
+    }
+
+    @Test
+    void bulkIsRolledBackWhenARowConflicts() {
+        long rejectedUserId = USER_ID + 3;
+        List<Reservation> reservations = new ArrayList<>();
+        for (int i = 0; i < 600; i++) {
+            long userId = i == 550 ? rejectedUserId : USER_ID + 2;
+            reservations.add(new Reservation(null, userId, ROOM_ID + i, START, START.plusDays(1), null));
+        }
+        // Stands in for a row the database rejects after the first chunk was written
+        jdbcTemplate.execute("ALTER TABLE reservation.reservations ADD CONSTRAINT bulk_test_user_check CHECK (user_id <> "
+                + rejectedUserId + ")");
+        try {
+            assertThatThrownBy(() -> bulkService.createReservations(reservations))
+                    .hasMessageContaining("BULK_TEST_USER_CHECK");
+        } finally {
+            jdbcTemplate.execute("ALTER TABLE reservation.reservations DROP CONSTRAINT bulk_test_user_check");
+        }
+
+        assertThat(reservationsOf(USER_ID + 2)).isEmpty();
+        assertThat(bulkService.createReservations(reservations.subList(0, 550)).created()).isEqualTo(550);
+    }
+
+    private List<Reservation> reservationsOf(long userId) {
+        return reservationService.searchAllByFilter(new ReservationSearchFilter(
+                null, userId, null, null, null, 100, null, null, null
+        ));
+    }
+}
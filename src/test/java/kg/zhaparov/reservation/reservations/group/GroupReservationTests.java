@@ -0,0 +1,82 @@
+package kg.zhaparov.reservation.reservations.group;
+
+import kg.zhaparov.reservation.reservations.Reservation;
+import kg.zhaparov.reservation.reservations.InvalidReservationRequestException;
+import kg.zhaparov.reservation.reservations.ReservationConflictException;
+import kg.zhaparov.reservation.reservations.ReservationRepository;
+import kg.zhaparov.reservation.reservations.ReservationSearchFilter;
+import kg.zhaparov.reservation.reservations.ReservationService;
+import kg.zhaparov.reservation.reservations.ReservationStatus;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class GroupReservationTests {
+
+    private static final long FIRST_ROOM_ID = 40_000L;
+    private static final long USER_ID = 40_000L;
+    private static final LocalDate START = LocalDate.now().plusDays(5);
+
+    @Autowired
+    private GroupReservationService groupReservationService;
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private ReservationRepository repository;
+
+    @Test
+    void groupIsReservedAllOrNothing() {
+        List<GroupReservationItem> items = new ArrayList<>();
+        for (int room = 0; room < 200; room++) {
+            items.add(new GroupReservationItem(FIRST_ROOM_ID + room, START, START.plusDays(3)));
+        }
+        var response = groupReservationService.reserveGroup(new GroupReservationRequest(USER_ID, items));
+
+        assertThat(response.size()).isEqualTo(200);
+        assertThat(response.reservations())
+                .extracting(Reservation::status)
+                .containsOnly(ReservationStatus.APPROVED);
+
+        var blocker = reservationService.createReservation(new Reservation(
+                null, 1L, FIRST_ROOM_ID + 500, START.plusDays(10), START.plusDays(12), null
+        ));
+        reservationService.approveReservation(blocker.id());
+
+        long before = repository.count();
+        var conflicting = new GroupReservationRequest(USER_ID, List.of(
+                new GroupReservationItem(FIRST_ROOM_ID + 501, START.plusDays(10), START.plusDays(12)),
+                new GroupReservationItem(FIRST_ROOM_ID + 500, START.plusDays(11), START.plusDays(13)),
+                new GroupReservationItem(FIRST_ROOM_ID + 502, START.plusDays(10), START.plusDays(12))
+        ));
+        assertThatThrownBy(() -> groupReservationService.reserveGroup(conflicting))
+                .isInstanceOf(ReservationConflictException.class)
+                .hasMessageContaining(String.valueOf(FIRST_ROOM_ID + 500));
+
+        assertThat(repository.count()).isEqualTo(before);
+        assertThat(reservationService.searchAllByFilter(new ReservationSearchFilter(
+                FIRST_ROOM_ID + 501, null, null, null, null, 10, 0, null, null
+        ))).isEmpty();
+    }
+
+    @Test
+    void overlappingItemsForOneRoomAreRejected() {
+        var request = new GroupReservationRequest(USER_ID, List.of(
+                new GroupReservationItem(FIRST_ROOM_ID + 900, START, START.plusDays(3)),
+                new GroupReservationItem(FIRST_ROOM_ID + 900, START.plusDays(2), START.plusDays(4))
+        ));
+        assertThatThrownBy(() -> groupReservationService.reserveGroup(request))
+                .isInstanceOf(InvalidReservationRequestException.class);
+    }
+}
@@ -0,0 +1,137 @@
+package kg.zhaparov.reservation.reservations.idempotency;
+
+import kg.zhaparov.reservation.reservations.InvalidReservationRequestException;
+import kg.zhaparov.reservation.reservations.Reservation;
+import kg.zhaparov.reservation.reservations.ReservationConflictException;
+import kg.zhaparov.reservation.reservations.ReservationSearchFilter;
+import kg.zhaparov.reservation.reservations.ReservationService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class IdempotencyTests {
+
+    private static final long USER_ID = 70_000L;
+    private static final long ROOM_ID = 70_000L;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Test
+    void concurrentRetriesCreateOneReservation() throws Exception {
+        var request = new Reservation(
+                null, USER_ID, ROOM_ID, LocalDate.now().plusDays(5), LocalDate.now().plusDays(7), null
+        );
+        int threads = 8;
+        var start = new CountDownLatch(1);
+        List<Future<Reservation>> results = new ArrayList<>();
+        try (var executor = Executors.newFixedThreadPool(threads)) {
+            for (int i = 0; i < threads; i++) {
+                Callable<Reservation> retry = () -> {
+                    start.await();
+                    return create("create-70000", request);
+                };
+                results.add(executor.submit(retry));
+            }
+            start.countDown();
+        }
+
+        Long id = results.getFirst().get().id();
+        for (Future<Reservation> result : results) {
+            assertThat(result.get().id()).isEqualTo(id);
+        }
+        assertThat(create("create-70000", request).id()).isEqualTo(id);
+        assertThat(reservationService.searchAllByFilter(new ReservationSearchFilter(
+                null, USER_ID, null, null, null, 10, null, null, null
+        ))).extracting(Reservation::id).containsExactly(id);
+
+        var otherRequest = new Reservation(
+                null, USER_ID, ROOM_ID, LocalDate.now().plusDays(8), LocalDate.now().plusDays(9), null
+        );
+        assertThatThrownBy(() -> create("create-70000", otherRequest))
+                .isInstanceOf(InvalidReservationRequestException.class);
+    }
+
+    @Test
+    void repeatedApprovalIsReplayed() {
+        var created = reservationService.createReservation(new Reservation(
+                null, USER_ID + 1, ROOM_ID + 1, LocalDate.now().plusDays(5), LocalDate.now().plusDays(7), null
+        ));
+
+        var first = idempotencyService.execute("approve-70001", "approve", created.id(), Reservation.class,
+                () -> reservationService.approveReservation(created.id()));
+        var retried = idempotencyService.execute("approve-70001", "approve", created.id(), Reservation.class,
+                () -> reservationService.approveReservation(created.id()));
+
+        assertThat(retried).isEqualTo(first);
+    }
+
+    @Test
+    void concurrentRetriesRunACommittingActionOnce() throws Exception {
+        var runs = new AtomicInteger();
+        int threads = 8;
+        var start = new CountDownLatch(1);
+        List<Future<String>> results = new ArrayList<>();
+        try (var executor = Executors.newFixedThreadPool(threads)) {
+            for (int i = 0; i < threads; i++) {
+                Callable<String> retry = () -> {
+                    start.await();
+                    return idempotencyService.execute("cancel-70002", "cancel", 70_002L, String.class, () -> {
+                        runs.incrementAndGet();
+                        sleep(100);
+                        return "cancelled";
+                    });
+                };
+                results.add(executor.submit(retry));
+            }
+            start.countDown();
+        }
+
+        for (Future<String> result : results) {
+            assertThat(result.get()).isEqualTo("cancelled");
+        }
+        assertThat(runs).hasValue(1);
+    }
+
+    @Test
+    void failedActionReleasesTheKey() {
+        assertThatThrownBy(() -> idempotencyService.execute("cancel-70003", "cancel", 70_003L, String.class, () -> {
+            throw new ReservationConflictException("Cannot cancel");
+        })).isInstanceOf(ReservationConflictException.class);
+
+        var retried = idempotencyService.execute("cancel-70003", "cancel", 70_003L, String.class, () -> "cancelled");
+
+        assertThat(retried).isEqualTo("cancelled");
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private Reservation create(String key, Reservation request) {
+        return idempotencyService.executeAtomically(key, "create", request, Reservation.class,
+                () -> reservationService.createReservation(request));
+    }
+}
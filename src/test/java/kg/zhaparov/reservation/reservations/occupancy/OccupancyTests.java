@@ -0,0 +1,71 @@
+package kg.zhaparov.reservation.reservations.occupancy;
+
+import kg.zhaparov.reservation.reservations.Reservation;
+import kg.zhaparov.reservation.reservations.ReservationService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class OccupancyTests {
+
+    private static final long ROOM_ID = 50_000L;
+    private static final long IDLE_ROOM_ID = 50_001L;
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private OccupancyService occupancyService;
+
+    @Test
+    void approvedNightsAreAggregatedAcrossMonthBoundaries() throws Exception {
+        YearMonth month = YearMonth.now().plusYears(20);
+        LocalDate startDate = month.atEndOfMonth().minusDays(1);
+        var approved = create(startDate, startDate.plusDays(4));
+        create(startDate, startDate.plusDays(4));
+        reservationService.approveReservation(approved.id());
+
+        var request = new MonthRangeOccupancyRequest(List.of(ROOM_ID, IDLE_ROOM_ID), month, month.plusMonths(1), null);
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        while (occupancyService.findRoomOccupancy(request).getFirst().occupiedNights() < 4
+                && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+        }
+
+        long nights = month.lengthOfMonth() + month.plusMonths(1).lengthOfMonth();
+        assertThat(occupancyService.findRoomOccupancy(request)).containsExactly(
+                new RoomOccupancy(ROOM_ID, 4, nights, Math.round(4 * 10_000.0 / nights) / 100.0),
+                new RoomOccupancy(IDLE_ROOM_ID, 0, nights, 0)
+        );
+
+        var monthly = occupancyService.findMonthlyOccupancy(request);
+        assertThat(monthly).extracting(MonthlyOccupancy::month, MonthlyOccupancy::occupiedNights)
+                .containsExactly(
+                        tuple(month, 2L),
+                        tuple(month.plusMonths(1), 2L)
+                );
+
+        var daily = occupancyService.findDailyOccupancy(new DayRangeOccupancyRequest(
+                startDate.minusDays(1), startDate.plusDays(5), 10
+        ));
+        assertThat(daily).extracting(DailyOccupancy::occupiedRooms)
+                .containsExactly(0L, 1L, 1L, 1L, 1L, 0L);
+        assertThat(daily.get(1).utilization()).isEqualTo(10.0);
+    }
+
+    private Reservation create(LocalDate startDate, LocalDate endDate) {
+        return reservationService.createReservation(new Reservation(
+                null, 1L, ROOM_ID, startDate, endDate, null
+        ));
+    }
+}
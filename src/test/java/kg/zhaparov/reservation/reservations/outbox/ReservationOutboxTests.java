@@ -0,0 +1,98 @@
+package kg.zhaparov.reservation.reservations.outbox;
+
+import kg.zhaparov.reservation.reservations.Reservation;
+import kg.zhaparov.reservation.reservations.ReservationConflictException;
+import kg.zhaparov.reservation.reservations.ReservationService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ReservationOutboxTests {
+
+    private static final long ROOM_ID = 30_000L;
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private ReservationEventBroadcaster broadcaster;
+
+    @Test
+    void onlyCommittedTransitionsReachTheStream() throws Exception {
+        List<ReservationEvent> received = new CopyOnWriteArrayList<>();
+        List<String> cursors = new CopyOnWriteArrayList<>();
+        var subscription = broadcaster.subscribe(null, (event, cursor) -> {
+            received.add(event);
+            cursors.add(cursor);
+        }, () -> {});
+
+        LocalDate startDate = LocalDate.now().plusDays(10);
+        var first = create(startDate);
+        var second = create(startDate);
+        reservationService.approveReservation(first.id());
+        assertThatThrownBy(() -> reservationService.approveReservation(second.id()))
+                .isInstanceOf(ReservationConflictException.class);
+        reservationService.cancelReservation(second.id());
+
+        awaitEvents(received, first, second, 4);
+        broadcaster.unsubscribe(subscription);
+
+        assertThat(eventsFor(received, first, second))
+                .extracting(ReservationEvent::reservationId, ReservationEvent::type)
+                .containsExactly(
+                        tuple(first.id(), ReservationEventType.CREATED),
+                        tuple(second.id(), ReservationEventType.CREATED),
+                        tuple(first.id(), ReservationEventType.APPROVED),
+                        tuple(second.id(), ReservationEventType.CANCELLED)
+                );
+        assertThat(received).extracting(ReservationEvent::eventId).isSorted();
+
+        int firstCreated = received.indexOf(eventsFor(received, first, second).getFirst());
+        List<ReservationEvent> resumed = new CopyOnWriteArrayList<>();
+        var replay = broadcaster.subscribe(cursors.get(firstCreated), (event, cursor) -> resumed.add(event), () -> {});
+        awaitEvents(resumed, first, second, 3);
+        broadcaster.unsubscribe(replay);
+
+        assertThat(eventsFor(resumed, first, second))
+                .extracting(ReservationEvent::eventId)
+                .containsExactlyElementsOf(eventsFor(received, first, second).stream()
+                        .skip(1)
+                        .map(ReservationEvent::eventId)
+                        .toList());
+    }
+
+    private static void awaitEvents(
+            List<ReservationEvent> received,
+            Reservation first,
+            Reservation second,
+            int count
+    ) throws InterruptedException {
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        while (eventsFor(received, first, second).size() < count && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+        }
+    }
+
+    private Reservation create(LocalDate startDate) {
+        return reservationService.createReservation(new Reservation(
+                null, 1L, ROOM_ID, startDate, startDate.plusDays(2), null
+        ));
+    }
+
+    private static List<ReservationEvent> eventsFor(List<ReservationEvent> events, Reservation first, Reservation second) {
+        return events.stream()
+                .filter(event -> event.reservationId().equals(first.id()) || event.reservationId().equals(second.id()))
+                .toList();
+    }
+}
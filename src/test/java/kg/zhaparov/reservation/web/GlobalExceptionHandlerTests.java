@@ -0,0 +1,38 @@
+package kg.zhaparov.reservation.web;
+
+import org.hibernate.exception.ConstraintViolationException;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+
+import java.sql.SQLException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GlobalExceptionHandlerTests {
+
+    private final GlobalExceptionHandler handler = new GlobalExceptionHandler();
+
+    @Test
+    void overlapConstraintIsAConflictWithAFixedMessage() {
+        var cause = new ConstraintViolationException(
+                "could not execute statement",
+                new SQLException("conflicting key value violates exclusion constraint \"reservations_approved_no_overlap\"", "23P01"),
+                "reservations_approved_no_overlap"
+        );
+
+        var response = handler.handleConflict(new DataIntegrityViolationException("overlap", cause));
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+        assertThat(response.getBody().detailedMessage()).isEqualTo("Reservation overlaps an approved reservation of the room");
+    }
+
+    @Test
+    void otherIntegrityViolationsAreServerErrors() {
+        var cause = new SQLException("null value in column \"room_id\" violates not-null constraint", "23502");
+
+        var response = handler.handleConflict(new DataIntegrityViolationException("not null", cause));
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.INTERNAL_SERVER_ERROR);
+    }
+}
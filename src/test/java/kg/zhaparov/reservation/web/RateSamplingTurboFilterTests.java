@@ -0,0 +1,37 @@
+package kg.zhaparov.reservation.web;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.core.spi.FilterReply;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateSamplingTurboFilterTests {
+
+    @Test
+    void dropsEventsOverThePermitsOfMatchingLoggers() {
+        var context = new LoggerContext();
+        var filter = new RateSamplingTurboFilter();
+        filter.setContext(context);
+        filter.setLoggerPattern(".*Controller");
+        filter.setPermitsPerSecond(3);
+        filter.start();
+
+        var controller = context.getLogger("kg.zhaparov.reservation.ReservationController");
+        var service = context.getLogger("kg.zhaparov.reservation.ReservationService");
+
+        int passed = 0;
+        for (int i = 0; i < 100; i++) {
+            if (filter.decide(null, controller, Level.WARN, "rejected", null, null) == FilterReply.NEUTRAL) {
+                passed++;
+            }
+            assertThat(filter.decide(null, service, Level.INFO, "message", null, null))
+                    .isEqualTo(FilterReply.NEUTRAL);
+            assertThat(filter.decide(null, controller, Level.ERROR, "failed", null, null))
+                    .isEqualTo(FilterReply.NEUTRAL);
+        }
+        // a second boundary may fall into the loop and reopen the window once
+        assertThat(passed).isBetween(3, 6);
+    }
+}
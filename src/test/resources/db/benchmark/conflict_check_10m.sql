@@ -0,0 +1,67 @@
+-- Conflict-check latency at 10M rows.
+--
+-- Run against a scratch database migrated to the latest version:
+--   psql -v ON_ERROR_STOP=1 -d reservation_bench -f conflict_check_10m.sql
+--
+-- Generates 100 000 rooms x 100 stays. Stays of one room never overlap, so the
+-- APPROVED ones satisfy reservations_approved_no_overlap; about 70% are APPROVED.
+
+\timing on
+
+TRUNCATE reservation.reservations;
+
+INSERT INTO reservation.reservations (user_id, room_id, start_date, end_date, status)
+SELECT (random() * 1000000)::BIGINT,
+       room.id,
+       DATE '2024-01-01' + slot.n * 8,
+       DATE '2024-01-01' + slot.n * 8 + 1 + (slot.n % 7),
+       CASE
+           WHEN random() < 0.7 THEN 'APPROVED'
+           WHEN random() < 0.5 THEN 'PENDING'
+           ELSE 'CANCELLED'
+           END
+FROM generate_series(1, 100000) AS room(id),
+     generate_series(0, 99) AS slot(n);
+
+VACUUM ANALYZE reservation.reservations;
+
+-- Plan of the query behind ReservationRepository.findConflictReservationIds.
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT r.id
+FROM reservation.reservations r
+WHERE r.room_id = 4242
+  AND DATE '2024-06-01' < r.end_date
+  AND r.start_date < DATE '2024-06-05'
+  AND r.status = 'APPROVED';
+
+-- Average latency of 10 000 random conflict checks, executed server-side.
+DO
+$$
+    DECLARE
+        started    TIMESTAMPTZ;
+        checks     INT := 10000;
+        conflicts  INT := 0;
+        check_room BIGINT;
+        check_day  DATE;
+    BEGIN
+        started := clock_timestamp();
+        FOR i IN 1..checks
+            LOOP
+                check_room := 1 + (random() * 99999)::BIGINT;
+                check_day := DATE '2024-01-01' + (random() * 790)::INT;
+                PERFORM 1
+                FROM reservation.reservations r
+                WHERE r.room_id = check_room
+                  AND check_day < r.end_date
+                  AND r.start_date < check_day + 3
+                  AND r.status = 'APPROVED';
+                IF FOUND THEN
+                    conflicts := conflicts + 1;
+                END IF;
+            END LOOP;
+        RAISE NOTICE '% checks, % with conflicts, % us per check',
+            checks,
+            conflicts,
+            round(extract(EPOCH FROM clock_timestamp() - started) * 1000000 / checks, 1);
+    END
+$$;